@@ -10,6 +10,8 @@ CREATE TABLE `xxl_job_info` (
   `id` int(11) NOT NULL AUTO_INCREMENT,
   `job_group` int(11) NOT NULL COMMENT '执行器主键ID',
   `job_cron` varchar(128) NOT NULL COMMENT '任务执行CRON',
+  `schedule_type` varchar(50) NOT NULL DEFAULT 'CRON' COMMENT '调度类型',
+  `schedule_interval` bigint(13) NOT NULL DEFAULT '0' COMMENT '固定频率/固定延迟调度间隔，单位毫秒',
   `job_desc` varchar(255) NOT NULL,
   `add_time` datetime DEFAULT NULL,
   `update_time` datetime DEFAULT NULL,
@@ -26,10 +28,14 @@ CREATE TABLE `xxl_job_info` (
   `glue_remark` varchar(128) DEFAULT NULL COMMENT 'GLUE备注',
   `glue_updatetime` datetime DEFAULT NULL COMMENT 'GLUE更新时间',
   `child_jobid` varchar(255) DEFAULT NULL COMMENT '子任务ID，多个逗号分隔',
+  `misfire_strategy` varchar(50) NOT NULL DEFAULT 'DO_NOTHING' COMMENT '调度过期策略',
   `trigger_status` tinyint(4) NOT NULL DEFAULT '0' COMMENT '调度状态：0-停止，1-运行',
   `trigger_last_time` bigint(13) NOT NULL DEFAULT '0' COMMENT '上次调度时间',
   `trigger_next_time` bigint(13) NOT NULL DEFAULT '0' COMMENT '下次调度时间',
-  PRIMARY KEY (`id`)
+  `schedule_bucket` int(11) NOT NULL DEFAULT '0' COMMENT '调度分桶：id % 1024，调度分区按分桶扫描',
+  PRIMARY KEY (`id`),
+  KEY `i_update_time` (`update_time`),
+  KEY `i_bucket_next` (`schedule_bucket`,`trigger_status`,`trigger_next_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 CREATE TABLE `xxl_job_log` (
@@ -104,6 +110,36 @@ CREATE TABLE `xxl_job_user` (
   UNIQUE KEY `i_username` (`username`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+CREATE TABLE `xxl_job_ring_checkpoint` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `admin_id` varchar(128) NOT NULL COMMENT '调度中心ID，推入时间轮的调度中心',
+  `job_id` int(11) NOT NULL COMMENT '任务，主键ID',
+  `trigger_time` bigint(13) NOT NULL COMMENT '调度时间',
+  `schedule_bucket` int(11) NOT NULL DEFAULT '0' COMMENT '调度分桶：job_id % 1024',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `i_job_time` (`job_id`,`trigger_time`),
+  KEY `i_admin_time` (`admin_id`,`trigger_time`),
+  KEY `i_trigger_time` (`trigger_time`),
+  KEY `i_bucket_time` (`schedule_bucket`,`trigger_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `xxl_job_trigger_spill` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `job_id` int(11) NOT NULL COMMENT '任务，主键ID',
+  `trigger_type` varchar(50) NOT NULL COMMENT '触发类型',
+  `fail_retry_count` int(11) NOT NULL DEFAULT '0' COMMENT '失败重试次数',
+  `executor_sharding_param` varchar(20) DEFAULT NULL COMMENT '执行器任务分片参数',
+  `executor_param` text COMMENT '执行器任务参数，为空时使用任务参数',
+  `spill_time` bigint(13) NOT NULL COMMENT '溢出时间',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `xxl_job_id_segment` (
+  `biz_tag` varchar(50) NOT NULL COMMENT '业务标识',
+  `max_id` bigint(20) NOT NULL COMMENT '已分配号段的最大ID',
+  PRIMARY KEY (`biz_tag`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 CREATE TABLE `xxl_job_lock` (
   `lock_name` varchar(50) NOT NULL COMMENT '锁名称',
   PRIMARY KEY (`lock_name`)
@@ -111,9 +147,10 @@ CREATE TABLE `xxl_job_lock` (
 
 
 INSERT INTO `xxl_job_group`(`id`, `app_name`, `title`, `order`, `address_type`, `address_list`) VALUES (1, 'xxl-job-executor-sample', '示例执行器', 1, 0, NULL);
-INSERT INTO `xxl_job_info`(`id`, `job_group`, `job_cron`, `job_desc`, `add_time`, `update_time`, `author`, `alarm_email`, `executor_route_strategy`, `executor_handler`, `executor_param`, `executor_block_strategy`, `executor_timeout`, `executor_fail_retry_count`, `glue_type`, `glue_source`, `glue_remark`, `glue_updatetime`, `child_jobid`) VALUES (1, 1, '0 0 0 * * ? *', '测试任务1', '2018-11-03 22:21:31', '2018-11-03 22:21:31', 'XXL', '', 'FIRST', 'demoJobHandler', '', 'SERIAL_EXECUTION', 0, 0, 'BEAN', '', 'GLUE代码初始化', '2018-11-03 22:21:31', '');
+INSERT INTO `xxl_job_info`(`id`, `job_group`, `job_cron`, `job_desc`, `add_time`, `update_time`, `author`, `alarm_email`, `executor_route_strategy`, `executor_handler`, `executor_param`, `executor_block_strategy`, `executor_timeout`, `executor_fail_retry_count`, `glue_type`, `glue_source`, `glue_remark`, `glue_updatetime`, `child_jobid`, `schedule_bucket`) VALUES (1, 1, '0 0 0 * * ? *', '测试任务1', '2018-11-03 22:21:31', '2018-11-03 22:21:31', 'XXL', '', 'FIRST', 'demoJobHandler', '', 'SERIAL_EXECUTION', 0, 0, 'BEAN', '', 'GLUE代码初始化', '2018-11-03 22:21:31', '', 1);
 INSERT INTO `xxl_job_user`(`id`, `username`, `password`, `role`, `permission`) VALUES (1, 'admin', 'e10adc3949ba59abbe56e057f20f883e', 1, NULL);
 INSERT INTO `xxl_job_lock` ( `lock_name`) VALUES ( 'schedule_lock');
+INSERT INTO `xxl_job_id_segment` ( `biz_tag`, `max_id`) VALUES ( 'xxl_job_log', 0);
 
 commit;
 
@@ -0,0 +1,62 @@
+#
+# XXL-JOB v2.2.0-SNAPSHOT, upgrade from v2.1.x
+# Copyright (c) 2015-present, xuxueli.
+#
+# run once on the db of an existing v2.1.x deploy, before upgraded admin started;
+# admin checks schema on start, and fails fast if table or column required by enabled feature is missing.
+
+use `xxl_job`;
+
+
+# schedule type and misfire strategy of job
+ALTER TABLE `xxl_job_info`
+  ADD COLUMN `schedule_type` varchar(50) NOT NULL DEFAULT 'CRON' COMMENT '调度类型' AFTER `job_cron`,
+  ADD COLUMN `schedule_interval` bigint(13) NOT NULL DEFAULT '0' COMMENT '固定频率/固定延迟调度间隔，单位毫秒' AFTER `schedule_type`,
+  ADD COLUMN `misfire_strategy` varchar(50) NOT NULL DEFAULT 'DO_NOTHING' COMMENT '调度过期策略' AFTER `child_jobid`;
+
+# schedule index: change on other admin synced by update_time
+ALTER TABLE `xxl_job_info` ADD KEY `i_update_time` (`update_time`);
+
+# schedule partition: "xxl.job.schedule.partition.count", job scanned by indexed bucket (id % 1024) of owned partitions
+ALTER TABLE `xxl_job_info`
+  ADD COLUMN `schedule_bucket` int(11) NOT NULL DEFAULT '0' COMMENT '调度分桶：id % 1024，调度分区按分桶扫描' AFTER `trigger_next_time`,
+  ADD KEY `i_bucket_next` (`schedule_bucket`,`trigger_status`,`trigger_next_time`);
+UPDATE `xxl_job_info` SET `schedule_bucket` = MOD(`id`, 1024);
+
+# time-ring checkpoint: "xxl.job.timering.checkpoint.enabled"
+CREATE TABLE IF NOT EXISTS `xxl_job_ring_checkpoint` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `admin_id` varchar(128) NOT NULL COMMENT '调度中心ID，推入时间轮的调度中心',
+  `job_id` int(11) NOT NULL COMMENT '任务，主键ID',
+  `trigger_time` bigint(13) NOT NULL COMMENT '调度时间',
+  `schedule_bucket` int(11) NOT NULL DEFAULT '0' COMMENT '调度分桶：job_id % 1024',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `i_job_time` (`job_id`,`trigger_time`),
+  KEY `i_admin_time` (`admin_id`,`trigger_time`),
+  KEY `i_trigger_time` (`trigger_time`),
+  KEY `i_bucket_time` (`schedule_bucket`,`trigger_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+# log id segment: "xxl.job.log.idsegment.step", ids start above max id of existing log
+CREATE TABLE IF NOT EXISTS `xxl_job_id_segment` (
+  `biz_tag` varchar(50) NOT NULL COMMENT '业务标识',
+  `max_id` bigint(20) NOT NULL COMMENT '已分配号段的最大ID',
+  PRIMARY KEY (`biz_tag`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO `xxl_job_id_segment` ( `biz_tag`, `max_id`) VALUES ( 'xxl_job_log', 0);
+
+# trigger spill: trigger pool saturated, trigger spilled into db
+CREATE TABLE IF NOT EXISTS `xxl_job_trigger_spill` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `job_id` int(11) NOT NULL COMMENT '任务，主键ID',
+  `trigger_type` varchar(50) NOT NULL COMMENT '触发类型',
+  `fail_retry_count` int(11) NOT NULL DEFAULT '0' COMMENT '失败重试次数',
+  `executor_sharding_param` varchar(20) DEFAULT NULL COMMENT '执行器任务分片参数',
+  `executor_param` text COMMENT '执行器任务参数，为空时使用任务参数',
+  `spill_time` bigint(13) NOT NULL COMMENT '溢出时间',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+commit;
+
@@ -1,6 +1,7 @@
 package com.xxl.job.admin.controller;
 
 import com.xxl.job.admin.controller.annotation.PermissionLimit;
+import com.xxl.job.admin.core.thread.JobScheduleHelper;
 import com.xxl.job.admin.service.LoginService;
 import com.xxl.job.admin.service.XxlJobService;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -48,6 +49,12 @@ public class IndexController {
         ReturnT<Map<String, Object>> chartInfo = xxlJobService.chartInfo(startDate, endDate);
         return chartInfo;
     }
+
+	@RequestMapping("/scheduleMetrics")
+	@ResponseBody
+	public ReturnT<Map<String, Object>> scheduleMetrics() {
+		return new ReturnT<Map<String, Object>>(JobScheduleHelper.getInstance().getMetrics());
+	}
 	
 	@RequestMapping("/toLogin")
 	@PermissionLimit(limit=false)
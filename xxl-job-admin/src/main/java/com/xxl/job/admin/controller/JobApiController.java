@@ -5,6 +5,7 @@ import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.exception.XxlJobException;
 import com.xxl.job.admin.core.util.JacksonUtil;
 import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.GlueSourceParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -124,6 +125,26 @@ public class JobApiController {
         return adminBiz.registryRemove(registryParam);
     }
 
+    /**
+     * load glue source
+     *
+     * @param data
+     * @return
+     */
+    @RequestMapping("/loadGlueSource")
+    @ResponseBody
+    @PermissionLimit(limit=false)
+    public ReturnT<String> loadGlueSource(HttpServletRequest request, @RequestBody(required = false) String data) {
+        // valid
+        validAccessToken(request);
+
+        // param
+        GlueSourceParam glueSourceParam = (GlueSourceParam) parseParam(data, GlueSourceParam.class);
+
+        // invoke
+        return adminBiz.loadGlueSource(glueSourceParam);
+    }
+
     // ---------------------- job biz ----------------------
 
 }
@@ -2,6 +2,8 @@ package com.xxl.job.admin.controller;
 
 import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobRegistry;
+import com.xxl.job.admin.core.thread.JobInfoCacheHelper;
+import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
 import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.admin.dao.XxlJobGroupDao;
 import com.xxl.job.admin.dao.XxlJobInfoDao;
@@ -111,6 +113,7 @@ public class JobGroupController {
 		}
 
 		int ret = xxlJobGroupDao.update(xxlJobGroup);
+		JobInfoCacheHelper.getInstance().removeJobGroup(xxlJobGroup.getId());
 		return (ret>0)?ReturnT.SUCCESS:ReturnT.FAIL;
 	}
 
@@ -152,6 +155,10 @@ public class JobGroupController {
 		}
 
 		int ret = xxlJobGroupDao.remove(id);
+		if (ret > 0) {
+			JobTriggerPoolHelper.getInstance().removeBulkhead(id);
+			JobInfoCacheHelper.getInstance().removeJobGroup(id);
+		}
 		return (ret>0)?ReturnT.SUCCESS:ReturnT.FAIL;
 	}
 
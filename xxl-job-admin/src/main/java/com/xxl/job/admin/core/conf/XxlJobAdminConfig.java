@@ -1,7 +1,9 @@
 package com.xxl.job.admin.core.conf;
 
 import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.admin.core.thread.JobSchedulePartitionHelper;
 import com.xxl.job.admin.dao.*;
+import com.xxl.job.core.biz.AdminBiz;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
@@ -62,9 +64,81 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
     @Value("${xxl.job.triggerpool.slow.max}")
     private int triggerPoolSlowMax;
 
+    @Value("${xxl.job.triggerpool.virtual.enabled:false}")
+    private boolean triggerPoolVirtualEnabled;
+
+    @Value("${xxl.job.triggerpool.virtual.groupmax:500}")
+    private int triggerPoolVirtualGroupMax;
+
+    @Value("${xxl.job.triggerpool.slow.threshold:500}")
+    private long triggerPoolSlowThreshold;
+
+    @Value("${xxl.job.triggerpool.slow.window:10}")
+    private int triggerPoolSlowWindow;
+
     @Value("${xxl.job.logretentiondays}")
     private int logretentiondays;
 
+    @Value("${xxl.job.schedule.partition.count:0}")
+    private int schedulePartitionCount;
+
+    @Value("${xxl.job.schedule.index.enabled:false}")
+    private boolean scheduleIndexEnabled;
+
+    @Value("${xxl.job.schedule.index.reconcileseconds:30}")
+    private int scheduleIndexReconcileSeconds;
+
+    @Value("${xxl.job.timering.tickms:10}")
+    private long timeRingTickMs;
+
+    @Value("${xxl.job.timering.wheelsize:64}")
+    private int timeRingWheelSize;
+
+    @Value("${xxl.job.schedule.misfire.maxcount:100}")
+    private int misfireMaxCount;
+
+    @Value("${xxl.job.schedule.misfire.batchsize:100}")
+    private int misfireBatchSize;
+
+    @Value("${xxl.job.timering.checkpoint.enabled:false}")
+    private boolean timeRingCheckpointEnabled;
+
+    @Value("${xxl.job.trigger.async.enabled:true}")
+    private boolean triggerAsyncEnabled;
+
+    @Value("${xxl.job.trigger.async.maxinflight:10000}")
+    private int triggerAsyncMaxInFlight;
+
+    @Value("${xxl.job.log.idsegment.step:1000}")
+    private int logIdSegmentStep;
+
+    @Value("${xxl.job.log.writebatch.size:100}")
+    private int logWriteBatchSize;
+
+    @Value("${xxl.job.log.writebatch.intervalms:5}")
+    private int logWriteIntervalMs;
+
+    @Value("${xxl.job.log.writebatch.journaldir:/data/applogs/xxl-job/journal}")
+    private String logWriteJournalDir;
+
+    @Value("${xxl.job.trigger.batch.lingerms:0}")
+    private int triggerBatchLingerMs;
+
+    @Value("${xxl.job.trigger.sharding.concurrency:20}")
+    private int triggerShardingConcurrency;
+
+    @Value("${xxl.job.trigger.cache.enabled:true}")
+    private boolean triggerCacheEnabled;
+
+    @Value("${xxl.job.trigger.ratelimit.address:0}")
+    private int triggerRateLimitAddress;
+
+    @Value("${xxl.job.trigger.ratelimit.job:0}")
+    private int triggerRateLimitJob;
+
+    @Value("${xxl.job.route.consistenthash.vnodes:100}")
+    private int routeConsistentHashVirtualNodes;
+
     // dao, service
 
     @Resource
@@ -78,6 +152,14 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
     @Resource
     private XxlJobLogReportDao xxlJobLogReportDao;
     @Resource
+    private XxlJobRingCheckpointDao xxlJobRingCheckpointDao;
+    @Resource
+    private XxlJobTriggerSpillDao xxlJobTriggerSpillDao;
+    @Resource
+    private XxlJobIdSegmentDao xxlJobIdSegmentDao;
+    @Resource
+    private AdminBiz adminBiz;
+    @Resource
     private JavaMailSender mailSender;
     @Resource
     private DataSource dataSource;
@@ -109,6 +191,31 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
         return triggerPoolSlowMax;
     }
 
+    public boolean isTriggerPoolVirtualEnabled() {
+        return triggerPoolVirtualEnabled;
+    }
+
+    public int getTriggerPoolVirtualGroupMax() {
+        if (triggerPoolVirtualGroupMax < 1) {
+            return 1;
+        }
+        return triggerPoolVirtualGroupMax;
+    }
+
+    public long getTriggerPoolSlowThreshold() {
+        if (triggerPoolSlowThreshold < 0) {
+            return 0;
+        }
+        return triggerPoolSlowThreshold;
+    }
+
+    public int getTriggerPoolSlowWindow() {
+        if (triggerPoolSlowWindow < 1) {
+            return 1;
+        }
+        return triggerPoolSlowWindow;
+    }
+
     public int getLogretentiondays() {
         if (logretentiondays < 7) {
             return -1;  // Limit greater than or equal to 7, otherwise close
@@ -116,6 +223,129 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
         return logretentiondays;
     }
 
+    public int getSchedulePartitionCount() {
+        if (schedulePartitionCount < 1) {
+            return 0;   // disabled, use global schedule_lock
+        } else if (schedulePartitionCount > JobSchedulePartitionHelper.BUCKET_COUNT) {
+            return JobSchedulePartitionHelper.BUCKET_COUNT;
+        }
+        return schedulePartitionCount;
+    }
+
+    public boolean isScheduleIndexEnabled() {
+        return scheduleIndexEnabled;
+    }
+
+    public int getScheduleIndexReconcileSeconds() {
+        if (scheduleIndexReconcileSeconds < 5) {
+            return 5;
+        }
+        return scheduleIndexReconcileSeconds;
+    }
+
+    public long getTimeRingTickMs() {
+        if (timeRingTickMs < 1) {
+            return 1;
+        }
+        if (timeRingTickMs > 1000) {
+            return 1000;   // not coarser than the origin second ring
+        }
+        return timeRingTickMs;
+    }
+
+    public int getTimeRingWheelSize() {
+        if (timeRingWheelSize < 16) {
+            return 16;
+        }
+        return timeRingWheelSize;
+    }
+
+    public int getMisfireMaxCount() {
+        if (misfireMaxCount < 1) {
+            return 1;
+        }
+        return misfireMaxCount;
+    }
+
+    public int getMisfireBatchSize() {
+        if (misfireBatchSize < 1) {
+            return 1;
+        }
+        return misfireBatchSize;
+    }
+
+    public boolean isTimeRingCheckpointEnabled() {
+        return timeRingCheckpointEnabled;
+    }
+
+    public boolean isTriggerAsyncEnabled() {
+        return triggerAsyncEnabled;
+    }
+
+    public int getTriggerAsyncMaxInFlight() {
+        if (triggerAsyncMaxInFlight < 100) {
+            return 100;
+        }
+        return triggerAsyncMaxInFlight;
+    }
+
+    public int getLogIdSegmentStep() {
+        return logIdSegmentStep;
+    }
+
+    public int getLogWriteBatchSize() {
+        if (logWriteBatchSize > 1000) {
+            return 1000;
+        }
+        return logWriteBatchSize;
+    }
+
+    public int getLogWriteIntervalMs() {
+        if (logWriteIntervalMs < 1) {
+            return 1;
+        }
+        return logWriteIntervalMs;
+    }
+
+    public String getLogWriteJournalDir() {
+        return logWriteJournalDir;
+    }
+
+    public int getTriggerBatchLingerMs() {
+        if (triggerBatchLingerMs > 1000) {
+            return 1000;
+        }
+        return triggerBatchLingerMs;
+    }
+
+    public int getTriggerShardingConcurrency() {
+        if (triggerShardingConcurrency < 1) {
+            return 1;
+        }
+        return triggerShardingConcurrency;
+    }
+
+    public boolean isTriggerCacheEnabled() {
+        return triggerCacheEnabled;
+    }
+
+    public int getTriggerRateLimitAddress() {
+        return triggerRateLimitAddress;
+    }
+
+    public int getTriggerRateLimitJob() {
+        return triggerRateLimitJob;
+    }
+
+    public int getRouteConsistentHashVirtualNodes() {
+        if (routeConsistentHashVirtualNodes < 1) {
+            return 1;
+        } else if (routeConsistentHashVirtualNodes > 1000) {
+            return 1000;
+        }
+        return routeConsistentHashVirtualNodes;
+    }
+
     public XxlJobLogDao getXxlJobLogDao() {
         return xxlJobLogDao;
     }
@@ -136,6 +366,22 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
         return xxlJobLogReportDao;
     }
 
+    public XxlJobRingCheckpointDao getXxlJobRingCheckpointDao() {
+        return xxlJobRingCheckpointDao;
+    }
+
+    public XxlJobTriggerSpillDao getXxlJobTriggerSpillDao() {
+        return xxlJobTriggerSpillDao;
+    }
+
+    public XxlJobIdSegmentDao getXxlJobIdSegmentDao() {
+        return xxlJobIdSegmentDao;
+    }
+
+    public AdminBiz getAdminBiz() {
+        return adminBiz;
+    }
+
     public JavaMailSender getMailSender() {
         return mailSender;
     }
@@ -0,0 +1,704 @@
+package com.xxl.job.admin.core.cron;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+/**
+ * bitset cron evaluation engine
+ *
+ *  - parse by {@link CronExpression}, each field compiled into a 128-bit mask (year into sorted int array)
+ *  - "getTimeAfter" is a step-by-step port of {@link CronExpression#getTimeAfter(Date)}, with "TreeSet.tailSet"
+ *    replaced by bit scan, and lenient "Calendar" replaced by primitive local date-time fields on epoch second
+ *  - local time is resolved by the zone offset of the "after" time; when offset may change around the search
+ *    (daylight saving), span too long, or no time found, fall back to {@link CronExpression} to keep the same semantics
+ *
+ * @author xuxueli 2020-02-15
+ */
+public final class CronBitExpression {
+
+    private static final long OFFSET_GUARD_MS = 6 * 60 * 60 * 1000L;          // no offset change in 6h around
+    private static final long OFFSET_PROBE_MS = 7 * 24 * 60 * 60 * 1000L;     // no offset change, probed weekly
+    private static final long MAX_FAST_SPAN_MS = 2 * 366 * 24 * 60 * 60 * 1000L;
+
+    private static final int SUNDAY = 1;
+    private static final int SATURDAY = 7;
+    private static final long FALLBACK = Long.MIN_VALUE;
+
+    private final CronExpression expression;
+    private final TimeZone timeZone;
+
+    private final long[] seconds;
+    private final long[] minutes;
+    private final long[] hours;
+    private final long[] daysOfMonth;
+    private final long[] months;
+    private final long[] daysOfWeek;
+    private final int[] years;
+
+    private final boolean lastdayOfWeek;
+    private final int nthdayOfWeek;
+    private final boolean lastdayOfMonth;
+    private final boolean nearestWeekday;
+    private final int lastdayOffset;
+
+    public CronBitExpression(String cronExpression) throws ParseException {
+        this(new CronExpression(cronExpression));
+    }
+
+    public CronBitExpression(CronExpression expression) {
+        this.expression = expression;
+        this.timeZone = expression.getTimeZone();
+
+        this.seconds = toBits(expression.seconds);
+        this.minutes = toBits(expression.minutes);
+        this.hours = toBits(expression.hours);
+        this.daysOfMonth = toBits(expression.daysOfMonth);
+        this.months = toBits(expression.months);
+        this.daysOfWeek = toBits(expression.daysOfWeek);
+
+        int[] years = new int[expression.years.size()];
+        int i = 0;
+        for (Integer year: expression.years) {
+            years[i++] = year;
+        }
+        this.years = years;     // TreeSet, sorted
+
+        this.lastdayOfWeek = expression.lastdayOfWeek;
+        this.nthdayOfWeek = expression.nthdayOfWeek;
+        this.lastdayOfMonth = expression.lastdayOfMonth;
+        this.nearestWeekday = expression.nearestWeekday;
+        this.lastdayOffset = expression.lastdayOffset;
+    }
+
+    public CronExpression getCronExpression() {
+        return expression;
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * @see CronExpression#getNextValidTimeAfter(Date)
+     */
+    public Date getNextValidTimeAfter(Date date) {
+        long nextTime = getTimeAfter(date.getTime());
+        return nextTime != -1 ? new Date(nextTime) : null;
+    }
+
+    /**
+     * @param afterTime     epoch millis
+     * @return  next valid epoch millis after "afterTime", -1 if none
+     */
+    public long getTimeAfter(long afterTime) {
+        long nextTime = FALLBACK;
+        try {
+            nextTime = computeTimeAfter(afterTime);
+        } catch (RuntimeException e) {
+            // leave it to origin engine, same result or same exception
+        }
+        if (nextTime == FALLBACK) {
+            Date nextDate = expression.getTimeAfter(new Date(afterTime));
+            return nextDate != null ? nextDate.getTime() : -1;
+        }
+        return nextTime;
+    }
+
+    // ---------------------- compute ----------------------
+
+    private long computeTimeAfter(long afterTimeMs) {
+
+        // move ahead one second, since we're computing the time *after* the given time
+        afterTimeMs = afterTimeMs + 1000;
+
+        // fixed zone offset, verified after computed
+        int offset = timeZone.getOffset(afterTimeMs);
+        if (timeZone.getOffset(afterTimeMs - OFFSET_GUARD_MS) != offset) {
+            return FALLBACK;
+        }
+
+        // CronTrigger does not deal with milliseconds
+        LocalFields cl = new LocalFields();
+        cl.setLocalSecond(floorDiv(afterTimeMs + offset, 1000));
+
+        boolean gotOne = false;
+        // loop until we've computed the next time, or we've past the endTime
+        while (!gotOne) {
+
+            if (cl.getYear() > 2999) { // prevent endless loop...
+                return FALLBACK;
+            }
+
+            int st;
+            int t;
+
+            int sec = cl.getSecond();
+            int min = cl.getMinute();
+
+            // get second.................................................
+            st = tail(seconds, sec);
+            if (st != -1) {
+                sec = st;
+            } else {
+                sec = first(seconds);
+                min++;
+                cl.minute = min; cl.dirty = true;
+            }
+            cl.second = sec; cl.dirty = true;
+
+            min = cl.getMinute();
+            int hr = cl.getHour();
+            t = -1;
+
+            // get minute.................................................
+            st = tail(minutes, min);
+            if (st != -1) {
+                t = min;
+                min = st;
+            } else {
+                min = first(minutes);
+                hr++;
+            }
+            if (min != t) {
+                cl.second = 0;
+                cl.minute = min;
+                cl.setHour(hr);
+                continue;
+            }
+            cl.minute = min; cl.dirty = true;
+
+            hr = cl.getHour();
+            int day = cl.getDay();
+            t = -1;
+
+            // get hour...................................................
+            st = tail(hours, hr);
+            if (st != -1) {
+                t = hr;
+                hr = st;
+            } else {
+                hr = first(hours);
+                day++;
+            }
+            if (hr != t) {
+                cl.second = 0;
+                cl.minute = 0;
+                cl.day = day;
+                cl.setHour(hr);
+                continue;
+            }
+            cl.hour = hr; cl.dirty = true;
+
+            day = cl.getDay();
+            int mon = cl.getMonth();
+            t = -1;
+            int tmon = mon;
+
+            // get day...................................................
+            boolean dayOfMSpec = !contains(daysOfMonth, CronExpression.NO_SPEC_INT);
+            boolean dayOfWSpec = !contains(daysOfWeek, CronExpression.NO_SPEC_INT);
+            if (dayOfMSpec && !dayOfWSpec) { // get day by day of month rule
+                st = tail(daysOfMonth, day);
+                if (lastdayOfMonth) {
+                    if(!nearestWeekday) {
+                        t = day;
+                        day = getLastDayOfMonth(mon, cl.getYear());
+                        day -= lastdayOffset;
+                        if(t > day) {
+                            mon++;
+                            if(mon > 12) {
+                                mon = 1;
+                                tmon = 3333; // ensure test of mon != tmon further below fails
+                                cl.addYear(1);
+                            }
+                            day = 1;
+                        }
+                    } else {
+                        t = day;
+                        day = getLastDayOfMonth(mon, cl.getYear());
+                        day -= lastdayOffset;
+
+                        int[] nearest = nearestWeekday(day, mon, cl.getYear(), sec, min, hr, offset, afterTimeMs);
+                        day = nearest[0];
+                        if (nearest[1] == 1) {
+                            day = 1;
+                            mon++;
+                        }
+                    }
+                } else if(nearestWeekday) {
+                    t = day;
+                    day = first(daysOfMonth);
+
+                    int[] nearest = nearestWeekday(day, mon, cl.getYear(), sec, min, hr, offset, afterTimeMs);
+                    day = nearest[0];
+                    if (nearest[1] == 1) {
+                        day = first(daysOfMonth);
+                        mon++;
+                    }
+                } else if (st != -1) {
+                    t = day;
+                    day = st;
+                    // make sure we don't over-run a short month, such as february
+                    int lastDay = getLastDayOfMonth(mon, cl.getYear());
+                    if (day > lastDay) {
+                        day = first(daysOfMonth);
+                        mon++;
+                    }
+                } else {
+                    day = first(daysOfMonth);
+                    mon++;
+                }
+
+                if (day != t || mon != tmon) {
+                    cl.second = 0;
+                    cl.minute = 0;
+                    cl.hour = 0;
+                    cl.day = day;
+                    cl.month = mon;
+                    cl.dirty = true;
+                    continue;
+                }
+            } else if (dayOfWSpec && !dayOfMSpec) { // get day by day of week rule
+                if (lastdayOfWeek) { // are we looking for the last XXX day of the month?
+                    int dow = first(daysOfWeek); // desired d-o-w
+                    int cDow = cl.getDayOfWeek(); // current d-o-w
+                    int daysToAdd = 0;
+                    if (cDow < dow) {
+                        daysToAdd = dow - cDow;
+                    }
+                    if (cDow > dow) {
+                        daysToAdd = dow + (7 - cDow);
+                    }
+
+                    int lDay = getLastDayOfMonth(mon, cl.getYear());
+
+                    if (day + daysToAdd > lDay) { // did we already miss the last one?
+                        cl.second = 0;
+                        cl.minute = 0;
+                        cl.hour = 0;
+                        cl.day = 1;
+                        cl.month = mon + 1;
+                        cl.dirty = true;
+                        continue;
+                    }
+
+                    // find date of last occurrence of this day in this month...
+                    while ((day + daysToAdd + 7) <= lDay) {
+                        daysToAdd += 7;
+                    }
+
+                    day += daysToAdd;
+
+                    if (daysToAdd > 0) {
+                        cl.second = 0;
+                        cl.minute = 0;
+                        cl.hour = 0;
+                        cl.day = day;
+                        cl.month = mon;
+                        cl.dirty = true;
+                        continue;
+                    }
+
+                } else if (nthdayOfWeek != 0) {
+                    // are we looking for the Nth XXX day in the month?
+                    int dow = first(daysOfWeek); // desired d-o-w
+                    int cDow = cl.getDayOfWeek(); // current d-o-w
+                    int daysToAdd = 0;
+                    if (cDow < dow) {
+                        daysToAdd = dow - cDow;
+                    } else if (cDow > dow) {
+                        daysToAdd = dow + (7 - cDow);
+                    }
+
+                    boolean dayShifted = false;
+                    if (daysToAdd > 0) {
+                        dayShifted = true;
+                    }
+
+                    day += daysToAdd;
+                    int weekOfMonth = day / 7;
+                    if (day % 7 > 0) {
+                        weekOfMonth++;
+                    }
+
+                    daysToAdd = (nthdayOfWeek - weekOfMonth) * 7;
+                    day += daysToAdd;
+                    if (daysToAdd < 0 || day > getLastDayOfMonth(mon, cl.getYear())) {
+                        cl.second = 0;
+                        cl.minute = 0;
+                        cl.hour = 0;
+                        cl.day = 1;
+                        cl.month = mon + 1;
+                        cl.dirty = true;
+                        continue;
+                    } else if (daysToAdd > 0 || dayShifted) {
+                        cl.second = 0;
+                        cl.minute = 0;
+                        cl.hour = 0;
+                        cl.day = day;
+                        cl.month = mon;
+                        cl.dirty = true;
+                        continue;
+                    }
+                } else {
+                    int cDow = cl.getDayOfWeek(); // current d-o-w
+                    int dow = first(daysOfWeek); // desired d-o-w
+                    st = tail(daysOfWeek, cDow);
+                    if (st != -1) {
+                        dow = st;
+                    }
+
+                    int daysToAdd = 0;
+                    if (cDow < dow) {
+                        daysToAdd = dow - cDow;
+                    }
+                    if (cDow > dow) {
+                        daysToAdd = dow + (7 - cDow);
+                    }
+
+                    int lDay = getLastDayOfMonth(mon, cl.getYear());
+
+                    if (day + daysToAdd > lDay) { // will we pass the end of the month?
+                        cl.second = 0;
+                        cl.minute = 0;
+                        cl.hour = 0;
+                        cl.day = 1;
+                        cl.month = mon + 1;
+                        cl.dirty = true;
+                        continue;
+                    } else if (daysToAdd > 0) { // are we swithing days?
+                        cl.second = 0;
+                        cl.minute = 0;
+                        cl.hour = 0;
+                        cl.day = day + daysToAdd;
+                        cl.month = mon;
+                        cl.dirty = true;
+                        continue;
+                    }
+                }
+            } else {
+                return FALLBACK;    // both day-of-week and day-of-month, origin engine throws
+            }
+            cl.day = day; cl.dirty = true;
+
+            mon = cl.getMonth();
+            int year = cl.getYear();
+            t = -1;
+
+            // test for expressions that never generate a valid fire date, but keep looping...
+            if (year > CronExpression.MAX_YEAR) {
+                return FALLBACK;
+            }
+
+            // get month...................................................
+            st = tail(months, mon);
+            if (st != -1) {
+                t = mon;
+                mon = st;
+            } else {
+                mon = first(months);
+                year++;
+            }
+            if (mon != t) {
+                cl.second = 0;
+                cl.minute = 0;
+                cl.hour = 0;
+                cl.day = 1;
+                cl.month = mon;
+                cl.year = year;
+                cl.dirty = true;
+                continue;
+            }
+            cl.month = mon; cl.dirty = true;
+
+            year = cl.getYear();
+            t = -1;
+
+            // get year...................................................
+            int yearIndex = Arrays.binarySearch(years, year);
+            if (yearIndex < 0) {
+                yearIndex = -yearIndex - 1;
+            }
+            if (yearIndex < years.length) {
+                t = year;
+                year = years[yearIndex];
+            } else {
+                return FALLBACK; // ran out of years...
+            }
+
+            if (year != t) {
+                cl.second = 0;
+                cl.minute = 0;
+                cl.hour = 0;
+                cl.day = 1;
+                cl.month = 1;
+                cl.year = year;
+                cl.dirty = true;
+                continue;
+            }
+            cl.year = year; cl.dirty = true;
+
+            gotOne = true;
+        } // while( !done )
+
+        // verify zone offset
+        long nextTime = cl.getLocalSecond() * 1000 - offset;
+        if (nextTime - afterTimeMs > MAX_FAST_SPAN_MS
+                || timeZone.getOffset(nextTime) != offset
+                || timeZone.getOffset(nextTime - OFFSET_GUARD_MS) != offset
+                || timeZone.getOffset(nextTime + OFFSET_GUARD_MS) != offset) {  // local time not ambiguous
+            return FALLBACK;
+        }
+        for (long probeTime = afterTimeMs + OFFSET_PROBE_MS; probeTime < nextTime; probeTime += OFFSET_PROBE_MS) {
+            if (timeZone.getOffset(probeTime) != offset) {
+                return FALLBACK;
+            }
+        }
+        return nextTime;
+    }
+
+    /**
+     * nearest weekday of day, the "W" rule
+     *
+     * @return  [day, 1 if the nearest weekday time is before afterTime else 0]
+     */
+    private int[] nearestWeekday(int day, int mon, int year, int sec, int min, int hr, int offset, long afterTimeMs) {
+        LocalFields tcal = new LocalFields();
+        tcal.second = 0;
+        tcal.minute = 0;
+        tcal.hour = 0;
+        tcal.day = day;
+        tcal.month = mon;
+        tcal.year = year;
+        tcal.dirty = true;
+
+        int ldom = getLastDayOfMonth(mon, year);
+        int dow = tcal.getDayOfWeek();
+
+        if(dow == SATURDAY && day == 1) {
+            day += 2;
+        } else if(dow == SATURDAY) {
+            day -= 1;
+        } else if(dow == SUNDAY && day == ldom) {
+            day -= 2;
+        } else if(dow == SUNDAY) {
+            day += 1;
+        }
+
+        tcal.second = sec;
+        tcal.minute = min;
+        tcal.hour = hr;
+        tcal.day = day;
+        tcal.month = mon;
+        tcal.dirty = true;
+        long nTime = tcal.getLocalSecond() * 1000 - offset;
+
+        // compared at second, millisecond of afterTime ignored (legacy compares with a calendar carrying current millisecond)
+        return new int[]{day, nTime < floorDiv(afterTimeMs, 1000) * 1000 ? 1 : 0};
+    }
+
+    // ---------------------- bits ----------------------
+
+    private static long[] toBits(TreeSet<Integer> set) {
+        long[] bits = new long[2];
+        for (Integer value: set) {
+            if (value < 0 || value > 127) {
+                throw new IllegalArgumentException("cron field value out of range: " + value);
+            }
+            bits[value >>> 6] |= 1L << (value & 63);
+        }
+        return bits;
+    }
+
+    /**
+     * smallest value >= from, -1 if none (TreeSet.tailSet(from).first())
+     */
+    private static int tail(long[] bits, int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        if (from < 64) {
+            long word = bits[0] & (-1L << from);
+            if (word != 0) {
+                return Long.numberOfTrailingZeros(word);
+            }
+            from = 64;
+        }
+        if (from < 128) {
+            long word = bits[1] & (-1L << (from - 64));
+            if (word != 0) {
+                return 64 + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * smallest value (TreeSet.first()), origin engine throws NoSuchElementException if empty
+     */
+    private static int first(long[] bits) {
+        int value = tail(bits, 0);
+        if (value == -1) {
+            throw new IllegalStateException("empty cron field");
+        }
+        return value;
+    }
+
+    private static boolean contains(long[] bits, int value) {
+        return (bits[value >>> 6] & (1L << (value & 63))) != 0;
+    }
+
+    // ---------------------- date ----------------------
+
+    private static boolean isLeapYear(int year) {
+        return ((year % 4 == 0 && year % 100 != 0) || (year % 400 == 0));
+    }
+
+    private static int getLastDayOfMonth(int monthNum, int year) {
+        switch (monthNum) {
+            case 2:
+                return (isLeapYear(year)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            case 1:
+            case 3:
+            case 5:
+            case 7:
+            case 8:
+            case 10:
+            case 12:
+                return 31;
+            default:
+                throw new IllegalArgumentException("Illegal month number: " + monthNum);
+        }
+    }
+
+    private static long floorDiv(long x, long y) {
+        long r = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            r--;
+        }
+        return r;
+    }
+
+    private static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    /**
+     * days since 1970-01-01 of proleptic gregorian date
+     */
+    private static long daysFromCivil(long year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = floorDiv(year, 400);
+        long yoe = year - era * 400;
+        long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * local date-time fields, lenient like "Calendar": field may be set out of range, normalized when read
+     */
+    private static class LocalFields {
+        private int year;
+        private int month;      // 1-based
+        private int day;
+        private int hour;
+        private int minute;
+        private int second;
+        private long epochDay;
+        private boolean dirty;
+
+        private void setLocalSecond(long localSecond) {
+            epochDay = floorDiv(localSecond, 86400);
+            int secondOfDay = (int) floorMod(localSecond, 86400);
+            hour = secondOfDay / 3600;
+            minute = secondOfDay / 60 % 60;
+            second = secondOfDay % 60;
+
+            long z = epochDay + 719468;
+            long era = floorDiv(z, 146097);
+            long doe = z - era * 146097;
+            long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+            long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+            long mp = (5 * doy + 2) / 153;
+            day = (int) (doy - (153 * mp + 2) / 5 + 1);
+            month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+            dirty = false;
+        }
+
+        private long getLocalSecond() {
+            long monthIndex = month - 1;
+            long normalYear = year + floorDiv(monthIndex, 12);
+            int normalMonth = (int) floorMod(monthIndex, 12) + 1;
+            long days = daysFromCivil(normalYear, normalMonth, 1) + (day - 1);
+            return days * 86400 + hour * 3600L + minute * 60L + second;
+        }
+
+        private void complete() {
+            if (dirty) {
+                setLocalSecond(getLocalSecond());
+            }
+        }
+
+        private int getYear() {
+            complete();
+            return year;
+        }
+        private int getMonth() {
+            complete();
+            return month;
+        }
+        private int getDay() {
+            complete();
+            return day;
+        }
+        private int getHour() {
+            complete();
+            return hour;
+        }
+        private int getMinute() {
+            complete();
+            return minute;
+        }
+        private int getSecond() {
+            complete();
+            return second;
+        }
+        private int getDayOfWeek() {
+            complete();
+            return (int) floorMod(epochDay + 4, 7) + 1;     // 1970-01-01 is thursday(5)
+        }
+
+        /**
+         * same as "CronExpression.setCalendarHour", hour never skipped with fixed offset
+         */
+        private void setHour(int hour) {
+            this.hour = hour;
+            this.dirty = true;
+            complete();
+        }
+
+        /**
+         * same as "Calendar.add(YEAR, amount)", pin day of month
+         */
+        private void addYear(int amount) {
+            complete();
+            year += amount;
+            int lastDay = getLastDayOfMonth(month, year);
+            if (day > lastDay) {
+                day = lastDay;
+            }
+            dirty = true;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.xxl.job.admin.core.cron;
+
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * compiled cron expression cache, keyed by expression string
+ *
+ *  - shared by schedule thread, job service and ui, cached instance is read-only: never call "setTimeZone" on it
+ *  - bounded, evict arbitrary entry when full; invalid expression is not cached
+ *  - cached as {@link CronBitExpression}, next fire time computed by bitset engine
+ *
+ * @author xuxueli 2020-02-08
+ */
+public class CronExpressionCache {
+
+    private static final int MAX_SIZE = 20000;
+
+    private static ConcurrentMap<String, CronBitExpression> cacheRepository = new ConcurrentHashMap<String, CronBitExpression>();
+
+    /**
+     * get compiled cron expression
+     *
+     * @param cronExpression
+     * @return
+     * @throws ParseException   invalid expression
+     */
+    public static CronBitExpression get(String cronExpression) throws ParseException {
+        if (cronExpression == null) {
+            throw new ParseException("cron expression cannot be null", 0);
+        }
+
+        // load-cache
+        CronBitExpression compiled = cacheRepository.get(cronExpression);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        // set-cache
+        compiled = new CronBitExpression(cronExpression);     // default time-zone inited, before shared
+        if (cacheRepository.size() >= MAX_SIZE) {
+            Iterator<String> keyIt = cacheRepository.keySet().iterator();
+            if (keyIt.hasNext()) {
+                keyIt.next();
+                keyIt.remove();
+            }
+        }
+        CronBitExpression exists = cacheRepository.putIfAbsent(cronExpression, compiled);
+        return exists != null ? exists : compiled;
+    }
+
+    /**
+     * valid cron expression, valid one will be cached
+     *
+     * @param cronExpression
+     * @return
+     */
+    public static boolean isValidExpression(String cronExpression) {
+        try {
+            get(cronExpression);
+            return true;
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+    public static int size() {
+        return cacheRepository.size();
+    }
+
+}
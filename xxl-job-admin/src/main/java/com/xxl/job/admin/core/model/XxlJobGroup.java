@@ -17,10 +17,13 @@ public class XxlJobGroup {
     private String addressList;     // 执行器地址列表，多地址逗号分隔(手动录入)
 
     // registry list
-    private List<String> registryList;  // 执行器地址列表(系统注册)
+    private volatile List<String> registryList;  // 执行器地址列表(系统注册)
+    private volatile String registryListSource;  // address list parsed, parse again only when changed
     public List<String> getRegistryList() {
-        if (addressList!=null && addressList.trim().length()>0) {
+        String addressList = this.addressList;
+        if (addressList!=null && addressList.trim().length()>0 && !addressList.equals(registryListSource)) {
             registryList = new ArrayList<String>(Arrays.asList(addressList.split(",")));
+            registryListSource = addressList;
         }
         return registryList;
     }
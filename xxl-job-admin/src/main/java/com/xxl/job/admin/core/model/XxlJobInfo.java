@@ -13,6 +13,8 @@ public class XxlJobInfo {
 	
 	private int jobGroup;		// 执行器主键ID
 	private String jobCron;		// 任务执行CRON表达式
+	private String scheduleType;	// 调度类型	#com.xxl.job.admin.core.scheduler.ScheduleTypeEnum
+	private long scheduleInterval;	// 固定频率/固定延迟调度间隔，单位毫秒
 	private String jobDesc;
 	
 	private Date addTime;
@@ -35,6 +37,8 @@ public class XxlJobInfo {
 
 	private String childJobId;		// 子任务ID，多个逗号分隔
 
+	private String misfireStrategy;	// 调度过期策略	#com.xxl.job.admin.core.scheduler.MisfireStrategyEnum
+
 	private int triggerStatus;		// 调度状态：0-停止，1-运行
 	private long triggerLastTime;	// 上次调度时间
 	private long triggerNextTime;	// 下次调度时间
@@ -64,6 +68,22 @@ public class XxlJobInfo {
 		this.jobCron = jobCron;
 	}
 
+	public String getScheduleType() {
+		return scheduleType;
+	}
+
+	public void setScheduleType(String scheduleType) {
+		this.scheduleType = scheduleType;
+	}
+
+	public long getScheduleInterval() {
+		return scheduleInterval;
+	}
+
+	public void setScheduleInterval(long scheduleInterval) {
+		this.scheduleInterval = scheduleInterval;
+	}
+
 	public String getJobDesc() {
 		return jobDesc;
 	}
@@ -192,6 +212,14 @@ public class XxlJobInfo {
 		this.childJobId = childJobId;
 	}
 
+	public String getMisfireStrategy() {
+		return misfireStrategy;
+	}
+
+	public void setMisfireStrategy(String misfireStrategy) {
+		this.misfireStrategy = misfireStrategy;
+	}
+
 	public int getTriggerStatus() {
 		return triggerStatus;
 	}
@@ -0,0 +1,60 @@
+package com.xxl.job.admin.core.model;
+
+/**
+ * time-ring checkpoint, trigger pushed into time-ring but not fired yet
+ *
+ * @author xuxueli 2020-03-14
+ */
+public class XxlJobRingCheckpoint {
+
+    private long id;
+    private String adminId;         // owner admin, who pushed it into time-ring
+    private int jobId;
+    private long triggerTime;       // scheduled fire time, ms
+
+    public XxlJobRingCheckpoint() {
+    }
+
+    public XxlJobRingCheckpoint(String adminId, int jobId, long triggerTime) {
+        this.adminId = adminId;
+        this.jobId = jobId;
+        this.triggerTime = triggerTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getAdminId() {
+        return adminId;
+    }
+
+    public void setAdminId(String adminId) {
+        this.adminId = adminId;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(int jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getTriggerTime() {
+        return triggerTime;
+    }
+
+    public void setTriggerTime(long triggerTime) {
+        this.triggerTime = triggerTime;
+    }
+
+    @Override
+    public String toString() {
+        return jobId + "@" + triggerTime;
+    }
+}
@@ -0,0 +1,229 @@
+package com.xxl.job.admin.core.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * trigger diagnostics, persisted in xxl_job_log.trigger_msg as compact json, rendered to html when log shown
+ *
+ * @author xuxueli 2020-05-23
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class XxlJobTriggerDiag {
+
+    private String triggerType;         // trigger type, TriggerTypeEnum name
+    private String adminAddress;        // admin ip
+    private int addressType;            // executor address type, 0=auto, 1=manual
+    private int registrySize;           // executor address count of group
+    private int addressIndex = -1;      // index of routed address in address list, -1 as none
+    private String routeStrategy;       // ExecutorRouteStrategyEnum name
+    private String blockStrategy;       // ExecutorBlockStrategyEnum name
+    private int executorTimeout;
+    private long throttleDelay;         // ms
+    private int routeCode;
+    private String routeMsg;
+    private String beatType;            // "beat" / "idleBeat" of route, null as no beat
+    private List<Beat> beatList;
+    private int runCode;
+    private String runMsg;
+    private long rpcCost;               // ms, throttle delay excluded
+    private long triggerCost;           // ms, throttle delay excluded
+    private boolean retried;            // fail retry triggered
+
+    public String getTriggerType() {
+        return triggerType;
+    }
+
+    public void setTriggerType(String triggerType) {
+        this.triggerType = triggerType;
+    }
+
+    public String getAdminAddress() {
+        return adminAddress;
+    }
+
+    public void setAdminAddress(String adminAddress) {
+        this.adminAddress = adminAddress;
+    }
+
+    public int getAddressType() {
+        return addressType;
+    }
+
+    public void setAddressType(int addressType) {
+        this.addressType = addressType;
+    }
+
+    public int getRegistrySize() {
+        return registrySize;
+    }
+
+    public void setRegistrySize(int registrySize) {
+        this.registrySize = registrySize;
+    }
+
+    public int getAddressIndex() {
+        return addressIndex;
+    }
+
+    public void setAddressIndex(int addressIndex) {
+        this.addressIndex = addressIndex;
+    }
+
+    public String getRouteStrategy() {
+        return routeStrategy;
+    }
+
+    public void setRouteStrategy(String routeStrategy) {
+        this.routeStrategy = routeStrategy;
+    }
+
+    public String getBlockStrategy() {
+        return blockStrategy;
+    }
+
+    public void setBlockStrategy(String blockStrategy) {
+        this.blockStrategy = blockStrategy;
+    }
+
+    public int getExecutorTimeout() {
+        return executorTimeout;
+    }
+
+    public void setExecutorTimeout(int executorTimeout) {
+        this.executorTimeout = executorTimeout;
+    }
+
+    public long getThrottleDelay() {
+        return throttleDelay;
+    }
+
+    public void setThrottleDelay(long throttleDelay) {
+        this.throttleDelay = throttleDelay;
+    }
+
+    public int getRouteCode() {
+        return routeCode;
+    }
+
+    public void setRouteCode(int routeCode) {
+        this.routeCode = routeCode;
+    }
+
+    public String getRouteMsg() {
+        return routeMsg;
+    }
+
+    public void setRouteMsg(String routeMsg) {
+        this.routeMsg = routeMsg;
+    }
+
+    public String getBeatType() {
+        return beatType;
+    }
+
+    public void setBeatType(String beatType) {
+        this.beatType = beatType;
+    }
+
+    public List<Beat> getBeatList() {
+        return beatList;
+    }
+
+    public void setBeatList(List<Beat> beatList) {
+        this.beatList = beatList;
+    }
+
+    public int getRunCode() {
+        return runCode;
+    }
+
+    public void setRunCode(int runCode) {
+        this.runCode = runCode;
+    }
+
+    public String getRunMsg() {
+        return runMsg;
+    }
+
+    public void setRunMsg(String runMsg) {
+        this.runMsg = runMsg;
+    }
+
+    public long getRpcCost() {
+        return rpcCost;
+    }
+
+    public void setRpcCost(long rpcCost) {
+        this.rpcCost = rpcCost;
+    }
+
+    public long getTriggerCost() {
+        return triggerCost;
+    }
+
+    public void setTriggerCost(long triggerCost) {
+        this.triggerCost = triggerCost;
+    }
+
+    public boolean isRetried() {
+        return retried;
+    }
+
+    public void setRetried(boolean retried) {
+        this.retried = retried;
+    }
+
+    public void addBeat(String address, int code, String msg) {
+        if (beatList == null) {
+            beatList = new ArrayList<Beat>();
+        }
+        beatList.add(new Beat(address, code, msg));
+    }
+
+    /**
+     * beat result of one address
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Beat {
+        private String address;
+        private int code;
+        private String msg;
+
+        public Beat() {
+        }
+
+        public Beat(String address, int code, String msg) {
+            this.address = address;
+            this.code = code;
+            this.msg = msg;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public void setCode(int code) {
+            this.code = code;
+        }
+
+        public String getMsg() {
+            return msg;
+        }
+
+        public void setMsg(String msg) {
+            this.msg = msg;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.xxl.job.admin.core.model;
+
+/**
+ * trigger spilled when trigger pool saturated, drained back as capacity frees up
+ *
+ * @author xuxueli 2020-03-28
+ */
+public class XxlJobTriggerSpill {
+
+    private long id;
+    private int jobId;
+    private String triggerType;
+    private int failRetryCount;
+    private String executorShardingParam;
+    private String executorParam;       // null: use job param
+    private long spillTime;             // ms
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(int jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getTriggerType() {
+        return triggerType;
+    }
+
+    public void setTriggerType(String triggerType) {
+        this.triggerType = triggerType;
+    }
+
+    public int getFailRetryCount() {
+        return failRetryCount;
+    }
+
+    public void setFailRetryCount(int failRetryCount) {
+        this.failRetryCount = failRetryCount;
+    }
+
+    public String getExecutorShardingParam() {
+        return executorShardingParam;
+    }
+
+    public void setExecutorShardingParam(String executorShardingParam) {
+        this.executorShardingParam = executorShardingParam;
+    }
+
+    public String getExecutorParam() {
+        return executorParam;
+    }
+
+    public void setExecutorParam(String executorParam) {
+        this.executorParam = executorParam;
+    }
+
+    public long getSpillTime() {
+        return spillTime;
+    }
+
+    public void setSpillTime(long spillTime) {
+        this.spillTime = spillTime;
+    }
+}
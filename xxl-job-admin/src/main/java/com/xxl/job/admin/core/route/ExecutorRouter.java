@@ -1,5 +1,6 @@
 package com.xxl.job.admin.core.route;
 
+import com.xxl.job.admin.core.model.XxlJobTriggerDiag;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 import org.slf4j.Logger;
@@ -21,4 +22,15 @@ public abstract class ExecutorRouter {
      */
     public abstract ReturnT<String> route(TriggerParam triggerParam, List<String> addressList);
 
+    /**
+     * route address, route outcome (beat result etc) recorded into trigger diag
+     *
+     * @param addressList
+     * @param triggerDiag
+     * @return  ReturnT.content=address
+     */
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList, XxlJobTriggerDiag triggerDiag) {
+        return route(triggerParam, addressList);
+    }
+
 }
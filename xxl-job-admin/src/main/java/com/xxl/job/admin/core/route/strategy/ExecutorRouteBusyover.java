@@ -1,8 +1,8 @@
 package com.xxl.job.admin.core.route.strategy;
 
+import com.xxl.job.admin.core.model.XxlJobTriggerDiag;
 import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
 import com.xxl.job.admin.core.route.ExecutorRouter;
-import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
@@ -16,7 +16,14 @@ public class ExecutorRouteBusyover extends ExecutorRouter {
 
     @Override
     public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
-        StringBuffer idleBeatResultSB = new StringBuffer();
+        return route(triggerParam, addressList, null);
+    }
+
+    @Override
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList, XxlJobTriggerDiag triggerDiag) {
+        if (triggerDiag != null) {
+            triggerDiag.setBeatType("idleBeat");
+        }
         for (String address : addressList) {
             // beat
             ReturnT<String> idleBeatResult = null;
@@ -27,21 +34,19 @@ public class ExecutorRouteBusyover extends ExecutorRouter {
                 logger.error(e.getMessage(), e);
                 idleBeatResult = new ReturnT<String>(ReturnT.FAIL_CODE, ""+e );
             }
-            idleBeatResultSB.append( (idleBeatResultSB.length()>0)?"<br><br>":"")
-                    .append(I18nUtil.getString("jobconf_idleBeat") + "：")
-                    .append("<br>address：").append(address)
-                    .append("<br>code：").append(idleBeatResult.getCode())
-                    .append("<br>msg：").append(idleBeatResult.getMsg());
+            if (triggerDiag != null) {
+                triggerDiag.addBeat(address, idleBeatResult.getCode(), idleBeatResult.getMsg());
+            }
 
             // beat success
             if (idleBeatResult.getCode() == ReturnT.SUCCESS_CODE) {
-                idleBeatResult.setMsg(idleBeatResultSB.toString());
+                idleBeatResult.setMsg(null);
                 idleBeatResult.setContent(address);
                 return idleBeatResult;
             }
         }
 
-        return new ReturnT<String>(ReturnT.FAIL_CODE, idleBeatResultSB.toString());
+        return new ReturnT<String>(ReturnT.FAIL_CODE, null);
     }
 
 }
@@ -1,79 +1,156 @@
 package com.xxl.job.admin.core.route.strategy;
 
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.route.ExecutorRouter;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 
-import java.io.UnsupportedEncodingException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 分组下机器地址相同，不同JOB均匀散列在不同机器上，保证分组下机器分配JOB平均；且每个JOB固定调度其中一台机器；
- *      a、virtual node：解决不均衡问题
- *      b、hash method replace hashCode：String的hashCode可能重复，需要进一步扩大hashCode的取值范围
+ *      a、virtual node：解决不均衡问题，虚拟节点数可配置
+ *      b、hash method replace hashCode：String的hashCode可能重复，需要进一步扩大hashCode的取值范围，64位散列(fnv-1a + murmur3 fmix64)
+ *      c、ring cache：哈希环按机器地址列表构建一次并缓存，有序long[]数组二分查找
  * Created by xuxueli on 17/3/10.
  */
 public class ExecutorRouteConsistentHash extends ExecutorRouter {
 
-    private static int VIRTUAL_NODE_NUM = 5;
+    private static final int DEFAULT_VIRTUAL_NODE_NUM = 100;
+    private static final int RING_CACHE_MAX = 64;
+
+    private final ConcurrentMap<List<String>, Ring> ringCache = new ConcurrentHashMap<>();
+    private volatile LastRing lastRing;     // same address list instance until registry refreshed, found without hashing list
 
     /**
-     * get hash code on 2^32 ring (md5散列的方式计算hash值)
+     * get hash code on 2^64 ring, fnv-1a over chars, mixed by murmur3 fmix64
+     *
      * @param key
      * @return
      */
-    private static long hash(String key) {
-
-        // md5 byte
-        MessageDigest md5;
-        try {
-            md5 = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 not supported", e);
-        }
-        md5.reset();
-        byte[] keyBytes = null;
-        try {
-            keyBytes = key.getBytes("UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("Unknown string :" + key, e);
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
         }
+        return fmix64(hash);
+    }
 
-        md5.update(keyBytes);
-        byte[] digest = md5.digest();
+    static long hash(long key) {
+        return fmix64(key);
+    }
 
-        // hash code, Truncate to 32-bits
-        long hashCode = ((long) (digest[3] & 0xFF) << 24)
-                | ((long) (digest[2] & 0xFF) << 16)
-                | ((long) (digest[1] & 0xFF) << 8)
-                | (digest[0] & 0xFF);
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
 
-        long truncateHashCode = hashCode & 0xffffffffL;
-        return truncateHashCode;
+    private static int virtualNodeNum() {
+        XxlJobAdminConfig adminConfig = XxlJobAdminConfig.getAdminConfig();
+        return adminConfig!=null?adminConfig.getRouteConsistentHashVirtualNodes():DEFAULT_VIRTUAL_NODE_NUM;
     }
 
     public String hashJob(int jobId, List<String> addressList) {
-
         // ------A1------A2-------A3------
         // -----------J1------------------
-        TreeMap<Long, String> addressRing = new TreeMap<Long, String>();
-        for (String address: addressList) {
-            for (int i = 0; i < VIRTUAL_NODE_NUM; i++) {
-                long addressHash = hash("SHARD-" + address + "-NODE-" + i);
-                addressRing.put(addressHash, address);
+        return loadRing(addressList).locate(hash(jobId));
+    }
+
+    /**
+     * ring of address list, built once and cached
+     */
+    Ring loadRing(List<String> addressList) {
+        LastRing last = lastRing;
+        if (last!=null && last.addressList==addressList) {
+            return last.ring;
+        }
+
+        Ring ring = ringCache.get(addressList);
+        if (ring == null) {
+            if (ringCache.size() >= RING_CACHE_MAX) {
+                ringCache.clear();      // address list of group changed many times, stale ring removed
+            }
+            List<String> addressListCopy = Collections.unmodifiableList(new ArrayList<String>(addressList));
+            ring = new Ring(addressListCopy, virtualNodeNum());
+            ringCache.put(addressListCopy, ring);
+        }
+        lastRing = new LastRing(addressList, ring);
+        return ring;
+    }
+
+    private static class LastRing {
+        private final List<String> addressList;
+        private final Ring ring;
+
+        private LastRing(List<String> addressList, Ring ring) {
+            this.addressList = addressList;
+            this.ring = ring;
+        }
+    }
+
+    /**
+     * hash ring, virtual node hash sorted in long[], owner address index in int[]
+     */
+    static class Ring {
+        private final String[] addresses;
+        private final long[] nodeHashes;
+        private final int[] nodeOwners;
+
+        Ring(List<String> addressList, int virtualNodeNum) {
+            addresses = addressList.toArray(new String[addressList.size()]);
+
+            int nodeNum = addresses.length * virtualNodeNum;
+            final long[] hashes = new long[nodeNum];
+            Integer[] order = new Integer[nodeNum];
+            for (int i = 0; i < addresses.length; i++) {
+                for (int j = 0; j < virtualNodeNum; j++) {
+                    int node = i * virtualNodeNum + j;
+                    hashes[node] = hash("SHARD-" + addresses[i] + "-NODE-" + j);
+                    order[node] = node;
+                }
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return Long.compare(hashes[o1], hashes[o2]);
+                }
+            });
+
+            nodeHashes = new long[nodeNum];
+            nodeOwners = new int[nodeNum];
+            for (int i = 0; i < nodeNum; i++) {
+                nodeHashes[i] = hashes[order[i]];
+                nodeOwners[i] = order[i] / virtualNodeNum;
             }
         }
 
-        long jobHash = hash(String.valueOf(jobId));
-        SortedMap<Long, String> lastRing = addressRing.tailMap(jobHash);
-        if (!lastRing.isEmpty()) {
-            return lastRing.get(lastRing.firstKey());
+        /**
+         * first virtual node clockwise from hash
+         */
+        String locate(long hash) {
+            if (nodeHashes.length == 0) {
+                return null;
+            }
+            int index = Arrays.binarySearch(nodeHashes, hash);
+            if (index < 0) {
+                index = -(index + 1);
+                if (index == nodeHashes.length) {
+                    index = 0;
+                }
+            }
+            return addresses[nodeOwners[index]];
         }
-        return addressRing.firstEntry().getValue();
     }
 
     @Override
@@ -1,8 +1,8 @@
 package com.xxl.job.admin.core.route.strategy;
 
+import com.xxl.job.admin.core.model.XxlJobTriggerDiag;
 import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
 import com.xxl.job.admin.core.route.ExecutorRouter;
-import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
@@ -16,8 +16,14 @@ public class ExecutorRouteFailover extends ExecutorRouter {
 
     @Override
     public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+        return route(triggerParam, addressList, null);
+    }
 
-        StringBuffer beatResultSB = new StringBuffer();
+    @Override
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList, XxlJobTriggerDiag triggerDiag) {
+        if (triggerDiag != null) {
+            triggerDiag.setBeatType("beat");
+        }
         for (String address : addressList) {
             // beat
             ReturnT<String> beatResult = null;
@@ -28,21 +34,18 @@ public class ExecutorRouteFailover extends ExecutorRouter {
                 logger.error(e.getMessage(), e);
                 beatResult = new ReturnT<String>(ReturnT.FAIL_CODE, ""+e );
             }
-            beatResultSB.append( (beatResultSB.length()>0)?"<br><br>":"")
-                    .append(I18nUtil.getString("jobconf_beat") + "：")
-                    .append("<br>address：").append(address)
-                    .append("<br>code：").append(beatResult.getCode())
-                    .append("<br>msg：").append(beatResult.getMsg());
+            if (triggerDiag != null) {
+                triggerDiag.addBeat(address, beatResult.getCode(), beatResult.getMsg());
+            }
 
             // beat success
             if (beatResult.getCode() == ReturnT.SUCCESS_CODE) {
-
-                beatResult.setMsg(beatResultSB.toString());
+                beatResult.setMsg(null);
                 beatResult.setContent(address);
                 return beatResult;
             }
         }
-        return new ReturnT<String>(ReturnT.FAIL_CODE, beatResultSB.toString());
+        return new ReturnT<String>(ReturnT.FAIL_CODE, null);
 
     }
 }
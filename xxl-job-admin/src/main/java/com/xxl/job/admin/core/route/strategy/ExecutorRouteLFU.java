@@ -5,75 +5,142 @@ import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 单个JOB对应的每个执行器，使用频率最低的优先被选举
  *      a(*)、LFU(Least Frequently Used)：最不经常使用，频率/次数
  *      b、LRU(Least Recently Used)：最近最久未使用，时间
  *
+ *  使用次数维护在索引最小堆中，选举 O(log n)；任务路由状态并发安全、有界，空闲过期淘汰，见 JobRouteStateMap；
+ *
  * Created by xuxueli on 17/3/10.
  */
 public class ExecutorRouteLFU extends ExecutorRouter {
 
-    private static ConcurrentMap<Integer, HashMap<String, Integer>> jobLfuMap = new ConcurrentHashMap<Integer, HashMap<String, Integer>>();
-    private static long CACHE_VALID_TIME = 0;
+    private final JobRouteStateMap<LfuState> jobLfuMap = new JobRouteStateMap<LfuState>() {
+        @Override
+        protected LfuState newState() {
+            return new LfuState();
+        }
+    };
 
     public String route(int jobId, List<String> addressList) {
+        return jobLfuMap.route(jobId, addressList, System.currentTimeMillis());
+    }
 
-        // cache clear
-        if (System.currentTimeMillis() > CACHE_VALID_TIME) {
-            jobLfuMap.clear();
-            CACHE_VALID_TIME = System.currentTimeMillis() + 1000*60*60*24;
-        }
+    @Override
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+        String address = route(triggerParam.getJobId(), addressList);
+        return new ReturnT<String>(address);
+    }
+
+    int jobStateCount() {
+        return jobLfuMap.size();
+    }
+
+    /**
+     * use count of each address, indexed min heap
+     */
+    private static class LfuState extends JobRouteStateMap.State {
+        private String[] heapAddresses = new String[8];
+        private long[] heapCounts = new long[8];
+        private int heapSize = 0;
+        private final Map<String, Integer> heapIndex = new HashMap<String, Integer>();
+
+        @Override
+        protected void sync(List<String> addressList) {
+            // remove old
+            Set<String> addressSet = new HashSet<String>(addressList);
+            for (String existAddress: new ArrayList<String>(heapIndex.keySet())) {
+                if (!addressSet.contains(existAddress)) {
+                    remove(heapIndex.get(existAddress));
+                }
+            }
 
-        // lfu item init
-        HashMap<String, Integer> lfuItemMap = jobLfuMap.get(jobId);     // Key排序可以用TreeMap+构造入参Compare；Value排序暂时只能通过ArrayList；
-        if (lfuItemMap == null) {
-            lfuItemMap = new HashMap<String, Integer>();
-            jobLfuMap.putIfAbsent(jobId, lfuItemMap);   // 避免重复覆盖
+            // put new, count from least used with random (初始化时主动Random一次，缓解首次压力), new address not flooded
+            long minCount = heapSize>0?heapCounts[0]:0;
+            for (String address: addressList) {
+                if (!heapIndex.containsKey(address)) {
+                    add(address, minCount + ThreadLocalRandom.current().nextInt(addressSet.size()));
+                }
+            }
         }
 
-        // put new
-        for (String address: addressList) {
-            if (!lfuItemMap.containsKey(address) || lfuItemMap.get(address) >1000000 ) {
-                lfuItemMap.put(address, new Random().nextInt(addressList.size()));  // 初始化时主动Random一次，缓解首次压力
+        @Override
+        protected String next() {
+            if (heapSize == 0) {
+                return null;
             }
+            String address = heapAddresses[0];
+            heapCounts[0]++;
+            siftDown(0);
+            return address;
         }
-        // remove old
-        List<String> delKeys = new ArrayList<>();
-        for (String existKey: lfuItemMap.keySet()) {
-            if (!addressList.contains(existKey)) {
-                delKeys.add(existKey);
+
+        private void add(String address, long count) {
+            if (heapSize == heapAddresses.length) {
+                heapAddresses = Arrays.copyOf(heapAddresses, heapSize * 2);
+                heapCounts = Arrays.copyOf(heapCounts, heapSize * 2);
             }
+            set(heapSize, address, count);
+            heapSize++;
+            siftUp(heapSize - 1);
         }
-        if (delKeys.size() > 0) {
-            for (String delKey: delKeys) {
-                lfuItemMap.remove(delKey);
+
+        private void remove(int index) {
+            heapIndex.remove(heapAddresses[index]);
+            heapSize--;
+            if (index < heapSize) {
+                set(index, heapAddresses[heapSize], heapCounts[heapSize]);
+                siftDown(index);
+                siftUp(index);
             }
+            heapAddresses[heapSize] = null;
         }
 
-        // load least userd count address
-        List<Map.Entry<String, Integer>> lfuItemList = new ArrayList<Map.Entry<String, Integer>>(lfuItemMap.entrySet());
-        Collections.sort(lfuItemList, new Comparator<Map.Entry<String, Integer>>() {
-            @Override
-            public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2) {
-                return o1.getValue().compareTo(o2.getValue());
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heapCounts[parent] <= heapCounts[index]) {
+                    break;
+                }
+                swap(index, parent);
+                index = parent;
             }
-        });
+        }
 
-        Map.Entry<String, Integer> addressItem = lfuItemList.get(0);
-        String minAddress = addressItem.getKey();
-        addressItem.setValue(addressItem.getValue() + 1);
+        private void siftDown(int index) {
+            while (true) {
+                int least = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < heapSize && heapCounts[left] < heapCounts[least]) {
+                    least = left;
+                }
+                if (right < heapSize && heapCounts[right] < heapCounts[least]) {
+                    least = right;
+                }
+                if (least == index) {
+                    break;
+                }
+                swap(index, least);
+                index = least;
+            }
+        }
 
-        return addressItem.getKey();
-    }
+        private void swap(int i, int j) {
+            String address = heapAddresses[i];
+            long count = heapCounts[i];
+            set(i, heapAddresses[j], heapCounts[j]);
+            set(j, address, count);
+        }
 
-    @Override
-    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
-        String address = route(triggerParam.getJobId(), addressList);
-        return new ReturnT<String>(address);
+        private void set(int index, String address, long count) {
+            heapAddresses[index] = address;
+            heapCounts[index] = count;
+            heapIndex.put(address, index);
+        }
     }
 
 }
@@ -4,73 +4,79 @@ import com.xxl.job.admin.core.route.ExecutorRouter;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Set;
 
 /**
  * 单个JOB对应的每个执行器，最久为使用的优先被选举
  *      a、LFU(Least Frequently Used)：最不经常使用，频率/次数
  *      b(*)、LRU(Least Recently Used)：最近最久未使用，时间
  *
+ *  任务路由状态并发安全、有界，空闲过期淘汰，见 JobRouteStateMap；新增执行器视为最久未使用，优先被选举；
+ *
  * Created by xuxueli on 17/3/10.
  */
 public class ExecutorRouteLRU extends ExecutorRouter {
 
-    private static ConcurrentMap<Integer, LinkedHashMap<String, String>> jobLRUMap = new ConcurrentHashMap<Integer, LinkedHashMap<String, String>>();
-    private static long CACHE_VALID_TIME = 0;
+    private final JobRouteStateMap<LruState> jobLRUMap = new JobRouteStateMap<LruState>() {
+        @Override
+        protected LruState newState() {
+            return new LruState();
+        }
+    };
 
     public String route(int jobId, List<String> addressList) {
+        return jobLRUMap.route(jobId, addressList, System.currentTimeMillis());
+    }
 
-        // cache clear
-        if (System.currentTimeMillis() > CACHE_VALID_TIME) {
-            jobLRUMap.clear();
-            CACHE_VALID_TIME = System.currentTimeMillis() + 1000*60*60*24;
-        }
+    @Override
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+        String address = route(triggerParam.getJobId(), addressList);
+        return new ReturnT<String>(address);
+    }
 
-        // init lru
-        LinkedHashMap<String, String> lruItem = jobLRUMap.get(jobId);
-        if (lruItem == null) {
-            /**
-             * LinkedHashMap
-             *      a、accessOrder：true=访问顺序排序（get/put时排序）；false=插入顺序排期；
-             *      b、removeEldestEntry：新增元素时将会调用，返回true时会删除最老元素；可封装LinkedHashMap并重写该方法，比如定义最大容量，超出是返回true即可实现固定长度的LRU算法；
-             */
-            lruItem = new LinkedHashMap<String, String>(16, 0.75f, true);
-            jobLRUMap.putIfAbsent(jobId, lruItem);
-        }
+    int jobStateCount() {
+        return jobLRUMap.size();
+    }
 
-        // put new
-        for (String address: addressList) {
-            if (!lruItem.containsKey(address)) {
-                lruItem.put(address, address);
+    private static class LruState extends JobRouteStateMap.State {
+        /**
+         * LinkedHashMap
+         *      a、accessOrder：true=访问顺序排序（get/put时排序）；false=插入顺序排期；
+         *      b、removeEldestEntry：新增元素时将会调用，返回true时会删除最老元素；可封装LinkedHashMap并重写该方法，比如定义最大容量，超出是返回true即可实现固定长度的LRU算法；
+         */
+        private LinkedHashMap<String, String> lruItem = new LinkedHashMap<String, String>(16, 0.75f, true);
+
+        @Override
+        protected void sync(List<String> addressList) {
+            LinkedHashMap<String, String> newLruItem = new LinkedHashMap<String, String>(16, 0.75f, true);
+
+            // put new, as eldest
+            for (String address: addressList) {
+                if (!lruItem.containsKey(address)) {
+                    newLruItem.put(address, address);
+                }
             }
-        }
-        // remove old
-        List<String> delKeys = new ArrayList<>();
-        for (String existKey: lruItem.keySet()) {
-            if (!addressList.contains(existKey)) {
-                delKeys.add(existKey);
+            // keep exist in order, remove old
+            Set<String> addressSet = new HashSet<String>(addressList);
+            for (String existAddress: lruItem.keySet()) {
+                if (addressSet.contains(existAddress)) {
+                    newLruItem.put(existAddress, existAddress);
+                }
             }
+            lruItem = newLruItem;
         }
-        if (delKeys.size() > 0) {
-            for (String delKey: delKeys) {
-                lruItem.remove(delKey);
+
+        @Override
+        protected String next() {
+            if (lruItem.isEmpty()) {
+                return null;
             }
+            String eldestKey = lruItem.keySet().iterator().next();
+            return lruItem.get(eldestKey);      // accessed, to newest
         }
-
-        // load
-        String eldestKey = lruItem.entrySet().iterator().next().getKey();
-        String eldestValue = lruItem.get(eldestKey);
-        return eldestValue;
-    }
-
-    @Override
-    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
-        String address = route(triggerParam.getJobId(), addressList);
-        return new ReturnT<String>(address);
     }
 
 }
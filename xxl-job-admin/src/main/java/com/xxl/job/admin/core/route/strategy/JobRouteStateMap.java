@@ -0,0 +1,99 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * route state of each job, for LFU / LRU router; concurrent and bounded
+ *
+ *  - state created on first route of job; routes of same job serialized on its state, other jobs not blocked
+ *  - address list synced into state only when changed (registry list of group rebuilt only when changed)
+ *  - state idle over IDLE_EXPIRE evicted, swept each SWEEP_INTERVAL; still over JOB_MAX after sweep, cleared
+ *
+ * @author xuxueli 2020-06-20
+ */
+abstract class JobRouteStateMap<S extends JobRouteStateMap.State> {
+
+    static final long IDLE_EXPIRE = 48 * 60 * 60 * 1000L;      // daily job keeps its state
+    static final long SWEEP_INTERVAL = 10 * 60 * 1000L;
+    static final int JOB_MAX = 50000;
+
+    private final ConcurrentMap<Integer, S> stateMap = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepTime = new AtomicLong(0);
+
+    protected abstract S newState();
+
+    /**
+     * route address of job
+     *
+     * @return  null if address list empty
+     */
+    public String route(int jobId, List<String> addressList, long nowTime) {
+        sweep(nowTime);
+
+        S state = stateMap.get(jobId);
+        if (state == null) {
+            S newState = newState();
+            state = stateMap.putIfAbsent(jobId, newState);
+            if (state == null) {
+                state = newState;
+            }
+        }
+
+        synchronized (state) {
+            state.lastAccessTime = nowTime;
+            if (state.addressList!=addressList || state.addressCount!=addressList.size()) {
+                state.sync(addressList);
+                state.addressList = addressList;
+                state.addressCount = addressList.size();
+            }
+            return state.next();
+        }
+    }
+
+    private void sweep(long nowTime) {
+        long sweepTime = nextSweepTime.get();
+        if (nowTime < sweepTime && stateMap.size() < JOB_MAX) {
+            return;
+        }
+        if (!nextSweepTime.compareAndSet(sweepTime, nowTime + SWEEP_INTERVAL)) {
+            return;     // swept by other thread
+        }
+
+        for (Map.Entry<Integer, S> stateEntry: stateMap.entrySet()) {
+            if (nowTime - stateEntry.getValue().lastAccessTime > IDLE_EXPIRE) {
+                stateMap.remove(stateEntry.getKey(), stateEntry.getValue());
+            }
+        }
+        if (stateMap.size() >= JOB_MAX) {
+            stateMap.clear();
+        }
+    }
+
+    int size() {
+        return stateMap.size();
+    }
+
+    /**
+     * route state of one job, guarded by itself
+     */
+    abstract static class State {
+        volatile long lastAccessTime;
+        List<String> addressList;
+        int addressCount;
+
+        /**
+         * address list changed, new address added and old removed
+         */
+        protected abstract void sync(List<String> addressList);
+
+        /**
+         * next address, usage recorded
+         */
+        protected abstract String next();
+    }
+
+}
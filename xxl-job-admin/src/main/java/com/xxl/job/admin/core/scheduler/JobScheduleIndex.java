@@ -0,0 +1,190 @@
+package com.xxl.job.admin.core.scheduler;
+
+import com.xxl.job.admin.core.model.XxlJobInfo;
+
+import java.util.*;
+
+/**
+ * in-memory schedule index of running job, min-heap ordered by trigger_next_time
+ *
+ *  - only keep schedule field (id, schedule type/cron/interval, misfire strategy, trigger status/last/next time), never glue source
+ *  - job change is notified by job service ("refresh/remove"), each notification has a mod-seq; change on other admin synced by update_time
+ *  - only a hint of due job, polled job re-checked with db before fired
+ *  - polled job is re-offered by schedule thread only if no notification arrived meanwhile
+ *  - reconcile with db periodically, job notified after reconcile-query start keeps its notified state
+ *
+ * @author xuxueli 2020-02-01
+ */
+public class JobScheduleIndex {
+
+    private final PriorityQueue<Node> heap = new PriorityQueue<Node>(64, new Comparator<Node>() {
+        @Override
+        public int compare(Node o1, Node o2) {
+            return o1.triggerNextTime < o2.triggerNextTime ? -1 : (o1.triggerNextTime == o2.triggerNextTime ? 0 : 1);
+        }
+    });
+    private final Map<Integer, Node> nodeMap = new HashMap<Integer, Node>();
+    private final Map<Integer, Long> modSeqMap = new HashMap<Integer, Long>();
+    private final Map<Integer, Long> polledSeqMap = new HashMap<Integer, Long>();
+    private long modSeq = 0;
+
+    /**
+     * @return  current mod-seq, used as reconcile start point
+     */
+    public synchronized long getModSeq() {
+        return modSeq;
+    }
+
+    public synchronized int size() {
+        return nodeMap.size();
+    }
+
+    /**
+     * job added/updated/started, notified by job service
+     */
+    public synchronized void refresh(XxlJobInfo jobInfo) {
+        modSeqMap.put(jobInfo.getId(), ++modSeq);
+        put(jobInfo);
+    }
+
+    /**
+     * job stopped/removed, notified by job service
+     */
+    public synchronized void remove(int jobId) {
+        modSeqMap.put(jobId, ++modSeq);
+        nodeMap.remove(jobId);
+        purgeIfNecessary();
+    }
+
+    /**
+     * poll job which trigger_next_time <= maxNextTime, ordered by trigger_next_time
+     */
+    public synchronized List<XxlJobInfo> pollDue(long maxNextTime, int limit) {
+        List<XxlJobInfo> result = new ArrayList<XxlJobInfo>();
+        while (result.size() < limit && !heap.isEmpty() && heap.peek().triggerNextTime <= maxNextTime) {
+            Node node = heap.poll();
+            if (nodeMap.get(node.jobId) != node) {
+                continue;   // stale
+            }
+            nodeMap.remove(node.jobId);
+            polledSeqMap.put(node.jobId, seqOf(node.jobId));
+            result.add(node.toJobInfo());
+        }
+        return result;
+    }
+
+    /**
+     * re-offer polled job with fresh next time, skip if job changed since polled
+     */
+    public synchronized void offer(XxlJobInfo jobInfo) {
+        Long polledSeq = polledSeqMap.remove(jobInfo.getId());
+        if (polledSeq == null || polledSeq != seqOf(jobInfo.getId())) {
+            return;
+        }
+        put(jobInfo);
+    }
+
+    /**
+     * replace index by running job list loaded from db
+     *
+     * @param runningList   running job, queried after "startModSeq" taken
+     * @param startModSeq   job notified after this seq keep their notified state
+     */
+    public synchronized void reconcile(List<XxlJobInfo> runningList, long startModSeq) {
+        Map<Integer, Node> keepMap = new HashMap<Integer, Node>();
+        for (Map.Entry<Integer, Long> item: modSeqMap.entrySet()) {
+            if (item.getValue() > startModSeq) {
+                Node node = nodeMap.get(item.getKey());
+                keepMap.put(item.getKey(), node);   // null: removed
+            }
+        }
+
+        heap.clear();
+        nodeMap.clear();
+        polledSeqMap.clear();
+        if (runningList != null) {
+            for (XxlJobInfo jobInfo: runningList) {
+                if (!keepMap.containsKey(jobInfo.getId())) {
+                    put(jobInfo);
+                }
+            }
+        }
+        for (Node node: keepMap.values()) {
+            if (node != null) {
+                nodeMap.put(node.jobId, node);
+                heap.add(node);
+            }
+        }
+
+        // mod-seq before reconcile is useless now
+        modSeqMap.keySet().retainAll(keepMap.keySet());
+    }
+
+    public synchronized void clear() {
+        heap.clear();
+        nodeMap.clear();
+        modSeqMap.clear();
+        polledSeqMap.clear();
+    }
+
+    private long seqOf(int jobId) {
+        Long seq = modSeqMap.get(jobId);
+        return seq != null ? seq : 0;
+    }
+
+    private void put(XxlJobInfo jobInfo) {
+        if (jobInfo.getTriggerStatus() != 1) {
+            nodeMap.remove(jobInfo.getId());
+            purgeIfNecessary();
+            return;
+        }
+        Node node = new Node(jobInfo);
+        nodeMap.put(node.jobId, node);
+        heap.add(node);
+        purgeIfNecessary();
+    }
+
+    private void purgeIfNecessary() {
+        // stale node left in heap by lazy remove, rebuild when more than half
+        if (heap.size() > 64 && heap.size() > nodeMap.size() * 2) {
+            heap.clear();
+            heap.addAll(nodeMap.values());
+        }
+    }
+
+    private static class Node {
+        private final int jobId;
+        private final String jobCron;
+        private final String scheduleType;
+        private final long scheduleInterval;
+        private final String misfireStrategy;
+        private final int triggerStatus;
+        private final long triggerLastTime;
+        private final long triggerNextTime;
+
+        private Node(XxlJobInfo jobInfo) {
+            this.jobId = jobInfo.getId();
+            this.jobCron = jobInfo.getJobCron();
+            this.scheduleType = jobInfo.getScheduleType();
+            this.scheduleInterval = jobInfo.getScheduleInterval();
+            this.misfireStrategy = jobInfo.getMisfireStrategy();
+            this.triggerStatus = jobInfo.getTriggerStatus();
+            this.triggerLastTime = jobInfo.getTriggerLastTime();
+            this.triggerNextTime = jobInfo.getTriggerNextTime();
+        }
+
+        private XxlJobInfo toJobInfo() {
+            XxlJobInfo jobInfo = new XxlJobInfo();
+            jobInfo.setId(jobId);
+            jobInfo.setJobCron(jobCron);
+            jobInfo.setScheduleType(scheduleType);
+            jobInfo.setScheduleInterval(scheduleInterval);
+            jobInfo.setMisfireStrategy(misfireStrategy);
+            jobInfo.setTriggerStatus(triggerStatus);
+            jobInfo.setTriggerLastTime(triggerLastTime);
+            jobInfo.setTriggerNextTime(triggerNextTime);
+            return jobInfo;
+        }
+    }
+
+}
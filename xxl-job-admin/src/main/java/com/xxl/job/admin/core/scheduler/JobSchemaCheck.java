@@ -0,0 +1,56 @@
+package com.xxl.job.admin.core.scheduler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * schema check on admin start, table or column required by enabled feature missing fails fast (upgraded admin on db not upgraded)
+ *
+ * @author xuxueli 2020-07-04
+ */
+public class JobSchemaCheck {
+
+    public static final String UPGRADE_SCRIPT = "/xxl-job/doc/db/upgrade_xxl_job_2.2.0.sql";
+
+    private final Map<String, String> requiredMap = new LinkedHashMap<String, String>();     // probe sql, feature
+
+    /**
+     * @param table     table name
+     * @param columns   column required, comma separated
+     * @param feature   feature need it, shown in error message
+     */
+    public JobSchemaCheck require(String table, String columns, String feature) {
+        requiredMap.put("SELECT " + columns + " FROM " + table + " WHERE 1 = 0", table + "(" + columns + ") of " + feature);
+        return this;
+    }
+
+    public void check(DataSource dataSource) throws SQLException {
+        List<String> missingList = new ArrayList<String>();
+        Connection conn = dataSource.getConnection();
+        try {
+            for (Map.Entry<String, String> item: requiredMap.entrySet()) {
+                Statement statement = conn.createStatement();
+                try {
+                    statement.executeQuery(item.getKey()).close();
+                } catch (SQLException e) {
+                    missingList.add(item.getValue() + ": " + e.getMessage());
+                } finally {
+                    statement.close();
+                }
+            }
+        } finally {
+            conn.close();
+        }
+
+        if (missingList.size() > 0) {
+            throw new IllegalStateException("xxl-job, db schema not upgraded, run \"" + UPGRADE_SCRIPT + "\" or disable the feature; missing: " + missingList);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.xxl.job.admin.core.scheduler;
+
+import com.xxl.job.admin.core.util.I18nUtil;
+
+/**
+ * misfire strategy, when schedule fall behind more than pre-read threshold
+ *
+ * @author xuxueli 2020-02-29
+ */
+public enum MisfireStrategyEnum {
+
+    /**
+     * skip missed trigger, schedule from now on
+     */
+    DO_NOTHING(I18nUtil.getString("jobconf_misfire_DO_NOTHING")),
+
+    /**
+     * fire once for all missed trigger, schedule from now on
+     */
+    FIRE_ONCE_NOW(I18nUtil.getString("jobconf_misfire_FIRE_ONCE_NOW")),
+
+    /**
+     * fire each missed trigger, up to "xxl.job.schedule.misfire.maxcount"
+     */
+    FIRE_ALL_MISSED(I18nUtil.getString("jobconf_misfire_FIRE_ALL_MISSED"));
+
+    private String title;
+
+    MisfireStrategyEnum(String title) {
+        this.title = title;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public static MisfireStrategyEnum match(String name, MisfireStrategyEnum defaultItem){
+        if (name != null) {
+            for (MisfireStrategyEnum item: MisfireStrategyEnum.values()) {
+                if (item.name().equals(name)) {
+                    return item;
+                }
+            }
+        }
+        return defaultItem;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.xxl.job.admin.core.scheduler;
+
+/**
+ * adaptive pre-read count and window of schedule thread
+ *
+ *  - trigger capacity = pool-max * (1000 / avg trigger cost), per second
+ *  - pool idle and last read hit the count limit: read more, look ahead further
+ *  - pool saturated (queue filling up): halve count, shrink window
+ *  - window never shorter than what a slow scan needs to cover the next scan
+ *
+ * @author xuxueli 2020-02-22
+ */
+public class PreReadTuner {
+
+    public static final long MIN_WINDOW_MS = 2000;
+    public static final long MAX_WINDOW_MS = 10000;
+    private static final long SCAN_PERIOD_MS = 1000;
+
+    private static final double SATURATED_RATIO = 0.5;
+    private static final double IDLE_RATIO = 0.1;
+
+    private final int minCount;
+    private final int maxCount;
+
+    private volatile int preReadCount;
+    private volatile long preReadMs;
+    private volatile int triggerCapacity;
+
+    /**
+     * @param initCount     initial count, as origin fixed count
+     * @param initWindowMs  initial window, ms
+     * @param poolMax       max thread of all trigger pools
+     */
+    public PreReadTuner(int initCount, long initWindowMs, int poolMax) {
+        this.minCount = Math.max(poolMax, 50);
+        this.maxCount = Math.max(poolMax * 100, initCount);        // trigger cost 10ms
+        this.preReadCount = clamp(initCount, minCount, maxCount);
+        this.preReadMs = clamp(initWindowMs, MIN_WINDOW_MS, MAX_WINDOW_MS);
+        this.triggerCapacity = initCount;
+    }
+
+    public int getPreReadCount() {
+        return preReadCount;
+    }
+
+    public long getPreReadMs() {
+        return preReadMs;
+    }
+
+    public int getTriggerCapacity() {
+        return triggerCapacity;
+    }
+
+    /**
+     * tune by live measurement, called by schedule thread after each scan
+     *
+     * @param triggerCostAvg    avg trigger cost, ms
+     * @param queueSize         queued trigger of all pools
+     * @param queueCapacity     queue capacity of all pools
+     * @param poolMax           max thread of all pools
+     * @param scanCost          last scan cost, ms
+     * @param lastReadCount     job read by last scan
+     */
+    public void tune(long triggerCostAvg, int queueSize, int queueCapacity, int poolMax, long scanCost, int lastReadCount) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, poolMax * 1000L / Math.max(triggerCostAvg, 1));
+        double saturation = queueCapacity > 0 ? (double) queueSize / queueCapacity : 0;
+        long windowFloor = 2 * (scanCost + SCAN_PERIOD_MS);
+
+        int count = preReadCount;
+        long window = preReadMs;
+        if (saturation >= SATURATED_RATIO) {
+            // back off
+            count = count / 2;
+            window = window * 3 / 4;
+        } else if (saturation <= IDLE_RATIO && lastReadCount >= count) {
+            // more job due than read, read more
+            count = Math.max(count + count / 2, capacity);
+            window = window + SCAN_PERIOD_MS;
+        } else {
+            // converge to capacity
+            count = (int) (((long) count + capacity) / 2);
+        }
+
+        this.triggerCapacity = capacity;
+        this.preReadCount = clamp(count, minCount, maxCount);
+        this.preReadMs = clamp(Math.max(window, windowFloor), MIN_WINDOW_MS, MAX_WINDOW_MS);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+}
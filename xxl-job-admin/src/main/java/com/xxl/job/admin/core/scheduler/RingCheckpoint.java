@@ -0,0 +1,116 @@
+package com.xxl.job.admin.core.scheduler;
+
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.admin.core.model.XxlJobRingCheckpoint;
+import com.xxl.job.admin.core.thread.JobSchedulePartitionHelper;
+import com.xxl.job.admin.dao.XxlJobRingCheckpointDao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * durable checkpoint of time-ring, trigger pushed but not fired survives admin crash
+ *
+ *  - pushed (jobId, trigger time) is saved before schedule tx (trigger_next_time advanced) committed, owned by admin id
+ *  - owner acks (deletes) fired checkpoint each scan: trigger time not later than ring fired time
+ *  - at-least-once: admin crashed after fire but before ack, the fire is replayed once more
+ *  - checkpoint not acked long after its trigger time is orphan (owner crashed), claimed by delete and replayed by admin holding schedule lock;
+ *    replay only if job's trigger_next_time moved past it, otherwise the fire is not lost and schedule thread reads it from db again
+ *
+ * @author xuxueli 2020-03-14
+ */
+public class RingCheckpoint {
+
+    public static final long REPLAY_DELAY_MS = 10 * 1000;       // checkpoint not acked 10s after trigger time, as orphan
+    private static final int SAVE_BATCH_SIZE = 500;
+    private static final int REPLAY_BATCH_SIZE = 100;
+
+    private final String adminId;
+    private final XxlJobRingCheckpointDao checkpointDao;
+
+    // ack state, skip ack if all saved checkpoint acked
+    private long saveSeq = 0;
+    private long ackSeq = 0;
+    private long maxTriggerTime = 0;
+
+    public RingCheckpoint(String adminId, XxlJobRingCheckpointDao checkpointDao) {
+        this.adminId = adminId;
+        this.checkpointDao = checkpointDao;
+    }
+
+    public String getAdminId() {
+        return adminId;
+    }
+
+    /**
+     * save checkpoint of pushed trigger, before schedule tx committed
+     */
+    public void save(List<XxlJobRingCheckpoint> checkpointList) {
+        if (checkpointList == null || checkpointList.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < checkpointList.size(); from += SAVE_BATCH_SIZE) {
+            int to = Math.min(from + SAVE_BATCH_SIZE, checkpointList.size());
+            checkpointDao.saveBatch(checkpointList.subList(from, to), JobSchedulePartitionHelper.BUCKET_COUNT);
+        }
+        synchronized (this) {
+            saveSeq++;
+            for (XxlJobRingCheckpoint item: checkpointList) {
+                maxTriggerTime = Math.max(maxTriggerTime, item.getTriggerTime());
+            }
+        }
+    }
+
+    /**
+     * ack fired checkpoint
+     *
+     * @param firedTime     trigger time not later than it has been fired by time-ring
+     * @return  true if db acked
+     */
+    public boolean ack(long firedTime) {
+        long seq;
+        synchronized (this) {
+            if (ackSeq == saveSeq) {
+                return false;
+            }
+            seq = saveSeq;
+        }
+        checkpointDao.ack(adminId, firedTime);
+        synchronized (this) {
+            // all saved fired, stop ack until next save
+            if (firedTime >= maxTriggerTime && seq > ackSeq) {
+                ackSeq = seq;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * claim orphan checkpoint, each one claimed by only one admin
+     *
+     * @param buckets  buckets of owned partitions; null, not partitioned
+     * @return  claimed checkpoint, check by "isLost" before fire
+     */
+    public List<XxlJobRingCheckpoint> claimExpired(long nowTime, List<Integer> buckets) {
+        List<XxlJobRingCheckpoint> claimedList = new ArrayList<XxlJobRingCheckpoint>();
+        List<XxlJobRingCheckpoint> expiredList = checkpointDao.findExpired(nowTime - REPLAY_DELAY_MS, REPLAY_BATCH_SIZE, buckets);
+        if (expiredList != null) {
+            for (XxlJobRingCheckpoint item: expiredList) {
+                if (checkpointDao.delete(item.getId()) > 0) {
+                    claimedList.add(item);
+                }
+            }
+        }
+        return claimedList;
+    }
+
+    /**
+     * fire of checkpoint is lost: job still running, and trigger_next_time has moved past it (so never read from db again)
+     */
+    public static boolean isLost(XxlJobInfo jobInfo, XxlJobRingCheckpoint checkpoint) {
+        return jobInfo != null
+                && jobInfo.getTriggerStatus() == 1
+                && jobInfo.getTriggerNextTime() > checkpoint.getTriggerTime();
+    }
+
+}
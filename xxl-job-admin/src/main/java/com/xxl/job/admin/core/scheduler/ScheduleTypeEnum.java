@@ -0,0 +1,53 @@
+package com.xxl.job.admin.core.scheduler;
+
+import com.xxl.job.admin.core.util.I18nUtil;
+
+/**
+ * schedule type
+ *
+ * @author xuxueli 2020-03-07
+ */
+public enum ScheduleTypeEnum {
+
+    /**
+     * schedule by cron expression, "job_cron"
+     */
+    CRON(I18nUtil.getString("schedule_type_cron")),
+
+    /**
+     * fire every "schedule_interval" ms, from last scheduled fire time
+     */
+    FIX_RATE(I18nUtil.getString("schedule_type_fix_rate")),
+
+    /**
+     * fire "schedule_interval" ms after last execution finished (callback)
+     */
+    FIX_DELAY(I18nUtil.getString("schedule_type_fix_delay"));
+
+    /**
+     * min interval of fix rate/delay, ms
+     */
+    public static final long MIN_INTERVAL = 100;
+
+    private String title;
+
+    ScheduleTypeEnum(String title) {
+        this.title = title;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public static ScheduleTypeEnum match(String name, ScheduleTypeEnum defaultItem){
+        if (name != null) {
+            for (ScheduleTypeEnum item: ScheduleTypeEnum.values()) {
+                if (item.name().equals(name)) {
+                    return item;
+                }
+            }
+        }
+        return defaultItem;
+    }
+
+}
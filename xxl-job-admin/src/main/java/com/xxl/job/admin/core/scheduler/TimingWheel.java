@@ -0,0 +1,189 @@
+package com.xxl.job.admin.core.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * hierarchical timing wheel, millisecond tick
+ *
+ *  - level-0 bucket covers one tick, level-n bucket covers wheelSize^n ticks; entry is cascaded to lower level when its bucket expires
+ *  - push into bucket is lock-free (CAS on bucket head), drain bucket is O(1) (getAndSet on bucket head)
+ *  - multi producer, single consumer: any thread may "add", only the ring thread may "advance"
+ *
+ * @author xuxueli 2020-01-18
+ */
+public class TimingWheel {
+
+    private static final int LEVELS = 4;
+
+    private final long tickMs;
+    private final int wheelBits;
+    private final int wheelSize;
+    private final int wheelMask;
+    private final int overdueIndex;
+
+    /**
+     * bucket head of each level, index = level * wheelSize + slot; the last one is "overdue" bucket (expired when add, or rescued from a drained bucket)
+     */
+    private final AtomicReferenceArray<Entry> buckets;
+    private final AtomicInteger size = new AtomicInteger(0);
+    private volatile long currentTick;
+
+    /**
+     * @param tickMs        tick duration, ms
+     * @param wheelSize     slot count of each level, round up to power of 2
+     * @param startTime     start time, ms
+     */
+    public TimingWheel(long tickMs, int wheelSize, long startTime) {
+        if (tickMs < 1) {
+            throw new IllegalArgumentException("tickMs must be greater than 0.");
+        }
+        int bits = 1;
+        while ((1 << bits) < wheelSize && bits < 15) {
+            bits++;
+        }
+        this.tickMs = tickMs;
+        this.wheelBits = bits;
+        this.wheelSize = 1 << bits;
+        this.wheelMask = this.wheelSize - 1;
+        this.overdueIndex = LEVELS * this.wheelSize;
+        this.buckets = new AtomicReferenceArray<Entry>(overdueIndex + 1);
+        this.currentTick = startTime / tickMs;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * add job into wheel, will expire at the first tick not earlier than triggerTime
+     *
+     * @param jobId
+     * @param triggerTime   ms
+     */
+    public void add(int jobId, long triggerTime) {
+        Entry entry = new Entry(jobId, triggerTime, (triggerTime + tickMs - 1) / tickMs);
+        size.incrementAndGet();
+        place(entry);
+    }
+
+    private void place(Entry entry) {
+        long tick = currentTick;
+        long delta = entry.tick - tick;
+
+        int index;
+        if (delta <= 0) {
+            index = overdueIndex;
+        } else {
+            int level = 0;
+            while (level < LEVELS - 1 && (delta >>> ((level + 1) * wheelBits)) != 0) {
+                level++;
+            }
+            index = level * wheelSize + (int) ((entry.tick >>> (level * wheelBits)) & wheelMask);
+        }
+        push(index, entry);
+
+        // wheel advanced while pushing, the bucket may be drained already: move it to overdue bucket, re-place by ring thread
+        if (index != overdueIndex && currentTick != tick) {
+            Entry chain = buckets.getAndSet(index, null);
+            while (chain != null) {
+                Entry next = chain.next;
+                push(overdueIndex, chain);
+                chain = next;
+            }
+        }
+    }
+
+    private void push(int index, Entry entry) {
+        Entry head;
+        do {
+            head = buckets.get(index);
+            entry.next = head;
+        } while (!buckets.compareAndSet(index, head, entry));
+    }
+
+    /**
+     * advance wheel to time, only called by ring thread
+     *
+     * @param nowTime   ms
+     * @return  expired entry list, empty if none
+     */
+    public List<Entry> advance(long nowTime) {
+        List<Entry> expired = new ArrayList<Entry>();
+
+        long targetTick = nowTime / tickMs;
+        while (currentTick < targetTick) {
+            long tick = currentTick + 1;
+            currentTick = tick;
+
+            // cascade higher level, from top to bottom
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = level * wheelBits;
+                if ((tick & ((1L << shift) - 1)) == 0) {
+                    int index = level * wheelSize + (int) ((tick >>> shift) & wheelMask);
+                    reschedule(buckets.getAndSet(index, null), expired);
+                }
+            }
+
+            // expire level-0 bucket
+            reschedule(buckets.getAndSet((int) (tick & wheelMask), null), expired);
+        }
+        reschedule(buckets.getAndSet(overdueIndex, null), expired);
+
+        return expired;
+    }
+
+    private void reschedule(Entry chain, List<Entry> expired) {
+        while (chain != null) {
+            Entry next = chain.next;
+            chain.next = null;
+            if (chain.tick <= currentTick) {
+                size.decrementAndGet();
+                expired.add(chain);
+            } else {
+                place(chain);
+            }
+            chain = next;
+        }
+    }
+
+    /**
+     * wheel entry
+     */
+    public static class Entry {
+        private final int jobId;
+        private final long triggerTime;
+        private final long tick;
+        private volatile Entry next;
+
+        private Entry(int jobId, long triggerTime, long tick) {
+            this.jobId = jobId;
+            this.triggerTime = triggerTime;
+            this.tick = tick;
+        }
+
+        public int getJobId() {
+            return jobId;
+        }
+
+        public long getTriggerTime() {
+            return triggerTime;
+        }
+
+        @Override
+        public String toString() {
+            return jobId + "@" + triggerTime;
+        }
+    }
+
+}
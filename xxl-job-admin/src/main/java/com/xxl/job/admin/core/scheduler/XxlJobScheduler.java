@@ -5,14 +5,17 @@ import com.xxl.job.admin.core.thread.*;
 import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.enums.ExecutorBlockStrategyEnum;
+import com.xxl.rpc.remoting.invoker.XxlRpcInvokerFactory;
 import com.xxl.rpc.remoting.invoker.call.CallType;
 import com.xxl.rpc.remoting.invoker.reference.XxlRpcReferenceBean;
 import com.xxl.rpc.remoting.invoker.route.LoadBalance;
 import com.xxl.rpc.remoting.net.impl.netty_http.client.NettyHttpClient;
 import com.xxl.rpc.serialize.impl.HessianSerializer;
+import com.xxl.rpc.util.IpUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -25,6 +28,9 @@ public class XxlJobScheduler  {
 
 
     public void init() throws Exception {
+        // check db schema, fail fast
+        checkSchema();
+
         // init i18n
         initI18n();
 
@@ -34,12 +40,43 @@ public class XxlJobScheduler  {
         // admin monitor run
         JobFailMonitorHelper.getInstance().start();
 
+        // log id segment start, callback before log written parked
+        JobLogIdHelper.getInstance().start();
+        JobCallbackPendingHelper.getInstance().start();
+
+        // log write batch start
+        JobLogWriteHelper.getInstance().start();
+
+        // trigger cache start
+        JobInfoCacheHelper.getInstance().start();
+
+        // async trigger start
+        JobTriggerAsyncHelper.getInstance().start();
+
+        // trigger throttle start
+        JobTriggerThrottleHelper.getInstance().start();
+
+        // sharding broadcast start
+        JobTriggerShardingHelper.getInstance().start();
+
+        // trigger batch start
+        JobTriggerBatchHelper.getInstance().start();
+
         // admin trigger pool start
         JobTriggerPoolHelper.toStart();
 
+        // trigger spill drain start
+        JobTriggerSpillHelper.getInstance().start();
+
         // admin log report start
         JobLogReportHelper.getInstance().start();
 
+        // misfire catch-up start
+        JobMisfireHelper.getInstance().start();
+
+        // schedule partition start
+        JobSchedulePartitionHelper.getInstance().start();
+
         // start-schedule
         JobScheduleHelper.getInstance().start();
 
@@ -52,12 +89,43 @@ public class XxlJobScheduler  {
         // stop-schedule
         JobScheduleHelper.getInstance().toStop();
 
+        // schedule partition stop
+        JobSchedulePartitionHelper.getInstance().toStop();
+
+        // misfire catch-up stop
+        JobMisfireHelper.getInstance().toStop();
+
         // admin log report stop
         JobLogReportHelper.getInstance().toStop();
 
+        // trigger spill drain stop
+        JobTriggerSpillHelper.getInstance().toStop();
+
         // admin trigger pool stop
         JobTriggerPoolHelper.toStop();
 
+        // trigger throttle stop, issue delayed rpc
+        JobTriggerThrottleHelper.getInstance().toStop();
+
+        // sharding broadcast stop, wait sync shard rpc
+        JobTriggerShardingHelper.getInstance().toStop();
+
+        // trigger batch stop, flush pending batch
+        JobTriggerBatchHelper.getInstance().toStop();
+
+        // async trigger stop, wait in-flight rpc
+        JobTriggerAsyncHelper.getInstance().toStop();
+
+        // log write batch stop, queued row flushed
+        JobLogWriteHelper.getInstance().toStop();
+
+        // log id segment stop
+        JobCallbackPendingHelper.getInstance().toStop();
+        JobLogIdHelper.getInstance().toStop();
+
+        // trigger cache stop
+        JobInfoCacheHelper.getInstance().toStop();
+
         // admin monitor stop
         JobFailMonitorHelper.getInstance().toStop();
 
@@ -66,6 +134,25 @@ public class XxlJobScheduler  {
 
     }
 
+    // ---------------------- schema ----------------------
+
+    private void checkSchema() throws Exception {
+        XxlJobAdminConfig adminConfig = XxlJobAdminConfig.getAdminConfig();
+        JobSchemaCheck schemaCheck = new JobSchemaCheck();
+        schemaCheck.require("xxl_job_info", "schedule_type, schedule_interval, misfire_strategy", "schedule type and misfire strategy");
+        schemaCheck.require("xxl_job_trigger_spill", "id, job_id, trigger_type, fail_retry_count, executor_sharding_param, executor_param, spill_time", "trigger spill");
+        if (adminConfig.getLogIdSegmentStep() > 0) {
+            schemaCheck.require("xxl_job_id_segment", "biz_tag, max_id", "xxl.job.log.idsegment.step");
+        }
+        if (adminConfig.isTimeRingCheckpointEnabled()) {
+            schemaCheck.require("xxl_job_ring_checkpoint", "id, admin_id, job_id, trigger_time, schedule_bucket", "xxl.job.timering.checkpoint.enabled");
+        }
+        if (adminConfig.getSchedulePartitionCount() > 0) {
+            schemaCheck.require("xxl_job_info", "schedule_bucket", "xxl.job.schedule.partition.count");
+        }
+        schemaCheck.check(adminConfig.getDataSource());
+    }
+
     // ---------------------- I18n ----------------------
 
     private void initI18n(){
@@ -74,9 +161,50 @@ public class XxlJobScheduler  {
         }
     }
 
+    // ---------------------- admin-id ----------------------
+
+    private static volatile String adminId;
+
+    /**
+     * unique id of this admin process, used as registry value in "ADMIN" group
+     */
+    public static String getAdminId() {
+        if (adminId == null) {
+            synchronized (XxlJobScheduler.class) {
+                if (adminId == null) {
+                    adminId = IpUtil.getIp().concat("#").concat(UUID.randomUUID().toString().replace("-", "").substring(0, 8));
+                }
+            }
+        }
+        return adminId;
+    }
+
     // ---------------------- executor-client ----------------------
     private static ConcurrentMap<String, ExecutorBiz> executorBizRepository = new ConcurrentHashMap<String, ExecutorBiz>();
+    private static ConcurrentMap<String, ExecutorBiz> executorBizAsyncRepository = new ConcurrentHashMap<String, ExecutorBiz>();
+    private static ConcurrentMap<String, ExecutorBiz> executorBizBatchRepository = new ConcurrentHashMap<String, ExecutorBiz>();
+    private static XxlRpcInvokerFactory asyncInvokerFactory = new JobTriggerAsyncHelper.TrackedInvokerFactory();
+
     public static ExecutorBiz getExecutorBiz(String address) throws Exception {
+        return getExecutorBiz(address, CallType.SYNC, executorBizRepository, null, 3000);
+    }
+
+    /**
+     * executor client of "runBatch", timeout sized to max batch: one rpc runs all triggers of batch
+     */
+    public static ExecutorBiz getExecutorBizBatch(String address, long timeout) throws Exception {
+        return getExecutorBiz(address, CallType.SYNC, executorBizBatchRepository, null, timeout);
+    }
+
+    /**
+     * executor client in callback mode: call returns null at once, result handed to callback set by "XxlRpcInvokeCallback.setCallback" in the same thread;
+     * rpc future bound to tracked callback, removed when timeout
+     */
+    public static ExecutorBiz getExecutorBizAsync(String address) throws Exception {
+        return getExecutorBiz(address, CallType.CALLBACK, executorBizAsyncRepository, asyncInvokerFactory, 3000);
+    }
+
+    private static ExecutorBiz getExecutorBiz(String address, CallType callType, ConcurrentMap<String, ExecutorBiz> executorBizRepository, XxlRpcInvokerFactory invokerFactory, long timeout) throws Exception {
         // valid
         if (address==null || address.trim().length()==0) {
             return null;
@@ -93,15 +221,15 @@ public class XxlJobScheduler  {
         XxlRpcReferenceBean referenceBean = new XxlRpcReferenceBean();
         referenceBean.setClient(NettyHttpClient.class);
         referenceBean.setSerializer(HessianSerializer.class);
-        referenceBean.setCallType(CallType.SYNC);
+        referenceBean.setCallType(callType);
         referenceBean.setLoadBalance(LoadBalance.ROUND);
         referenceBean.setIface(ExecutorBiz.class);
         referenceBean.setVersion(null);
-        referenceBean.setTimeout(3000);
+        referenceBean.setTimeout(timeout);
         referenceBean.setAddress(address);
         referenceBean.setAccessToken(XxlJobAdminConfig.getAdminConfig().getAccessToken());
         referenceBean.setInvokeCallback(null);
-        referenceBean.setInvokerFactory(null);
+        referenceBean.setInvokerFactory(invokerFactory);
 
         executorBiz = (ExecutorBiz) referenceBean.getObject();
 
@@ -0,0 +1,140 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.dao.XxlJobIdSegmentDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+
+/**
+ * id allocator by segment (xxl_job_id_segment), id handed out from memory, one db update per "step" ids
+ *
+ *  - segment (max_id, max_id + step] claimed by cas update of max_id, admin cluster never overlaps
+ *  - double buffer: next segment loaded async when current used over 20%, current exhausted then switch
+ *  - not below floor id (e.g. max id already in table), safe for table filled by auto increment before
+ *
+ * @author xuxueli 2020-05-02
+ */
+public class IdSegmentAllocator {
+    private static Logger logger = LoggerFactory.getLogger(IdSegmentAllocator.class);
+
+    private static final int CAS_RETRY = 10;
+
+    private final String bizTag;
+    private final int step;
+    private final XxlJobIdSegmentDao idSegmentDao;
+    private final ThreadPoolExecutor refillPool;
+
+    private long currentId;         // last handed out
+    private long currentMax;
+    private volatile long nextMin;  // next segment, (nextMin, nextMax]; 0 as not loaded
+    private volatile long nextMax;
+    private Future<?> refilling;
+
+    public IdSegmentAllocator(final String bizTag, int step, XxlJobIdSegmentDao idSegmentDao) {
+        this.bizTag = bizTag;
+        this.step = Math.max(1, step);
+        this.idSegmentDao = idSegmentDao;
+        this.refillPool = new ThreadPoolExecutor(
+                0,
+                1,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(1),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "xxl-job, admin IdSegmentAllocator-refill-" + bizTag);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * floor of id, override to skip id used outside segment
+     */
+    protected long floorId() {
+        return 0;
+    }
+
+    /**
+     * next id
+     *
+     * @throws RuntimeException     segment load fail
+     */
+    public synchronized long nextId() {
+        if (currentId >= currentMax) {
+            if (nextMax == 0) {
+                waitRefill();
+            }
+            if (nextMax == 0) {
+                // refill fail or not started, load here
+                long[] segment = loadSegment();
+                nextMin = segment[0];
+                nextMax = segment[1];
+            }
+            currentId = nextMin;
+            currentMax = nextMax;
+            nextMin = 0;
+            nextMax = 0;
+        }
+
+        long id = ++currentId;
+
+        // used over 20%, load next async
+        if (nextMax==0 && (refilling==null || refilling.isDone()) && currentMax - currentId < step * 4 / 5) {
+            refilling = refillPool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        long[] segment = loadSegment();
+                        nextMin = segment[0];
+                        nextMax = segment[1];
+                    } catch (Exception e) {
+                        logger.error(">>>>>>>>>>> xxl-job, id segment refill fail, bizTag:{}", bizTag, e);
+                    }
+                }
+            });
+        }
+        return id;
+    }
+
+    private void waitRefill() {
+        if (refilling == null) {
+            return;
+        }
+        try {
+            refilling.get(3, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // load in caller
+        }
+    }
+
+    /**
+     * claim segment by cas update of max_id
+     *
+     * @return  (min, max]
+     */
+    private long[] loadSegment() {
+        for (int i = 0; i < CAS_RETRY; i++) {
+            Long maxId = idSegmentDao.loadMaxId(bizTag);
+            if (maxId == null) {
+                idSegmentDao.save(bizTag, 0);
+                continue;
+            }
+            long min = Math.max(maxId, floorId());
+            long max = min + step;
+            if (idSegmentDao.updateMaxId(bizTag, maxId, max) > 0) {
+                return new long[]{min, max};
+            }
+        }
+        throw new IllegalStateException("xxl-job, id segment load fail, too many conflict, bizTag:" + bizTag);
+    }
+
+    public void stop() {
+        refillPool.shutdownNow();
+    }
+
+}
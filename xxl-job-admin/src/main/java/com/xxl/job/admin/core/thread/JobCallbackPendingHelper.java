@@ -0,0 +1,151 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.core.biz.model.HandleCallbackParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * job callback pending helper
+ *
+ *  - log row is written after executor rpc returned (and written behind), a fast job may callback before, on any admin of cluster
+ *  - such callback is parked here, applied once log row written, dropped after max wait
+ *  - callback acked before its handle info written (write slow), parked with its write, applied again if write fail
+ *
+ * @author xuxueli 2020-05-02
+ */
+public class JobCallbackPendingHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobCallbackPendingHelper.class);
+
+    private static JobCallbackPendingHelper instance = new JobCallbackPendingHelper();
+    public static JobCallbackPendingHelper getInstance(){
+        return instance;
+    }
+
+    private static final long MAX_WAIT_MS = 60 * 1000;      // over rpc timeout and log write-behind
+    private static final int PENDING_MAX = 10000;
+
+    private final ConcurrentMap<Long, Pending> pendingMap = new ConcurrentHashMap<>();
+    private Thread pendingThread;
+    private volatile boolean toStop = false;
+
+    public void start(){
+        pendingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!toStop) {
+                    try {
+                        TimeUnit.SECONDS.sleep(1);
+                    } catch (InterruptedException e) {
+                        if (!toStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+
+                    try {
+                        long nowTime = System.currentTimeMillis();
+                        List<Pending> pendingList = new ArrayList<Pending>(pendingMap.values());
+                        for (Pending pending: pendingList) {
+                            long logId = pending.callbackParam.getLogId();
+                            if (pending.writeResult != null) {
+                                if (pending.writeResult.isDone()) {
+                                    pendingMap.remove(logId, pending);
+                                    if (!pending.writeResult.await(0)) {
+                                        XxlJobAdminConfig.getAdminConfig().getAdminBiz().callback(Arrays.asList(pending.callbackParam));
+                                    }
+                                } else if (nowTime - pending.parkTime > MAX_WAIT_MS || toStop) {
+                                    pendingMap.remove(logId, pending);
+                                    logger.warn(">>>>>>>>>>> xxl-job, callback dropped, log write not done, logId:{}", logId);
+                                }
+                            } else if (JobLogWriteHelper.getInstance().load(logId) != null) {
+                                pendingMap.remove(logId, pending);
+                                XxlJobAdminConfig.getAdminConfig().getAdminBiz().callback(Arrays.asList(pending.callbackParam));
+                            } else if (nowTime - pending.parkTime > MAX_WAIT_MS || toStop) {
+                                pendingMap.remove(logId, pending);
+                                logger.warn(">>>>>>>>>>> xxl-job, callback dropped, log item not found, logId:{}", logId);
+                            }
+                        }
+                    } catch (Exception e) {
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> xxl-job, JobCallbackPendingHelper#pendingThread error:{}", e);
+                        }
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, JobCallbackPendingHelper#pendingThread stop");
+            }
+        });
+        pendingThread.setDaemon(true);
+        pendingThread.setName("xxl-job, admin JobCallbackPendingHelper#pendingThread");
+        pendingThread.start();
+    }
+
+    public void toStop(){
+        toStop = true;
+        // interrupt and wait
+        pendingThread.interrupt();
+        try {
+            pendingThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * park callback of log not written yet
+     *
+     * @return  false if not parked (stopped or full)
+     */
+    public boolean park(HandleCallbackParam callbackParam) {
+        if (toStop || pendingThread == null) {
+            return false;
+        }
+        if (pendingMap.containsKey(callbackParam.getLogId())) {
+            return true;
+        }
+        if (pendingMap.size() >= PENDING_MAX) {
+            return false;
+        }
+        pendingMap.putIfAbsent(callbackParam.getLogId(), new Pending(callbackParam, null, System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * park callback acked before its handle info written, applied again if write fail
+     *
+     * @return  false if not parked (stopped or full)
+     */
+    public boolean parkWrite(HandleCallbackParam callbackParam, JobLogWriteHelper.WriteResult writeResult) {
+        if (toStop || pendingThread == null) {
+            return false;
+        }
+        if (pendingMap.size() >= PENDING_MAX) {
+            return false;
+        }
+        pendingMap.put(callbackParam.getLogId(), new Pending(callbackParam, writeResult, System.currentTimeMillis()));
+        return true;
+    }
+
+    public int getPendingCount() {
+        return pendingMap.size();
+    }
+
+    private static class Pending {
+        private final HandleCallbackParam callbackParam;
+        private final JobLogWriteHelper.WriteResult writeResult;     // null: log row not written yet
+        private final long parkTime;
+
+        private Pending(HandleCallbackParam callbackParam, JobLogWriteHelper.WriteResult writeResult, long parkTime) {
+            this.callbackParam = callbackParam;
+            this.writeResult = writeResult;
+            this.parkTime = parkTime;
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.xxl.job.admin.core.thread;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * per-job trigger cost tracker, decides fast/slow trigger pool of job
+ *
+ *  - cost avg of each job is ewma (weight 1/window), decays with each trigger, no wall-clock reset
+ *  - new job starts as fast (avg 0), a few slow triggers are not enough to move it
+ *  - hysteresis: slow when avg over threshold, fast again only when avg below 3/4 threshold, not flap around threshold
+ *  - int-keyed open addressing table (linear probing), no boxing per trigger
+ *
+ * @author xuxueli 2020-04-11
+ */
+public class JobCostTracker {
+
+    private static final int SCALE = 16;                // fixed point of avg, keep fraction of ms
+    private static final int INIT_CAPACITY = 64;
+    private static final int FREE_KEY = 0;              // job id starts from 1
+
+    private final int window;
+    private final long slowThreshold;
+    private final int maxSize;
+
+    private int[] keys;
+    private long[] costAvgs;                            // ms * SCALE
+    private boolean[] slows;
+    private int size;
+    private int slowCount;
+
+    /**
+     * @param window            ewma weight 1/window, about last "window" triggers
+     * @param slowThreshold     ms, job with cost avg over it goes to slow pool; 0 as disabled
+     * @param maxSize           max job tracked, table cleared when exceeded
+     */
+    public JobCostTracker(int window, long slowThreshold, int maxSize) {
+        this.window = Math.max(1, window);
+        this.slowThreshold = Math.max(0, slowThreshold);
+        this.maxSize = Math.max(INIT_CAPACITY, maxSize);
+        reset(INIT_CAPACITY);
+    }
+
+    private void reset(int capacity) {
+        keys = new int[capacity];
+        costAvgs = new long[capacity];
+        slows = new boolean[capacity];
+        size = 0;
+        slowCount = 0;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(int jobId) {
+        int mask = keys.length - 1;
+        int index = hash(jobId) & mask;
+        while (keys[index] != FREE_KEY) {
+            if (keys[index] == jobId) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1 - index;          // free slot to insert
+    }
+
+    /**
+     * record cost of one trigger
+     */
+    public synchronized void record(int jobId, long cost) {
+        if (jobId == FREE_KEY) {
+            return;
+        }
+        int index = indexOf(jobId);
+        if (index < 0) {
+            if (size >= maxSize) {
+                reset(INIT_CAPACITY);
+            } else if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            index = -1 - indexOf(jobId);
+            keys[index] = jobId;
+            size++;
+        }
+
+        long costAvg = costAvgs[index] + (Math.max(0, cost) * SCALE - costAvgs[index]) / window;
+        costAvgs[index] = costAvg;
+
+        if (slowThreshold > 0) {
+            boolean slow = slows[index]
+                    ? costAvg * 4 >= slowThreshold * SCALE * 3
+                    : costAvg > slowThreshold * SCALE;
+            if (slow != slows[index]) {
+                slows[index] = slow;
+                slowCount += slow ? 1 : -1;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldCostAvgs = costAvgs;
+        boolean[] oldSlows = slows;
+        int oldSlowCount = slowCount;
+
+        reset(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int index = -1 - indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                costAvgs[index] = oldCostAvgs[i];
+                slows[index] = oldSlows[i];
+                size++;
+            }
+        }
+        slowCount = oldSlowCount;
+    }
+
+    public synchronized boolean isSlow(int jobId) {
+        int index = indexOf(jobId);
+        return index >= 0 && slows[index];
+    }
+
+    /**
+     * @return  cost avg, ms; -1 if not tracked
+     */
+    public synchronized long getCostAvg(int jobId) {
+        int index = indexOf(jobId);
+        return index >= 0 ? costAvgs[index] / SCALE : -1;
+    }
+
+    /**
+     * job removed, backward shift deletion keeps probe chain
+     */
+    public synchronized void remove(int jobId) {
+        int index = indexOf(jobId);
+        if (index < 0) {
+            return;
+        }
+        if (slows[index]) {
+            slowCount--;
+        }
+        size--;
+
+        int mask = keys.length - 1;
+        int free = index;
+        int next = (free + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = hash(keys[next]) & mask;
+            // move back if home not in (free, next]
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                costAvgs[free] = costAvgs[next];
+                slows[free] = slows[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[free] = FREE_KEY;
+        costAvgs[free] = 0;
+        slows[free] = false;
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public synchronized int getSlowCount() {
+        return slowCount;
+    }
+
+    /**
+     * cost avg of slow jobs, ms
+     */
+    public synchronized Map<Integer, Long> getSlowJobs() {
+        Map<Integer, Long> slowJobs = new LinkedHashMap<Integer, Long>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY && slows[i]) {
+                slowJobs.put(keys[i], costAvgs[i] / SCALE);
+            }
+        }
+        return slowJobs;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.glue.GlueSourceCache;
+import com.xxl.job.core.glue.GlueTypeEnum;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * glue source helper, trigger param of glue job carries glue hash, glue source omitted once executor acked that glue hash
+ *
+ *  - executor acks glue hash in run result, loads glue source by glue hash from local cache, or from admin if missed
+ *  - executor of old version not ack, glue source always shipped along
+ *  - omitted but not acked (executor restarted as old version, load fail etc), glue source shipped along again
+ *
+ * @author xuxueli 2020-06-06
+ */
+public class JobGlueSourceHelper {
+
+    private static JobGlueSourceHelper instance = new JobGlueSourceHelper();
+    public static JobGlueSourceHelper getInstance(){
+        return instance;
+    }
+
+    private static final int HASH_CACHE_MAX = 10000;
+    private static final int ACKED_MAX = 100000;
+
+    private final ConcurrentMap<Integer, GlueHash> hashCache = new ConcurrentHashMap<>();     // jobId -> glue hash of glue version
+    private final ConcurrentMap<String, Boolean> ackedMap = new ConcurrentHashMap<>();        // "address#glueHash" acked by executor
+
+    // metrics
+    private final AtomicLong omitCount = new AtomicLong(0);
+
+    /**
+     * set glue hash, omit glue source if executor acked
+     */
+    public void prepare(TriggerParam triggerParam, XxlJobInfo jobInfo, String address) {
+        GlueTypeEnum glueType = GlueTypeEnum.match(jobInfo.getGlueType());
+        if (glueType==null || glueType==GlueTypeEnum.BEAN || jobInfo.getGlueSource()==null) {
+            return;
+        }
+        String glueHash = hash(jobInfo);
+        triggerParam.setGlueHash(glueHash);
+        if (ackedMap.containsKey(ackedKey(address, glueHash))) {
+            triggerParam.setGlueSource(null);
+            omitCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * executor run result returned, ack of glue hash checked
+     */
+    public void ack(String address, TriggerParam triggerParam, ReturnT<String> runResult) {
+        if (address==null || triggerParam.getGlueHash()==null) {
+            return;
+        }
+        String ackedKey = ackedKey(address, triggerParam.getGlueHash());
+        if (triggerParam.getGlueHash().equals(runResult.getContent())) {
+            if (ackedMap.size() >= ACKED_MAX) {
+                ackedMap.clear();
+            }
+            ackedMap.put(ackedKey, Boolean.TRUE);
+        } else if (triggerParam.getGlueSource() == null) {
+            ackedMap.remove(ackedKey);
+        }
+    }
+
+    private static String ackedKey(String address, String glueHash) {
+        return address + "#" + glueHash;
+    }
+
+    private String hash(XxlJobInfo jobInfo) {
+        long glueUpdatetime = jobInfo.getGlueUpdatetime()!=null?jobInfo.getGlueUpdatetime().getTime():0;
+        GlueHash glueHash = hashCache.get(jobInfo.getId());
+        if (glueHash==null || glueHash.glueUpdatetime!=glueUpdatetime) {
+            if (hashCache.size() >= HASH_CACHE_MAX) {
+                hashCache.clear();
+            }
+            glueHash = new GlueHash(glueUpdatetime, GlueSourceCache.hash(jobInfo.getGlueSource()));
+            hashCache.put(jobInfo.getId(), glueHash);
+        }
+        return glueHash.hash;
+    }
+
+    private static class GlueHash {
+        private final long glueUpdatetime;
+        private final String hash;
+
+        private GlueHash(long glueUpdatetime, String hash) {
+            this.glueUpdatetime = glueUpdatetime;
+            this.hash = hash;
+        }
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public int getAckedCount() {
+        return ackedMap.size();
+    }
+
+    public long getOmitCount() {
+        return omitCount.get();
+    }
+
+}
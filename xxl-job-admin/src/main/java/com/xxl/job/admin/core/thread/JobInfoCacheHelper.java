@@ -0,0 +1,247 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobGroup;
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * job info / job group snapshot cache of trigger, trigger reads no db before executor rpc
+ *
+ *  - snapshot is shared and read only, never modified by trigger
+ *  - local edit (job, glue, group) invalidates at once
+ *  - edit on other admin: sync thread finds job with changed version (update_time) each interval, group snapshot dropped each interval
+ *  - registry refresh replaces group snapshot with new address list
+ *  - snapshot older than max age reloaded, covers job removed on other admin
+ *
+ * @author xuxueli 2020-04-25
+ */
+public class JobInfoCacheHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobInfoCacheHelper.class);
+
+    private static JobInfoCacheHelper instance = new JobInfoCacheHelper();
+    public static JobInfoCacheHelper getInstance(){
+        return instance;
+    }
+
+    private static final long SYNC_INTERVAL_MS = 10 * 1000;
+    private static final long SYNC_OVERLAP_MS = 60 * 1000;      // clock skew of admin and db, update_time in second
+    private static final long MAX_AGE_MS = 5 * 60 * 1000;
+    private static final int CACHE_MAX = 100000;
+
+    private final ConcurrentMap<Integer, Snapshot<XxlJobInfo>> jobInfoMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Snapshot<XxlJobGroup>> jobGroupMap = new ConcurrentHashMap<>();
+    private final AtomicLong invalidSeq = new AtomicLong(0);    // loaded before invalid, not cached
+    private Thread syncThread;
+    private volatile boolean toStop = false;
+
+    // metrics
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    public void start(){
+        if (!XxlJobAdminConfig.getAdminConfig().isTriggerCacheEnabled()) {
+            return;
+        }
+
+        syncThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long syncTime = System.currentTimeMillis();
+                while (!toStop) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(SYNC_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        if (!toStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+                    if (toStop) {
+                        break;
+                    }
+
+                    try {
+                        long nowTime = System.currentTimeMillis();
+                        List<XxlJobInfo> updateList = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().findUpdateVersion(new Date(syncTime - SYNC_OVERLAP_MS));
+                        int invalidCount = 0;
+                        for (XxlJobInfo item: updateList) {
+                            Snapshot<XxlJobInfo> snapshot = jobInfoMap.get(item.getId());
+                            if (snapshot!=null && snapshot.version!=version(item)) {
+                                invalidSeq.incrementAndGet();
+                                jobInfoMap.remove(item.getId(), snapshot);
+                                invalidCount++;
+                            }
+                        }
+                        invalidSeq.incrementAndGet();
+                        jobGroupMap.clear();
+                        syncTime = nowTime;
+                        if (invalidCount > 0) {
+                            logger.debug(">>>>>>>>>>> xxl-job, JobInfoCacheHelper sync, job info invalid:{}", invalidCount);
+                        }
+                    } catch (Exception e) {
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> xxl-job, JobInfoCacheHelper#syncThread error:{}", e);
+                        }
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, JobInfoCacheHelper#syncThread stop");
+            }
+        });
+        syncThread.setDaemon(true);
+        syncThread.setName("xxl-job, admin JobInfoCacheHelper#syncThread");
+        syncThread.start();
+    }
+
+    public void toStop(){
+        if (syncThread == null) {
+            return;
+        }
+        toStop = true;
+        // interrupt and wait
+        syncThread.interrupt();
+        try {
+            syncThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private static long version(XxlJobInfo jobInfo) {
+        return jobInfo.getUpdateTime()!=null?jobInfo.getUpdateTime().getTime():0;
+    }
+
+    /**
+     * job info snapshot, read only
+     */
+    public XxlJobInfo loadJobInfo(int jobId) {
+        if (syncThread == null) {
+            return XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(jobId);
+        }
+
+        long nowTime = System.currentTimeMillis();
+        Snapshot<XxlJobInfo> snapshot = jobInfoMap.get(jobId);
+        if (snapshot!=null && nowTime - snapshot.loadTime < MAX_AGE_MS) {
+            hitCount.incrementAndGet();
+            return snapshot.value;
+        }
+
+        missCount.incrementAndGet();
+        long seq = invalidSeq.get();
+        XxlJobInfo jobInfo = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(jobId);
+        if (jobInfo == null) {
+            jobInfoMap.remove(jobId);
+            return null;
+        }
+        if (jobInfoMap.size() >= CACHE_MAX) {
+            jobInfoMap.clear();
+        }
+        if (seq == invalidSeq.get()) {
+            jobInfoMap.put(jobId, new Snapshot<XxlJobInfo>(jobInfo, version(jobInfo), nowTime));
+        }
+        return jobInfo;
+    }
+
+    /**
+     * job group snapshot, read only; registry list parsed once
+     */
+    public XxlJobGroup loadJobGroup(int jobGroup) {
+        if (syncThread == null) {
+            return XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().load(jobGroup);
+        }
+
+        long nowTime = System.currentTimeMillis();
+        Snapshot<XxlJobGroup> snapshot = jobGroupMap.get(jobGroup);
+        if (snapshot!=null && nowTime - snapshot.loadTime < MAX_AGE_MS) {
+            hitCount.incrementAndGet();
+            return snapshot.value;
+        }
+
+        missCount.incrementAndGet();
+        long seq = invalidSeq.get();
+        XxlJobGroup group = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().load(jobGroup);
+        if (group == null) {
+            jobGroupMap.remove(jobGroup);
+            return null;
+        }
+        if (seq == invalidSeq.get()) {
+            putJobGroup(group, nowTime);
+        }
+        return group;
+    }
+
+    private void putJobGroup(XxlJobGroup group, long nowTime) {
+        group.getRegistryList();        // parse before shared
+        jobGroupMap.put(group.getId(), new Snapshot<XxlJobGroup>(group, 0, nowTime));
+    }
+
+    /**
+     * job info snapshot if cached, no db read; null if not cached or cache disabled
+     */
+    public XxlJobInfo peekJobInfo(int jobId) {
+        Snapshot<XxlJobInfo> snapshot = jobInfoMap.get(jobId);
+        return snapshot!=null?snapshot.value:null;
+    }
+
+    /**
+     * job added/updated/removed, or glue updated
+     */
+    public void removeJobInfo(int jobId) {
+        invalidSeq.incrementAndGet();
+        jobInfoMap.remove(jobId);
+    }
+
+    /**
+     * job group added/updated/removed
+     */
+    public void removeJobGroup(int jobGroup) {
+        invalidSeq.incrementAndGet();
+        jobGroupMap.remove(jobGroup);
+    }
+
+    /**
+     * registry address of group refreshed
+     */
+    public void refreshJobGroup(XxlJobGroup group) {
+        if (syncThread == null) {
+            return;
+        }
+        invalidSeq.incrementAndGet();
+        putJobGroup(group, System.currentTimeMillis());
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public int getJobInfoCount() {
+        return jobInfoMap.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static class Snapshot<T> {
+        private final T value;
+        private final long version;
+        private final long loadTime;
+
+        private Snapshot(T value, long version, long loadTime) {
+            this.value = value;
+            this.version = version;
+            this.loadTime = loadTime;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * job log id helper, log id allocated by segment before trigger, log row written once after executor rpc
+ *
+ * @author xuxueli 2020-05-02
+ */
+public class JobLogIdHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobLogIdHelper.class);
+
+    private static JobLogIdHelper instance = new JobLogIdHelper();
+    public static JobLogIdHelper getInstance(){
+        return instance;
+    }
+
+    private static final String BIZ_TAG = "xxl_job_log";
+
+    private volatile IdSegmentAllocator allocator;
+
+    public void start(){
+        int step = XxlJobAdminConfig.getAdminConfig().getLogIdSegmentStep();
+        if (step <= 0) {
+            return;
+        }
+        allocator = new IdSegmentAllocator(BIZ_TAG, step, XxlJobAdminConfig.getAdminConfig().getXxlJobIdSegmentDao()) {
+            @Override
+            protected long floorId() {
+                // log written by auto increment before (old version, or segment disabled)
+                return XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findMaxId();
+            }
+        };
+    }
+
+    public void toStop(){
+        if (allocator != null) {
+            allocator.stop();
+            allocator = null;
+        }
+    }
+
+    /**
+     * @return  log id; 0 if segment disabled or load fail, log saved by auto increment as before
+     */
+    public long nextId() {
+        IdSegmentAllocator allocator = this.allocator;
+        if (allocator == null) {
+            return 0;
+        }
+        try {
+            return allocator.nextId();
+        } catch (Exception e) {
+            logger.error(">>>>>>>>>>> xxl-job, log id allocate fail, fall back to auto increment.", e);
+            return 0;
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.model.XxlJobLog;
+import com.xxl.job.admin.core.util.JacksonUtil;
+import com.xxl.job.admin.dao.XxlJobLogDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * local journal of trigger info written behind by JobLogWriteHelper, row queued but lost by admin crash is replayed on start
+ *
+ *  - append-only segment file, one json line per row, handed to os before row queued (survives process crash; no fsync)
+ *  - segment rolled each SEGMENT_ROWS rows or SEGMENT_MS, deleted once rolled and all its rows written
+ *  - replay: rows of segments left by last process saved again (trigger info "on duplicate key update", idempotent), then deleted
+ *
+ * @author xuxueli 2020-05-09
+ */
+public class JobLogJournal {
+    private static Logger logger = LoggerFactory.getLogger(JobLogJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int SEGMENT_ROWS = 10000;
+    private static final long SEGMENT_MS = 60 * 1000;
+    private static final int REPLAY_BATCH = 500;
+
+    private final File dir;
+    private final long startTime = System.currentTimeMillis();
+    private long segmentSeq = 0;
+    private Segment current;
+
+    /**
+     * @throws IOException  dir not writable
+     */
+    public JobLogJournal(String dirPath) throws IOException {
+        this.dir = new File(dirPath);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("xxl-job, log journal dir create fail: " + dir.getAbsolutePath());
+        }
+        if (!dir.canWrite()) {
+            throw new IOException("xxl-job, log journal dir not writable: " + dir.getAbsolutePath());
+        }
+    }
+
+    /**
+     * replay segments left by last process, call before first append
+     *
+     * @return  row count replayed
+     */
+    public int replay(XxlJobLogDao xxlJobLogDao) throws IOException {
+        File[] segmentFiles = dir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        if (segmentFiles == null || segmentFiles.length == 0) {
+            return 0;
+        }
+        Arrays.sort(segmentFiles);
+
+        int replayCount = 0;
+        for (File segmentFile: segmentFiles) {
+            List<XxlJobLog> logList = new ArrayList<XxlJobLog>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(segmentFile), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    XxlJobLog jobLog = line.trim().length()>0?JacksonUtil.readValue(line, XxlJobLog.class):null;
+                    if (jobLog == null) {
+                        continue;       // last line cut by crash
+                    }
+                    logList.add(jobLog);
+                    if (logList.size() >= REPLAY_BATCH) {
+                        xxlJobLogDao.saveTriggerInfoBatch(logList);
+                        replayCount += logList.size();
+                        logList.clear();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            if (logList.size() > 0) {
+                xxlJobLogDao.saveTriggerInfoBatch(logList);
+                replayCount += logList.size();
+            }
+
+            if (!segmentFile.delete()) {
+                logger.warn(">>>>>>>>>>> xxl-job, log journal segment delete fail: {}", segmentFile.getAbsolutePath());
+            }
+        }
+        return replayCount;
+    }
+
+    /**
+     * append trigger info of row to be queued
+     *
+     * @return  segment of row, released after row written; null if append fail, row queued without journal
+     */
+    public synchronized Segment append(XxlJobLog jobLog) {
+        try {
+            if (current!=null && (current.rows>=SEGMENT_ROWS || System.currentTimeMillis()-current.openTime>=SEGMENT_MS)) {
+                current.roll();
+                current = null;
+            }
+            if (current == null) {
+                current = new Segment(new File(dir, String.format("trigger-%d-%010d%s", startTime, segmentSeq++, SEGMENT_SUFFIX)));
+            }
+            current.write(JacksonUtil.writeValueAsString(jobLog));
+            return current;
+        } catch (IOException e) {
+            logger.error(">>>>>>>>>>> xxl-job, log journal append fail, logId:{}", jobLog.getId(), e);
+            if (current != null) {
+                current.roll();
+                current = null;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * roll current segment, deleted once all its rows written
+     */
+    public synchronized void close() {
+        if (current != null) {
+            current.roll();
+            current = null;
+        }
+    }
+
+    /**
+     * segment file, guarded by journal; pending rows released by writer
+     */
+    public static class Segment {
+        private final File file;
+        private final Writer writer;
+        private final long openTime = System.currentTimeMillis();
+        private final AtomicInteger pending = new AtomicInteger(0);
+        private int rows = 0;
+        private volatile boolean rolled = false;
+
+        private Segment(File file) throws IOException {
+            this.file = file;
+            this.writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8);
+        }
+
+        private void write(String line) throws IOException {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+            rows++;
+            pending.incrementAndGet();
+        }
+
+        private void roll() {
+            rolled = true;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+            if (pending.get() == 0) {
+                file.delete();
+            }
+        }
+
+        /**
+         * row written to db
+         */
+        public void release() {
+            if (pending.decrementAndGet()==0 && rolled) {
+                file.delete();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,427 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobLog;
+import com.xxl.job.admin.dao.XxlJobLogDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * job log write helper, write-behind of log row: trigger info and handle info queued, flushed as multi-row statement
+ *
+ *  - flushed each "batchsize" rows, or "interval" ms after first queued row
+ *  - trigger info: not waited, flushed before stop; journaled locally before queued, replayed on start if admin crashed before flushed
+ *  - handle info: flush before ack, callback returns after its rows flushed, executor retries callback if flush fail;
+ *    row not matched (trigger info not written yet) queued again up to HANDLE_RETRY_MAX times, then failed
+ *  - queued row visible to load before flushed, callback of such log not parked
+ *  - queue full or batch fail, written row by row (in caller if queue full)
+ *
+ * @author xuxueli 2020-05-09
+ */
+public class JobLogWriteHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobLogWriteHelper.class);
+
+    private static JobLogWriteHelper instance = new JobLogWriteHelper();
+    public static JobLogWriteHelper getInstance(){
+        return instance;
+    }
+
+    private static final int QUEUE_MAX = 20000;
+    private static final long HANDLE_OFFER_WAIT_MS = 1000;     // queue full, handle info waits (trigger info of same log may be queued)
+    private static final int HANDLE_RETRY_MAX = 3;
+
+    private LinkedBlockingQueue<WriteItem> writeQueue;
+    private JobLogJournal journal;      // null if journal disabled
+    private final ConcurrentMap<Long, XxlJobLog> unflushedMap = new ConcurrentHashMap<>();
+    private int batchSize;
+    private long intervalNanos;
+    private Thread flushThread;
+    private volatile boolean toStop = false;
+
+    // metrics
+    private final AtomicLong flushCount = new AtomicLong(0);
+    private final AtomicLong flushRowCount = new AtomicLong(0);
+    private final AtomicLong directRowCount = new AtomicLong(0);  // queue full or batch fail, written row by row
+    private volatile long flushCostAvg = 0;                        // ewma (weight 1/8), ms
+    private volatile long flushCostMax = 0;                        // ms
+
+    public void start(){
+        batchSize = XxlJobAdminConfig.getAdminConfig().getLogWriteBatchSize();
+        if (batchSize <= 0) {
+            return;
+        }
+        intervalNanos = TimeUnit.MILLISECONDS.toNanos(XxlJobAdminConfig.getAdminConfig().getLogWriteIntervalMs());
+        writeQueue = new LinkedBlockingQueue<WriteItem>(QUEUE_MAX);
+        journal = startJournal(XxlJobAdminConfig.getAdminConfig().getLogWriteJournalDir());
+
+        flushThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!toStop || !writeQueue.isEmpty()) {
+                    List<WriteItem> batch = new ArrayList<WriteItem>();
+                    try {
+                        WriteItem first = writeQueue.poll(1, TimeUnit.SECONDS);
+                        if (first == null) {
+                            continue;
+                        }
+                        batch.add(first);
+
+                        // collect until batch full, or interval passed since first row
+                        long deadline = first.queueTime + intervalNanos;
+                        while (batch.size() < batchSize) {
+                            writeQueue.drainTo(batch, batchSize - batch.size());
+                            long remain = deadline - System.nanoTime();
+                            if (batch.size()>=batchSize || remain<=0 || toStop) {
+                                break;
+                            }
+                            WriteItem item = writeQueue.poll(remain, TimeUnit.NANOSECONDS);
+                            if (item == null) {
+                                break;
+                            }
+                            batch.add(item);
+                        }
+                    } catch (InterruptedException e) {
+                        if (!toStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+
+                    if (batch.size() > 0) {
+                        flush(batch);
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, JobLogWriteHelper#flushThread stop");
+            }
+        });
+        flushThread.setDaemon(true);
+        flushThread.setName("xxl-job, admin JobLogWriteHelper#flushThread");
+        flushThread.start();
+    }
+
+    public void toStop(){
+        if (flushThread == null) {
+            return;
+        }
+        toStop = true;
+        // interrupt and wait, queued row flushed before exit
+        flushThread.interrupt();
+        try {
+            flushThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+
+        // queued by caller raced with stop
+        List<WriteItem> remainList = new ArrayList<WriteItem>();
+        writeQueue.drainTo(remainList);
+        if (remainList.size() > 0) {
+            flush(remainList);
+        }
+
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * journal of queued trigger info, rows left by crashed process replayed first
+     *
+     * @return  null if journal disabled or dir not writable
+     */
+    private JobLogJournal startJournal(String journalDir) {
+        if (journalDir==null || journalDir.trim().length()==0) {
+            return null;
+        }
+        try {
+            JobLogJournal journal = new JobLogJournal(journalDir.trim());
+            int replayCount = journal.replay(XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao());
+            if (replayCount > 0) {
+                logger.info(">>>>>>>>>>> xxl-job, log journal replayed, trigger info rows:{}", replayCount);
+            }
+            return journal;
+        } catch (Exception e) {
+            logger.error(">>>>>>>>>>> xxl-job, log journal start fail, trigger info written behind without journal.", e);
+            return null;
+        }
+    }
+
+    /**
+     * load log, queued row not flushed yet included
+     */
+    public XxlJobLog load(long logId) {
+        XxlJobLog unflushed = unflushedMap.get(logId);
+        if (unflushed != null) {
+            return copy(unflushed);
+        }
+        return XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().load(logId);
+    }
+
+    /**
+     * trigger info, write-behind; log not modified after
+     */
+    public void saveTriggerInfo(XxlJobLog jobLog) {
+        WriteItem item = new WriteItem(jobLog, false);
+        if (!offer(item, 0)) {
+            writeRow(item);
+        }
+    }
+
+    /**
+     * trigger info of logs, queued together; not queued written as one multi-row statement
+     */
+    public void saveTriggerInfo(List<XxlJobLog> jobLogList) {
+        List<WriteItem> directList = new ArrayList<WriteItem>();
+        for (XxlJobLog jobLog: jobLogList) {
+            WriteItem item = new WriteItem(jobLog, false);
+            if (!offer(item, 0)) {
+                directList.add(item);
+            }
+        }
+        writeBatch(directList, false);
+    }
+
+    /**
+     * handle info, write-behind; log not modified after
+     *
+     * @return  await before ack
+     */
+    public WriteResult updateHandleInfo(XxlJobLog jobLog) {
+        WriteItem item = new WriteItem(jobLog, true);
+        if (!offer(item, HANDLE_OFFER_WAIT_MS)) {
+            writeRow(item);
+        }
+        return item;
+    }
+
+    private boolean offer(WriteItem item, long waitMs) {
+        if (flushThread==null || toStop) {
+            return false;
+        }
+        if (!item.handle && journal != null) {
+            item.segment = journal.append(item.jobLog);
+        }
+        unflushedMap.put(item.jobLog.getId(), item.jobLog);
+        try {
+            if (writeQueue.offer(item, waitMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            // write in caller
+        }
+        unflushedMap.remove(item.jobLog.getId(), item.jobLog);
+        return false;
+    }
+
+    private void flush(List<WriteItem> batch) {
+        long startTime = System.currentTimeMillis();
+
+        // trigger info before handle info, handle info of same log keeps the last
+        List<WriteItem> triggerList = new ArrayList<WriteItem>();
+        Map<Long, WriteItem> handleMap = new LinkedHashMap<Long, WriteItem>();
+        for (WriteItem item: batch) {
+            if (item.handle) {
+                handleMap.put(item.jobLog.getId(), item);
+            } else {
+                triggerList.add(item);
+            }
+        }
+        for (WriteItem item: batch) {
+            item.requeued = false;
+        }
+        writeBatch(triggerList, false);
+        writeBatch(new ArrayList<WriteItem>(handleMap.values()), true);
+
+        for (WriteItem item: batch) {
+            if (item.requeued) {
+                continue;       // row not matched, queued again
+            }
+            unflushedMap.remove(item.jobLog.getId(), item.jobLog);
+            if (item.done.getCount() > 0) {
+                // replaced by later handle info of same log
+                item.complete(true);
+            }
+        }
+
+        long cost = System.currentTimeMillis() - startTime;
+        flushCount.incrementAndGet();
+        flushRowCount.addAndGet(batch.size());
+        flushCostAvg = flushCostAvg + (cost - flushCostAvg) / 8;
+        flushCostMax = Math.max(flushCostMax, cost);
+    }
+
+    private void writeBatch(List<WriteItem> itemList, boolean handle) {
+        if (itemList.isEmpty()) {
+            return;
+        }
+        List<XxlJobLog> logList = new ArrayList<XxlJobLog>(itemList.size());
+        for (WriteItem item: itemList) {
+            logList.add(item.jobLog);
+        }
+
+        try {
+            XxlJobLogDao xxlJobLogDao = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao();
+            if (handle) {
+                int matchCount = xxlJobLogDao.updateHandleInfoBatch(logList);
+                if (matchCount < logList.size()) {
+                    // some row not matched, find it row by row
+                    for (WriteItem item: itemList) {
+                        writeRow(item);
+                    }
+                    return;
+                }
+            } else {
+                xxlJobLogDao.saveTriggerInfoBatch(logList);
+            }
+            for (WriteItem item: itemList) {
+                item.complete(true);
+            }
+        } catch (Exception e) {
+            logger.error(">>>>>>>>>>> xxl-job, log batch write fail, write row by row, size:{}", itemList.size(), e);
+            for (WriteItem item: itemList) {
+                writeRow(item);
+            }
+        }
+    }
+
+    private void writeRow(WriteItem item) {
+        directRowCount.incrementAndGet();
+        try {
+            XxlJobLogDao xxlJobLogDao = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao();
+            if (item.handle) {
+                if (xxlJobLogDao.updateHandleInfo(item.jobLog) < 1) {
+                    requeue(item);
+                    return;
+                }
+            } else {
+                xxlJobLogDao.saveTriggerInfo(item.jobLog);
+            }
+            item.complete(true);
+        } catch (Exception e) {
+            logger.error(">>>>>>>>>>> xxl-job, log write fail, logId:{}", item.jobLog.getId(), e);
+            item.complete(false);
+        }
+    }
+
+    /**
+     * handle info of row not matched, queued again for trigger info queued or written in caller; failed after retry max
+     */
+    private void requeue(WriteItem item) {
+        if (item.retry < HANDLE_RETRY_MAX) {
+            item.retry++;
+            item.requeued = true;
+            item.queueTime = System.nanoTime();
+            if (offer(item, 0)) {
+                return;
+            }
+            item.requeued = false;
+        }
+        logger.warn(">>>>>>>>>>> xxl-job, log handle info not matched, logId:{}", item.jobLog.getId());
+        item.complete(false);
+    }
+
+    private static XxlJobLog copy(XxlJobLog jobLog) {
+        XxlJobLog copy = new XxlJobLog();
+        copy.setId(jobLog.getId());
+        copy.setJobGroup(jobLog.getJobGroup());
+        copy.setJobId(jobLog.getJobId());
+        copy.setExecutorAddress(jobLog.getExecutorAddress());
+        copy.setExecutorHandler(jobLog.getExecutorHandler());
+        copy.setExecutorParam(jobLog.getExecutorParam());
+        copy.setExecutorShardingParam(jobLog.getExecutorShardingParam());
+        copy.setExecutorFailRetryCount(jobLog.getExecutorFailRetryCount());
+        copy.setTriggerTime(jobLog.getTriggerTime());
+        copy.setTriggerCode(jobLog.getTriggerCode());
+        copy.setTriggerMsg(jobLog.getTriggerMsg());
+        copy.setHandleTime(jobLog.getHandleTime());
+        copy.setHandleCode(jobLog.getHandleCode());
+        copy.setHandleMsg(jobLog.getHandleMsg());
+        copy.setAlarmStatus(jobLog.getAlarmStatus());
+        return copy;
+    }
+
+    public interface WriteResult {
+        /**
+         * @return  true if written, false if write fail or timeout
+         */
+        boolean await(long timeoutMs);
+
+        /**
+         * @return  true if written or write fail
+         */
+        boolean isDone();
+    }
+
+    private static class WriteItem implements WriteResult {
+        private final XxlJobLog jobLog;
+        private final boolean handle;
+        private long queueTime = System.nanoTime();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean success = false;
+        private int retry = 0;
+        private boolean requeued = false;          // queued again by last write, reset by flush thread
+        private JobLogJournal.Segment segment;     // journal of trigger info, kept for replay if write fail
+
+        private WriteItem(XxlJobLog jobLog, boolean handle) {
+            this.jobLog = jobLog;
+            this.handle = handle;
+        }
+
+        private void complete(boolean success) {
+            this.success = success;
+            if (success && segment != null) {
+                segment.release();
+                segment = null;
+            }
+            done.countDown();
+        }
+
+        @Override
+        public boolean await(long timeoutMs) {
+            try {
+                return done.await(timeoutMs, TimeUnit.MILLISECONDS) && success;
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public int getQueueSize() {
+        return writeQueue!=null?writeQueue.size():0;
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFlushRowCount() {
+        return flushRowCount.get();
+    }
+
+    public long getDirectRowCount() {
+        return directRowCount.get();
+    }
+
+    public long getFlushCostAvg() {
+        return flushCostAvg;
+    }
+
+    public long getFlushCostMax() {
+        return flushCostMax;
+    }
+
+}
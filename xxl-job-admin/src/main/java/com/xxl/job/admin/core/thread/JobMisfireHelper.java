@@ -0,0 +1,128 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * misfire catch-up helper
+ *
+ *  - schedule thread submit catch-up trigger of misfired job, by misfire strategy
+ *  - catch-up trigger is pushed into trigger pool in batches, at most "xxl.job.schedule.misfire.batchsize" each second
+ *
+ * @author xuxueli 2020-02-29
+ */
+public class JobMisfireHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobMisfireHelper.class);
+
+    private static JobMisfireHelper instance = new JobMisfireHelper();
+    public static JobMisfireHelper getInstance(){
+        return instance;
+    }
+
+    private LinkedBlockingDeque<MisfireItem> misfireQueue = new LinkedBlockingDeque<MisfireItem>();
+    private Thread catchUpThread;
+    private volatile boolean toStop = false;
+
+    public void start(){
+        catchUpThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!toStop) {
+                    try {
+                        // wait for first item
+                        MisfireItem item = misfireQueue.take();
+                        misfireQueue.putFirst(item);
+
+                        // push one batch
+                        int batchSize = XxlJobAdminConfig.getAdminConfig().getMisfireBatchSize();
+                        int count = 0;
+                        while (count < batchSize && (item = misfireQueue.poll()) != null) {
+                            int fireCount = Math.min(item.remaining, batchSize - count);
+                            for (int i = 0; i < fireCount; i++) {
+                                JobTriggerPoolHelper.trigger(item.jobId, TriggerTypeEnum.MISFIRE, -1, null, null);
+                            }
+                            count += fireCount;
+                            item.remaining -= fireCount;
+                            if (item.remaining > 0) {
+                                misfireQueue.putFirst(item);
+                            }
+                        }
+                        logger.debug(">>>>>>>>>>> xxl-job, misfire catch-up batch, count:{}, queued job:{}", count, misfireQueue.size());
+
+                        // next batch
+                        TimeUnit.SECONDS.sleep(1);
+                    } catch (Exception e) {
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> xxl-job, JobMisfireHelper#catchUpThread error:{}", e);
+                        }
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, JobMisfireHelper#catchUpThread stop");
+            }
+        });
+        catchUpThread.setDaemon(true);
+        catchUpThread.setName("xxl-job, admin JobMisfireHelper#catchUpThread");
+        catchUpThread.start();
+    }
+
+    public void toStop(){
+        toStop = true;
+        // interrupt and wait
+        catchUpThread.interrupt();
+        try {
+            catchUpThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+
+        // catch-up left, dropped
+        int dropCount = 0;
+        MisfireItem item;
+        while ((item = misfireQueue.poll()) != null) {
+            dropCount += item.remaining;
+        }
+        if (dropCount > 0) {
+            logger.warn(">>>>>>>>>>> xxl-job, misfire catch-up trigger dropped when stop, count:{}", dropCount);
+        }
+    }
+
+    /**
+     * submit catch-up trigger
+     *
+     * @param jobId
+     * @param count     missed trigger count to fire
+     */
+    public void submit(int jobId, int count) {
+        if (count < 1) {
+            return;
+        }
+        misfireQueue.offer(new MisfireItem(jobId, count));
+    }
+
+    /**
+     * @return  catch-up trigger count waiting
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (MisfireItem item: misfireQueue) {
+            count += item.remaining;
+        }
+        return count;
+    }
+
+    private static class MisfireItem {
+        private final int jobId;
+        private volatile int remaining;
+
+        private MisfireItem(int jobId, int remaining) {
+            this.jobId = jobId;
+            this.remaining = remaining;
+        }
+    }
+
+}
@@ -74,6 +74,7 @@ public class JobRegistryMonitorHelper {
 								}
 								group.setAddressList(addressListStr);
 								XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().update(group);
+								JobInfoCacheHelper.getInstance().refreshJobGroup(group);
 							}
 						}
 					} catch (Exception e) {
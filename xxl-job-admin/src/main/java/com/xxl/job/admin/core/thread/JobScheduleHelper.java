@@ -1,9 +1,19 @@
 package com.xxl.job.admin.core.thread;
 
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
-import com.xxl.job.admin.core.cron.CronExpression;
+import com.xxl.job.admin.core.cron.CronExpressionCache;
 import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.admin.core.model.XxlJobRegistry;
+import com.xxl.job.admin.core.model.XxlJobRingCheckpoint;
+import com.xxl.job.admin.core.scheduler.JobScheduleIndex;
+import com.xxl.job.admin.core.scheduler.MisfireStrategyEnum;
+import com.xxl.job.admin.core.scheduler.PreReadTuner;
+import com.xxl.job.admin.core.scheduler.RingCheckpoint;
+import com.xxl.job.admin.core.scheduler.ScheduleTypeEnum;
+import com.xxl.job.admin.core.scheduler.TimingWheel;
+import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
+import com.xxl.job.core.enums.RegistryConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,8 +22,8 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.ParseException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author xuxueli 2019-05-21
@@ -26,16 +36,45 @@ public class JobScheduleHelper {
         return instance;
     }
 
-    public static final long PRE_READ_MS = 5000;    // pre read
+    public static final long PRE_READ_MS = 5000;    // pre read, initial window and misfire threshold
+    private static final int SCHEDULE_UPDATE_BATCH_SIZE = 500;      // rows of each batch update statement
+    private static final int MAX_RING_PUSH_PER_JOB = 1000;          // fire time of one job pushed each scan, sub-second fix rate
+    private static final long FIX_DELAY_TIMEOUT_MS = 60 * 1000;     // fix delay, fire again if no finish callback (executor timeout not set)
+    private static final long SCHEDULE_INDEX_SYNC_OVERLAP_MS = 60 * 1000;   // clock skew of admin and db, update_time in second
 
     private Thread scheduleThread;
     private Thread ringThread;
     private volatile boolean scheduleThreadToStop = false;
     private volatile boolean ringThreadToStop = false;
-    private volatile static Map<Integer, List<Integer>> ringData = new ConcurrentHashMap<>();
+    private volatile TimingWheel ringData;
+    private volatile long ringFiredTime = 0;                            // trigger time not later than it has been fired
+    private final AtomicLong ringMaxTime = new AtomicLong(0);          // max trigger time pushed, for drain on stop
+    private volatile RingCheckpoint ringCheckpoint;                     // null if checkpoint disabled
+
+    // adaptive pre-read
+    private volatile PreReadTuner preReadTuner;
+    private volatile long scanCost = 0;
+    private volatile int scanReadCount = 0;
+
+    // schedule index (leader only)
+    public static final String LEADER_REGISTRY_KEY = "xxl-job-admin-leader";
+    private static final int LEADER_LEASE_TIMEOUT = 10;     // lease timeout, second
+
+    private final JobScheduleIndex scheduleIndex = new JobScheduleIndex();
+    private volatile boolean scheduleLeader = false;
+    private long scheduleIndexReconcileTime = 0;
+    private long scheduleIndexSyncTime = 0;
 
     public void start(){
 
+        // time ring, millisecond tick
+        ringData = new TimingWheel(XxlJobAdminConfig.getAdminConfig().getTimeRingTickMs(),
+                XxlJobAdminConfig.getAdminConfig().getTimeRingWheelSize(),
+                System.currentTimeMillis());
+        if (XxlJobAdminConfig.getAdminConfig().isTimeRingCheckpointEnabled()) {
+            ringCheckpoint = new RingCheckpoint(XxlJobScheduler.getAdminId(), XxlJobAdminConfig.getAdminConfig().getXxlJobRingCheckpointDao());
+        }
+
         // schedule thread
         scheduleThread = new Thread(new Runnable() {
             @Override
@@ -50,13 +89,17 @@ public class JobScheduleHelper {
                 }
                 logger.info(">>>>>>>>> init xxl-job admin scheduler success.");
 
-                // pre-read count: treadpool-size * trigger-qps (each trigger cost 50ms, qps = 1000/50 = 20)
-                int preReadCount = (XxlJobAdminConfig.getAdminConfig().getTriggerPoolFastMax() + XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowMax()) * 20;
+                // pre-read count: treadpool-size * trigger-qps (each trigger cost 50ms, qps = 1000/50 = 20), as initial value, tuned by live measurement
+                int poolMax = XxlJobAdminConfig.getAdminConfig().getTriggerPoolFastMax() + XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowMax();
+                preReadTuner = new PreReadTuner(poolMax * 20, PRE_READ_MS, poolMax);
 
                 while (!scheduleThreadToStop) {
 
                     // Scan Job
                     long start = System.currentTimeMillis();
+                    int preReadCount = preReadTuner.getPreReadCount();
+                    long preReadMs = preReadTuner.getPreReadMs();
+                    int readCount = 0;
 
                     Connection conn = null;
                     Boolean connAutoCommit = null;
@@ -69,25 +112,82 @@ public class JobScheduleHelper {
                         connAutoCommit = conn.getAutoCommit();
                         conn.setAutoCommit(false);
 
-                        preparedStatement = conn.prepareStatement(  "select * from xxl_job_lock where lock_name = 'schedule_lock' for update" );
-                        preparedStatement.execute();
+                        // schedule partition: null, use global schedule_lock; not null, lock owned partitions and scan their buckets only
+                        List<Integer> partitions = null;
+                        List<Integer> buckets = null;
+                        if (JobSchedulePartitionHelper.getInstance().isPartitioned()) {
+                            buckets = JobSchedulePartitionHelper.getInstance().getOwnedBuckets();
+                            partitions = JobSchedulePartitionHelper.getInstance().getOwnedPartitions();
+                        }
+
+                        if (partitions == null) {
+                            preparedStatement = conn.prepareStatement(  "select * from xxl_job_lock where lock_name = 'schedule_lock' for update" );
+                            preparedStatement.execute();
+                        } else if (partitions.size() > 0) {
+                            StringBuilder lockSql = new StringBuilder("select * from xxl_job_lock where lock_name in (");
+                            for (int i = 0; i < partitions.size(); i++) {
+                                lockSql.append(i>0?",?":"?");
+                            }
+                            lockSql.append(") order by lock_name for update");
+                            preparedStatement = conn.prepareStatement( lockSql.toString() );
+                            for (int i = 0; i < partitions.size(); i++) {
+                                preparedStatement.setString(i+1, JobSchedulePartitionHelper.PARTITION_LOCK_PREFIX + partitions.get(i));
+                            }
+                            preparedStatement.execute();
+                        }
 
                         // tx start
 
                         // 1、pre read
                         long nowTime = System.currentTimeMillis();
-                        List<XxlJobInfo> scheduleList = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleJobQuery(nowTime + PRE_READ_MS, preReadCount);
+                        List<XxlJobInfo> scheduleList = null;
+                        boolean indexRead = partitions == null && XxlJobAdminConfig.getAdminConfig().isScheduleIndexEnabled();
+                        if (indexRead) {
+                            // from index, leader only; due job re-checked with db
+                            if (renewLeaderLease()) {
+                                reconcileScheduleIndex(nowTime);
+                                syncScheduleIndex(nowTime);
+                                scheduleList = loadScheduleIndex(scheduleIndex.pollDue(nowTime + preReadMs, preReadCount), nowTime + preReadMs);
+                            }
+                        } else if (partitions == null || partitions.size() > 0) {
+                            scheduleList = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleJobQuery(nowTime + preReadMs, preReadCount, buckets);
+                        }
+
+                        // replay orphan time-ring checkpoint, left by crashed admin
+                        if (ringCheckpoint != null && (partitions == null || partitions.size() > 0)) {
+                            replayRingCheckpoint(nowTime, buckets);
+                        }
+
                         if (scheduleList!=null && scheduleList.size()>0) {
+                            readCount = scheduleList.size();
+
+                            // stage trigger info, only changed one will be updated
+                            long[] stageTriggerInfo = new long[scheduleList.size() * 3];
+                            for (int i = 0; i < scheduleList.size(); i++) {
+                                stageTriggerInfo[i*3] = scheduleList.get(i).getTriggerLastTime();
+                                stageTriggerInfo[i*3+1] = scheduleList.get(i).getTriggerNextTime();
+                                stageTriggerInfo[i*3+2] = scheduleList.get(i).getTriggerStatus();
+                            }
+
                             // 2、push time-ring
+                            List<XxlJobRingCheckpoint> checkpointList = ringCheckpoint!=null?new ArrayList<XxlJobRingCheckpoint>():null;
                             for (XxlJobInfo jobInfo: scheduleList) {
 
                                 // time-ring jump
                                 if (nowTime > jobInfo.getTriggerNextTime() + PRE_READ_MS) {
-                                    // 2.1、trigger-expire > 5s：pass && make next-trigger-time
-                                    logger.warn(">>>>>>>>>>> xxl-job, schedule misfire, jobId = " + jobInfo.getId());
+                                    // 2.1、trigger-expire > 5s：misfire strategy && make next-trigger-time
+                                    int misfireCount = misfireCount(jobInfo, nowTime);
+                                    logger.warn(">>>>>>>>>>> xxl-job, schedule misfire, jobId = " + jobInfo.getId() + ", catch-up count = " + misfireCount);
 
-                                    // fresh next
-                                    refreshNextValidTime(jobInfo, new Date());
+                                    // 1、catch-up trigger, rate limited
+                                    JobMisfireHelper.getInstance().submit(jobInfo.getId(), misfireCount);
+
+                                    // 2、fresh next
+                                    if (misfireCount > 0) {
+                                        refreshNextFireTime(jobInfo, System.currentTimeMillis());
+                                    } else {
+                                        refreshNextValidTime(jobInfo, new Date());
+                                    }
 
                                 } else if (nowTime > jobInfo.getTriggerNextTime()) {
                                     // 2.2、trigger-expire < 5s：direct-trigger && make next-trigger-time
@@ -97,41 +197,49 @@ public class JobScheduleHelper {
                                     logger.debug(">>>>>>>>>>> xxl-job, schedule push trigger : jobId = " + jobInfo.getId() );
 
                                     // 2、fresh next
-                                    refreshNextValidTime(jobInfo, new Date());
-
-                                    // next-trigger-time in 5s, pre-read again
-                                    if (jobInfo.getTriggerStatus()==1 && nowTime + PRE_READ_MS > jobInfo.getTriggerNextTime()) {
-
-                                        // 1、make ring second
-                                        int ringSecond = (int)((jobInfo.getTriggerNextTime()/1000)%60);
-
-                                        // 2、push time ring
-                                        pushTimeRing(ringSecond, jobInfo.getId());
-
-                                        // 3、fresh next
-                                        refreshNextValidTime(jobInfo, new Date(jobInfo.getTriggerNextTime()));
+                                    refreshNextFireTime(jobInfo, System.currentTimeMillis());
 
+                                    // next-trigger-time in pre-read window, pre-read again
+                                    if (jobInfo.getTriggerStatus()==1 && nowTime + preReadMs > jobInfo.getTriggerNextTime()) {
+                                        pushTimeRingInWindow(jobInfo, nowTime + preReadMs, checkpointList);
                                     }
 
                                 } else {
                                     // 2.3、trigger-pre-read：time-ring trigger && make next-trigger-time
+                                    pushTimeRingInWindow(jobInfo, nowTime + preReadMs, checkpointList);
+                                }
 
-                                    // 1、make ring second
-                                    int ringSecond = (int)((jobInfo.getTriggerNextTime()/1000)%60);
-
-                                    // 2、push time ring
-                                    pushTimeRing(ringSecond, jobInfo.getId());
-
-                                    // 3、fresh next
-                                    refreshNextValidTime(jobInfo, new Date(jobInfo.getTriggerNextTime()));
+                            }
 
+                            // 3、update trigger info, batch; conditional on read state, job stopped or edited meanwhile not overwritten
+                            List<XxlJobInfo> updateList = new ArrayList<XxlJobInfo>();
+                            List<Long> expectNextTimes = new ArrayList<Long>();
+                            for (int i = 0; i < scheduleList.size(); i++) {
+                                XxlJobInfo jobInfo = scheduleList.get(i);
+                                if (jobInfo.getTriggerLastTime() != stageTriggerInfo[i*3]
+                                        || jobInfo.getTriggerNextTime() != stageTriggerInfo[i*3+1]
+                                        || jobInfo.getTriggerStatus() != stageTriggerInfo[i*3+2]) {
+                                    updateList.add(jobInfo);
+                                    expectNextTimes.add(stageTriggerInfo[i*3+1]);
                                 }
-
+                            }
+                            int updateCount = 0;
+                            for (int from = 0; from < updateList.size(); from += SCHEDULE_UPDATE_BATCH_SIZE) {
+                                int to = Math.min(from + SCHEDULE_UPDATE_BATCH_SIZE, updateList.size());
+                                updateCount += XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleUpdateBatch(updateList.subList(from, to), expectNextTimes.subList(from, to));
+                            }
+                            if (indexRead && updateCount < updateList.size()) {
+                                scheduleIndexReconcileTime = 0;     // changed meanwhile, reconcile index on next scan
                             }
 
-                            // 3、update trigger info
-                            for (XxlJobInfo jobInfo: scheduleList) {
-                                XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleUpdate(jobInfo);
+                            // 4、save time-ring checkpoint, before tx committed; fail not block trigger info advanced
+                            saveRingCheckpoint(checkpointList);
+
+                            // 5、re-offer index
+                            if (indexRead) {
+                                for (XxlJobInfo jobInfo: scheduleList) {
+                                    scheduleIndex.offer(jobInfo);
+                                }
                             }
 
                         } else {
@@ -185,12 +293,26 @@ public class JobScheduleHelper {
                     }
                     long cost = System.currentTimeMillis()-start;
 
+                    // ack fired time-ring checkpoint
+                    ackRingCheckpoint();
+
+                    // tune pre-read count and window
+                    scanCost = cost;
+                    scanReadCount = readCount;
+                    try {
+                        JobTriggerPoolHelper triggerPool = JobTriggerPoolHelper.getInstance();
+                        preReadTuner.tune(triggerPool.getTriggerCostAvg(), triggerPool.getQueueSize(), triggerPool.getQueueCapacity(), triggerPool.getPoolMax(), cost, readCount);
+                    } catch (Exception e) {
+                        if (!scheduleThreadToStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
 
                     // Wait seconds, align second
                     if (cost < 1000) {  // scan-overtime, not wait
                         try {
                             // pre-read period: success > scan each second; fail > skip this period;
-                            TimeUnit.MILLISECONDS.sleep((preReadSuc?1000:PRE_READ_MS) - System.currentTimeMillis()%1000);
+                            TimeUnit.MILLISECONDS.sleep((preReadSuc?1000:preReadMs) - System.currentTimeMillis()%1000);
                         } catch (InterruptedException e) {
                             if (!scheduleThreadToStop) {
                                 logger.error(e.getMessage(), e);
@@ -213,9 +335,11 @@ public class JobScheduleHelper {
             @Override
             public void run() {
 
-                // align second
+                long tickMs = ringData.getTickMs();
+
+                // align tick
                 try {
-                    TimeUnit.MILLISECONDS.sleep(1000 - System.currentTimeMillis()%1000 );
+                    TimeUnit.MILLISECONDS.sleep(tickMs - System.currentTimeMillis()%tickMs );
                 } catch (InterruptedException e) {
                     if (!ringThreadToStop) {
                         logger.error(e.getMessage(), e);
@@ -225,36 +349,31 @@ public class JobScheduleHelper {
                 while (!ringThreadToStop) {
 
                     try {
-                        // second data
-                        List<Integer> ringItemData = new ArrayList<>();
-                        int nowSecond = Calendar.getInstance().get(Calendar.SECOND);   // 避免处理耗时太长，跨过刻度，向前校验一个刻度；
-                        for (int i = 0; i < 2; i++) {
-                            List<Integer> tmpData = ringData.remove( (nowSecond+60-i)%60 );
-                            if (tmpData != null) {
-                                ringItemData.addAll(tmpData);
-                            }
-                        }
+                        // tick data (avoid tick skipped by long process, wheel advance all passed ticks)
+                        long nowTime = System.currentTimeMillis();
+                        List<TimingWheel.Entry> ringItemData = ringData.advance(nowTime);
 
                         // ring trigger
-                        logger.debug(">>>>>>>>>>> xxl-job, time-ring beat : " + nowSecond + " = " + Arrays.asList(ringItemData) );
                         if (ringItemData.size() > 0) {
+                            logger.debug(">>>>>>>>>>> xxl-job, time-ring beat : " + ringItemData);
                             // do trigger
-                            for (int jobId: ringItemData) {
+                            for (TimingWheel.Entry ringItem: ringItemData) {
                                 // do trigger
-                                JobTriggerPoolHelper.trigger(jobId, TriggerTypeEnum.CRON, -1, null, null);
+                                JobTriggerPoolHelper.trigger(ringItem.getJobId(), TriggerTypeEnum.CRON, -1, null, null);
                             }
                             // clear
                             ringItemData.clear();
                         }
+                        ringFiredTime = nowTime / tickMs * tickMs;
                     } catch (Exception e) {
                         if (!ringThreadToStop) {
                             logger.error(">>>>>>>>>>> xxl-job, JobScheduleHelper#ringThread error:{}", e);
                         }
                     }
 
-                    // next second, align second
+                    // next tick, align tick
                     try {
-                        TimeUnit.MILLISECONDS.sleep(1000 - System.currentTimeMillis()%1000);
+                        TimeUnit.MILLISECONDS.sleep(tickMs - System.currentTimeMillis()%tickMs);
                     } catch (InterruptedException e) {
                         if (!ringThreadToStop) {
                             logger.error(e.getMessage(), e);
@@ -269,8 +388,322 @@ public class JobScheduleHelper {
         ringThread.start();
     }
 
+    /**
+     * renew leader lease, must be called while holding schedule_lock
+     *
+     * @return  true if this admin is leader
+     */
+    private boolean renewLeaderLease() {
+        String adminId = XxlJobScheduler.getAdminId();
+        String registryGroup = RegistryConfig.RegistType.ADMIN.name();
+        Date nowTime = new Date();
+
+        // renew
+        boolean leader = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryUpdate(registryGroup, LEADER_REGISTRY_KEY, adminId, nowTime) > 0;
+        if (!leader) {
+            // take over, if lease absent or expired
+            List<XxlJobRegistry> leaseList = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().findByKey(registryGroup, LEADER_REGISTRY_KEY);
+            boolean expired = true;
+            if (leaseList != null) {
+                for (XxlJobRegistry lease: leaseList) {
+                    if (lease.getUpdateTime()!=null && nowTime.getTime() - lease.getUpdateTime().getTime() < LEADER_LEASE_TIMEOUT * 1000L) {
+                        expired = false;
+                        break;
+                    }
+                }
+            }
+            if (expired) {
+                if (leaseList != null) {
+                    for (XxlJobRegistry lease: leaseList) {
+                        XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryDelete(registryGroup, LEADER_REGISTRY_KEY, lease.getRegistryValue());
+                    }
+                }
+                XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registrySave(registryGroup, LEADER_REGISTRY_KEY, adminId, nowTime);
+                leader = true;
+                logger.info(">>>>>>>>>>> xxl-job, schedule leader lease taken over, admin:{}", adminId);
+            }
+        }
+
+        // step down, drop index; become leader, load index
+        if (!leader && scheduleLeader) {
+            logger.info(">>>>>>>>>>> xxl-job, schedule leader lease lost, admin:{}", adminId);
+            scheduleIndex.clear();
+        }
+        if (leader && !scheduleLeader) {
+            scheduleIndexReconcileTime = 0;
+        }
+        scheduleLeader = leader;
+        return leader;
+    }
+
+    /**
+     * reconcile schedule index with db, when become leader or each reconcile interval
+     */
+    private void reconcileScheduleIndex(long nowTime) {
+        if (nowTime - scheduleIndexReconcileTime < XxlJobAdminConfig.getAdminConfig().getScheduleIndexReconcileSeconds() * 1000L) {
+            return;
+        }
+        long startModSeq = scheduleIndex.getModSeq();
+        List<XxlJobInfo> runningList = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleIndexQuery();
+        scheduleIndex.reconcile(runningList, startModSeq);
+        scheduleIndexReconcileTime = nowTime;
+        scheduleIndexSyncTime = nowTime;
+        logger.debug(">>>>>>>>>>> xxl-job, schedule index reconcile, size:{}", scheduleIndex.size());
+    }
+
+    /**
+     * sync job changed since last sync into schedule index, by update_time; job added/updated/started/stopped on other admin (notified on local admin only)
+     */
+    private void syncScheduleIndex(long nowTime) {
+        List<XxlJobInfo> updateList = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleIndexUpdateQuery(new Date(scheduleIndexSyncTime - SCHEDULE_INDEX_SYNC_OVERLAP_MS));
+        for (XxlJobInfo jobInfo: updateList) {
+            scheduleIndex.refresh(jobInfo);
+        }
+        scheduleIndexSyncTime = nowTime;
+    }
+
+    /**
+     * load polled job from db, must be called while holding schedule lock; index is only a hint, db row fired
+     *
+     *  - job removed or stopped: dropped
+     *  - trigger_next_time moved out of pre-read window: re-offered, not fired
+     */
+    private List<XxlJobInfo> loadScheduleIndex(List<XxlJobInfo> polledList, long maxNextTime) {
+        if (polledList.isEmpty()) {
+            return polledList;
+        }
+        List<Integer> ids = new ArrayList<Integer>();
+        for (XxlJobInfo jobInfo: polledList) {
+            ids.add(jobInfo.getId());
+        }
+
+        List<XxlJobInfo> dueList = new ArrayList<XxlJobInfo>();
+        for (XxlJobInfo jobInfo: XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleIndexLoad(ids)) {
+            if (jobInfo.getTriggerNextTime() <= maxNextTime) {
+                dueList.add(jobInfo);
+            } else {
+                scheduleIndex.offer(jobInfo);
+            }
+        }
+        return dueList;
+    }
+
+    /**
+     * job added/updated/started, refresh schedule index
+     */
+    public void refreshScheduleIndex(XxlJobInfo jobInfo) {
+        if (scheduleLeader) {
+            scheduleIndex.refresh(jobInfo);
+        }
+    }
+
+    /**
+     * job stopped/removed, remove from schedule index
+     */
+    public void removeScheduleIndex(int jobId) {
+        if (scheduleLeader) {
+            scheduleIndex.remove(jobId);
+        }
+    }
+
+    /**
+     * schedule metrics: adaptive pre-read and trigger pool load
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<String, Object>();
+        PreReadTuner tuner = preReadTuner;
+        if (tuner != null) {
+            metrics.put("preReadCount", tuner.getPreReadCount());
+            metrics.put("preReadMs", tuner.getPreReadMs());
+            metrics.put("triggerCapacity", tuner.getTriggerCapacity());
+        }
+        metrics.put("scanCost", scanCost);
+        metrics.put("scanReadCount", scanReadCount);
+        metrics.put("ringSize", ringData != null ? ringData.size() : 0);
+        metrics.put("misfirePendingCount", JobMisfireHelper.getInstance().getPendingCount());
+
+        JobTriggerPoolHelper triggerPool = JobTriggerPoolHelper.getInstance();
+        metrics.put("triggerCostAvg", triggerPool.getTriggerCostAvg());
+        metrics.put("triggerQueueSize", triggerPool.getQueueSize());
+        metrics.put("triggerActiveCount", triggerPool.getActiveCount());
+        metrics.put("triggerGroups", triggerPool.getGroupMetrics());
+        metrics.put("slowJobCount", triggerPool.getSlowJobCount());
+        metrics.put("slowJobs", triggerPool.getSlowJobs());
+
+        JobTriggerSpillHelper triggerSpill = JobTriggerSpillHelper.getInstance();
+        metrics.put("spillDepth", triggerSpill.getSpillDepth());
+        metrics.put("spillCount", triggerSpill.getSpillCount());
+        metrics.put("spillDrainCount", triggerSpill.getDrainCount());
+        metrics.put("spillDelayAvg", triggerSpill.getSpillDelayAvg());
+        metrics.put("spillDelayMax", triggerSpill.getSpillDelayMax());
+
+        JobTriggerAsyncHelper triggerAsync = JobTriggerAsyncHelper.getInstance();
+        metrics.put("triggerInFlight", triggerAsync.getInFlightCount());
+        metrics.put("triggerCompletionQueueSize", triggerAsync.getCompletionQueueSize());
+        metrics.put("shardingActiveCount", JobTriggerShardingHelper.getInstance().getActiveCount());
+
+        JobTriggerBatchHelper triggerBatch = JobTriggerBatchHelper.getInstance();
+        metrics.put("batchPendingCount", triggerBatch.getPendingCount());
+        metrics.put("batchCount", triggerBatch.getBatchCount());
+        metrics.put("batchTriggerCount", triggerBatch.getBatchTriggerCount());
+
+        metrics.put("glueAckedCount", JobGlueSourceHelper.getInstance().getAckedCount());
+        metrics.put("glueOmitCount", JobGlueSourceHelper.getInstance().getOmitCount());
+
+        metrics.put("callbackPendingCount", JobCallbackPendingHelper.getInstance().getPendingCount());
+
+        JobLogWriteHelper logWrite = JobLogWriteHelper.getInstance();
+        metrics.put("logWriteQueueSize", logWrite.getQueueSize());
+        metrics.put("logFlushCount", logWrite.getFlushCount());
+        metrics.put("logFlushRowCount", logWrite.getFlushRowCount());
+        metrics.put("logDirectRowCount", logWrite.getDirectRowCount());
+        metrics.put("logFlushCostAvg", logWrite.getFlushCostAvg());
+        metrics.put("logFlushCostMax", logWrite.getFlushCostMax());
+
+        JobInfoCacheHelper jobInfoCache = JobInfoCacheHelper.getInstance();
+        metrics.put("triggerCacheSize", jobInfoCache.getJobInfoCount());
+        metrics.put("triggerCacheHit", jobInfoCache.getHitCount());
+        metrics.put("triggerCacheMiss", jobInfoCache.getMissCount());
+
+        JobTriggerThrottleHelper triggerThrottle = JobTriggerThrottleHelper.getInstance();
+        metrics.put("throttleCount", triggerThrottle.getThrottleCount());
+        metrics.put("throttleAddressCount", triggerThrottle.getThrottleAddressCount());
+        metrics.put("throttleJobCount", triggerThrottle.getThrottleJobCount());
+        metrics.put("throttlePending", triggerThrottle.getThrottlePending());
+        metrics.put("throttleDelayAvg", triggerThrottle.getThrottleDelayAvg());
+        metrics.put("throttleDelayMax", triggerThrottle.getThrottleDelayMax());
+        return metrics;
+    }
+
+    /**
+     * catch-up trigger count of misfired job, by misfire strategy
+     */
+    private int misfireCount(XxlJobInfo jobInfo, long nowTime) throws ParseException {
+        MisfireStrategyEnum misfireStrategy = MisfireStrategyEnum.match(jobInfo.getMisfireStrategy(), MisfireStrategyEnum.DO_NOTHING);
+        if (misfireStrategy == MisfireStrategyEnum.FIRE_ONCE_NOW) {
+            return 1;
+        } else if (misfireStrategy == MisfireStrategyEnum.FIRE_ALL_MISSED) {
+            if (ScheduleTypeEnum.FIX_DELAY == ScheduleTypeEnum.match(jobInfo.getScheduleType(), ScheduleTypeEnum.CRON)) {
+                return 1;   // next one waits for finish, only one missed
+            }
+
+            // count missed fire time, trigger_next_time included
+            int maxCount = XxlJobAdminConfig.getAdminConfig().getMisfireMaxCount();
+            int count = 1;
+            Date missedTime = new Date(jobInfo.getTriggerNextTime());
+            while (count < maxCount) {
+                missedTime = generateNextValidTime(jobInfo, missedTime);
+                if (missedTime == null || missedTime.getTime() > nowTime) {
+                    break;
+                }
+                count++;
+            }
+            return count;
+        }
+        return 0;
+    }
+
+    /**
+     * next valid time after fromTime, by schedule type
+     *
+     * @return  null if never fire again
+     */
+    public static Date generateNextValidTime(XxlJobInfo jobInfo, Date fromTime) throws ParseException {
+        ScheduleTypeEnum scheduleType = ScheduleTypeEnum.match(jobInfo.getScheduleType(), ScheduleTypeEnum.CRON);
+        if (scheduleType == ScheduleTypeEnum.FIX_RATE) {
+            // first fire time after fromTime, on the grid of trigger_next_time
+            long interval = jobInfo.getScheduleInterval();
+            if (interval < 1) {
+                return null;
+            }
+            long base = jobInfo.getTriggerNextTime() > 0 ? jobInfo.getTriggerNextTime() : fromTime.getTime();
+            long delta = fromTime.getTime() - base;
+            long steps = (delta >= 0 ? delta / interval : -((-delta + interval - 1) / interval)) + 1;     // floor(delta / interval) + 1
+            return new Date(base + steps * interval);
+        } else if (scheduleType == ScheduleTypeEnum.FIX_DELAY) {
+            long interval = jobInfo.getScheduleInterval();
+            if (interval < 1) {
+                return null;
+            }
+            return new Date(fromTime.getTime() + interval);
+        }
+        return CronExpressionCache.get(jobInfo.getJobCron()).getNextValidTimeAfter(fromTime);
+    }
+
+    /**
+     * push all fire time in pre-read window into time-ring, fix delay job only once (next one waits for finish)
+     */
+    private void pushTimeRingInWindow(XxlJobInfo jobInfo, long maxTime, List<XxlJobRingCheckpoint> checkpointList) throws ParseException {
+        int count = 0;
+        do {
+            // 1、push time ring
+            pushTimeRing(jobInfo.getTriggerNextTime(), jobInfo.getId(), checkpointList);
+
+            // 2、fresh next
+            refreshNextFireTime(jobInfo, jobInfo.getTriggerNextTime());
+            count++;
+        } while (jobInfo.getTriggerStatus()==1 && jobInfo.getTriggerNextTime() < maxTime && count < MAX_RING_PUSH_PER_JOB);
+    }
+
+    /**
+     * fresh next after fired; fix delay job waits for finish callback, guarded by timeout
+     */
+    private void refreshNextFireTime(XxlJobInfo jobInfo, long firedTime) throws ParseException {
+        if (ScheduleTypeEnum.FIX_DELAY == ScheduleTypeEnum.match(jobInfo.getScheduleType(), ScheduleTypeEnum.CRON)) {
+            jobInfo.setTriggerLastTime(jobInfo.getTriggerNextTime());
+            jobInfo.setTriggerNextTime(firedTime + fixDelayTimeout(jobInfo));
+            return;
+        }
+        refreshNextValidTime(jobInfo, new Date(firedTime));
+    }
+
+    private long fixDelayTimeout(XxlJobInfo jobInfo) {
+        long executorTimeout = jobInfo.getExecutorTimeout() > 0 ? jobInfo.getExecutorTimeout() * 1000L : FIX_DELAY_TIMEOUT_MS;
+        return jobInfo.getScheduleInterval() + executorTimeout;
+    }
+
+    /**
+     * fix delay job finished (callback), schedule next fire after interval
+     *
+     *  - next fire in pre-read window: push into time-ring directly, trigger_next_time set as timeout guard
+     *  - else: set trigger_next_time, picked up by schedule thread
+     *  - conditional update, only the first finish callback of a fire takes effect
+     *  - called by each callback: schedule type checked on trigger cache first, callback of other schedule type reads no db
+     */
+    public void fixDelayFinished(int jobId, long finishTime) {
+        XxlJobInfo cachedJobInfo = JobInfoCacheHelper.getInstance().peekJobInfo(jobId);
+        if (cachedJobInfo != null
+                && ScheduleTypeEnum.FIX_DELAY != ScheduleTypeEnum.match(cachedJobInfo.getScheduleType(), ScheduleTypeEnum.CRON)) {
+            return;
+        }
+
+        // schedule columns of running fix delay job only
+        XxlJobInfo jobInfo = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().fixDelayLoad(jobId);
+        if (jobInfo == null || jobInfo.getScheduleInterval() < 1) {
+            return;
+        }
+
+        long fireTime = finishTime + jobInfo.getScheduleInterval();
+        boolean inWindow = fireTime < System.currentTimeMillis() + PRE_READ_MS;
+        long triggerLastTime = inWindow ? fireTime : jobInfo.getTriggerLastTime();
+        long triggerNextTime = inWindow ? fireTime + fixDelayTimeout(jobInfo) : fireTime;
+
+        int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().fixDelayUpdate(jobId, fireTime, triggerLastTime, triggerNextTime, new Date());
+        if (ret < 1) {
+            return;
+        }
+        if (inWindow) {
+            List<XxlJobRingCheckpoint> checkpointList = ringCheckpoint!=null?new ArrayList<XxlJobRingCheckpoint>():null;
+            pushTimeRing(fireTime, jobId, checkpointList);
+            saveRingCheckpoint(checkpointList);
+        }
+        jobInfo.setTriggerLastTime(triggerLastTime);
+        jobInfo.setTriggerNextTime(triggerNextTime);
+        refreshScheduleIndex(jobInfo);
+    }
+
     private void refreshNextValidTime(XxlJobInfo jobInfo, Date fromTime) throws ParseException {
-        Date nextValidTime = new CronExpression(jobInfo.getJobCron()).getNextValidTimeAfter(fromTime);
+        Date nextValidTime = generateNextValidTime(jobInfo, fromTime);
         if (nextValidTime != null) {
             jobInfo.setTriggerLastTime(jobInfo.getTriggerNextTime());
             jobInfo.setTriggerNextTime(nextValidTime.getTime());
@@ -281,16 +714,62 @@ public class JobScheduleHelper {
         }
     }
 
-    private void pushTimeRing(int ringSecond, int jobId){
+    private void pushTimeRing(long triggerTime, int jobId, List<XxlJobRingCheckpoint> checkpointList){
         // push async ring
-        List<Integer> ringItemData = ringData.get(ringSecond);
-        if (ringItemData == null) {
-            ringItemData = new ArrayList<Integer>();
-            ringData.put(ringSecond, ringItemData);
+        ringData.add(jobId, triggerTime);
+
+        // max pushed, and checkpoint
+        long maxTime = ringMaxTime.get();
+        while (maxTime < triggerTime && !ringMaxTime.compareAndSet(maxTime, triggerTime)) {
+            maxTime = ringMaxTime.get();
+        }
+        if (checkpointList != null) {
+            checkpointList.add(new XxlJobRingCheckpoint(ringCheckpoint.getAdminId(), jobId, triggerTime));
         }
-        ringItemData.add(jobId);
 
-        logger.debug(">>>>>>>>>>> xxl-job, schedule push time-ring : " + ringSecond + " = " + Arrays.asList(ringItemData) );
+        logger.debug(">>>>>>>>>>> xxl-job, schedule push time-ring : " + jobId + "@" + triggerTime );
+    }
+
+    /**
+     * replay orphan checkpoint, must be called while holding schedule lock; dedup by (jobId, trigger time): claimed once, fired only if lost
+     */
+    private void replayRingCheckpoint(long nowTime, List<Integer> buckets) {
+        List<XxlJobRingCheckpoint> claimedList = ringCheckpoint.claimExpired(nowTime, buckets);
+        for (XxlJobRingCheckpoint checkpoint: claimedList) {
+            XxlJobInfo jobInfo = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(checkpoint.getJobId());
+            if (RingCheckpoint.isLost(jobInfo, checkpoint)) {
+                JobTriggerPoolHelper.trigger(checkpoint.getJobId(), TriggerTypeEnum.MISFIRE, -1, null, null);
+                logger.warn(">>>>>>>>>>> xxl-job, time-ring checkpoint replay, jobId = {}, triggerTime = {}, admin = {}",
+                        checkpoint.getJobId(), checkpoint.getTriggerTime(), checkpoint.getAdminId());
+            }
+        }
+    }
+
+    private void saveRingCheckpoint(List<XxlJobRingCheckpoint> checkpointList) {
+        if (ringCheckpoint == null) {
+            return;
+        }
+        try {
+            ringCheckpoint.save(checkpointList);
+        } catch (Exception e) {
+            logger.error(">>>>>>>>>>> xxl-job, time-ring checkpoint save error:{}", e);
+        }
+    }
+
+    /**
+     * ack fired checkpoint once each scan; fired but not acked when admin crashed is replayed again (at-least-once)
+     */
+    private void ackRingCheckpoint() {
+        if (ringCheckpoint == null) {
+            return;
+        }
+        try {
+            ringCheckpoint.ack(ringFiredTime);
+        } catch (Exception e) {
+            if (!scheduleThreadToStop) {
+                logger.error(">>>>>>>>>>> xxl-job, time-ring checkpoint ack error:{}", e);
+            }
+        }
     }
 
     public void toStop(){
@@ -312,22 +791,25 @@ public class JobScheduleHelper {
             }
         }
 
-        // if has ring data
-        boolean hasRingData = false;
-        if (!ringData.isEmpty()) {
-            for (int second : ringData.keySet()) {
-                List<Integer> tmpData = ringData.get(second);
-                if (tmpData!=null && tmpData.size()>0) {
-                    hasRingData = true;
-                    break;
-                }
+        // release leader lease, other admin take over at once
+        if (scheduleLeader) {
+            scheduleLeader = false;
+            scheduleIndex.clear();
+            try {
+                XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryDelete(RegistryConfig.RegistType.ADMIN.name(), LEADER_REGISTRY_KEY, XxlJobScheduler.getAdminId());
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
             }
         }
-        if (hasRingData) {
+
+        // drain ring: no more pre-read, wait until the last pushed trigger fired (not a fixed sleep)
+        long drainDeadline = ringMaxTime.get() + ringData.getTickMs() * 2 + 1000;
+        while (!ringData.isEmpty() && System.currentTimeMillis() < drainDeadline) {
             try {
-                TimeUnit.SECONDS.sleep(8);
+                TimeUnit.MILLISECONDS.sleep(ringData.getTickMs());
             } catch (InterruptedException e) {
                 logger.error(e.getMessage(), e);
+                break;
             }
         }
 
@@ -348,6 +830,12 @@ public class JobScheduleHelper {
             }
         }
 
+        // ack fired, left (not drained) ones are replayed by other admin from checkpoint
+        ackRingCheckpoint();
+        if (!ringData.isEmpty()) {
+            logger.warn(">>>>>>>>>>> xxl-job, JobScheduleHelper stop, time-ring not drained, left size:{}", ringData.size());
+        }
+
         logger.info(">>>>>>>>>>> xxl-job, JobScheduleHelper stop");
     }
 
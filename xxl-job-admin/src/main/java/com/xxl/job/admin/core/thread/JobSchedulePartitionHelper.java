@@ -0,0 +1,211 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobRegistry;
+import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.core.enums.RegistryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * schedule partition helper
+ *
+ *  - job stored in bucket "id % BUCKET_COUNT" (indexed column schedule_bucket), bucket b in partition "b % N", each partition guarded by lock row "schedule_lock_{partition}"
+ *  - scan of owned partitions filters on owned bucket list, index range of each bucket
+ *  - each admin beat in registry group "ADMIN", online admin list sorted, partition p owned by admin[p % size]
+ *  - admin join or leave, partitions rebalance at next beat; lock row keeps partition exclusive while views differ
+ *
+ * @author xuxueli 2020-01-25
+ */
+public class JobSchedulePartitionHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobSchedulePartitionHelper.class);
+
+    private static JobSchedulePartitionHelper instance = new JobSchedulePartitionHelper();
+    public static JobSchedulePartitionHelper getInstance(){
+        return instance;
+    }
+
+    public static final String ADMIN_REGISTRY_KEY = "xxl-job-admin-schedule";
+    public static final String PARTITION_LOCK_PREFIX = "schedule_lock_";
+    public static final int BUCKET_COUNT = 1024;    // fixed, partition count up to it
+
+    private static final int BEAT_TIMEOUT = 10;
+    private static final int DEAD_TIMEOUT = BEAT_TIMEOUT * 3;
+
+    private Thread beatThread;
+    private volatile boolean toStop = false;
+
+    private String adminId;
+    private volatile List<Integer> ownedPartitions = Collections.emptyList();
+    private volatile List<Integer> ownedBuckets = Collections.emptyList();
+
+    public void start(){
+        final int partitionCount = XxlJobAdminConfig.getAdminConfig().getSchedulePartitionCount();
+        if (partitionCount < 1) {
+            logger.info(">>>>>>>>>>> xxl-job, schedule partition disabled, use global schedule_lock.");
+            return;
+        }
+
+        adminId = XxlJobScheduler.getAdminId();
+
+        beatThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                // init partition lock
+                try {
+                    initPartitionLock(partitionCount);
+                } catch (Exception e) {
+                    logger.error(">>>>>>>>>>> xxl-job, init schedule partition lock error:{}", e);
+                }
+
+                while (!toStop) {
+                    try {
+                        // beat
+                        Date nowTime = new Date();
+                        int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryUpdate(RegistryConfig.RegistType.ADMIN.name(), ADMIN_REGISTRY_KEY, adminId, nowTime);
+                        if (ret < 1) {
+                            XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registrySave(RegistryConfig.RegistType.ADMIN.name(), ADMIN_REGISTRY_KEY, adminId, nowTime);
+                        }
+
+                        // online admin
+                        List<String> adminList = new ArrayList<String>();
+                        List<XxlJobRegistry> list = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().findAll(DEAD_TIMEOUT, nowTime);
+                        if (list != null) {
+                            for (XxlJobRegistry item: list) {
+                                if (RegistryConfig.RegistType.ADMIN.name().equals(item.getRegistryGroup())
+                                        && ADMIN_REGISTRY_KEY.equals(item.getRegistryKey())
+                                        && !adminList.contains(item.getRegistryValue())) {
+                                    adminList.add(item.getRegistryValue());
+                                }
+                            }
+                        }
+                        Collections.sort(adminList);
+
+                        // rebalance
+                        List<Integer> partitions = new ArrayList<Integer>();
+                        int index = adminList.indexOf(adminId);
+                        if (index > -1) {
+                            for (int partition = index; partition < partitionCount; partition += adminList.size()) {
+                                partitions.add(partition);
+                            }
+                        }
+                        if (!partitions.equals(ownedPartitions)) {
+                            logger.info(">>>>>>>>>>> xxl-job, schedule partition rebalance, admin:{}, online admin:{}, partitions:{}", adminId, adminList, partitions);
+                            ownedBuckets = Collections.unmodifiableList(buckets(partitionCount, partitions));
+                            ownedPartitions = Collections.unmodifiableList(partitions);
+                        }
+                    } catch (Exception e) {
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> xxl-job, schedule partition beat thread error:{}", e);
+                        }
+                    }
+
+                    try {
+                        TimeUnit.SECONDS.sleep(BEAT_TIMEOUT);
+                    } catch (InterruptedException e) {
+                        if (!toStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+                }
+
+                // leave, other admin take over at next beat
+                ownedPartitions = Collections.emptyList();
+                ownedBuckets = Collections.emptyList();
+                try {
+                    XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryDelete(RegistryConfig.RegistType.ADMIN.name(), ADMIN_REGISTRY_KEY, adminId);
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+                logger.info(">>>>>>>>>>> xxl-job, schedule partition beat thread stop");
+            }
+        });
+        beatThread.setDaemon(true);
+        beatThread.setName("xxl-job, admin JobSchedulePartitionHelper");
+        beatThread.start();
+    }
+
+    public void toStop(){
+        if (beatThread == null) {
+            return;
+        }
+        toStop = true;
+        // interrupt and wait
+        beatThread.interrupt();
+        try {
+            beatThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private void initPartitionLock(int partitionCount) throws SQLException {
+        Connection conn = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            conn = XxlJobAdminConfig.getAdminConfig().getDataSource().getConnection();
+            preparedStatement = conn.prepareStatement("insert ignore into xxl_job_lock ( lock_name) values ( ? )");
+            for (int partition = 0; partition < partitionCount; partition++) {
+                preparedStatement.setString(1, PARTITION_LOCK_PREFIX + partition);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        } finally {
+            if (preparedStatement != null) {
+                preparedStatement.close();
+            }
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * bucket of job, stored in column schedule_bucket
+     */
+    public static int bucket(int jobId) {
+        return jobId % BUCKET_COUNT;
+    }
+
+    /**
+     * buckets of partitions
+     */
+    public static List<Integer> buckets(int partitionCount, List<Integer> partitions) {
+        List<Integer> buckets = new ArrayList<Integer>();
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            if (partitions.contains(bucket % partitionCount)) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * @return  true, schedule by partition; false, schedule by global schedule_lock
+     */
+    public boolean isPartitioned() {
+        return beatThread != null;
+    }
+
+    /**
+     * @return  partitions owned by this admin, empty if none
+     */
+    public List<Integer> getOwnedPartitions() {
+        return ownedPartitions;
+    }
+
+    /**
+     * @return  buckets of partitions owned by this admin, empty if none
+     */
+    public List<Integer> getOwnedBuckets() {
+        return ownedBuckets;
+    }
+
+}
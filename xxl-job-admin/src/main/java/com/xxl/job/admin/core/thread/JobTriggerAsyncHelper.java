@@ -0,0 +1,285 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.rpc.registry.ServiceRegistry;
+import com.xxl.rpc.remoting.invoker.XxlRpcInvokerFactory;
+import com.xxl.rpc.remoting.invoker.call.XxlRpcInvokeCallback;
+import com.xxl.rpc.remoting.net.params.BaseCallback;
+import com.xxl.rpc.remoting.net.params.XxlRpcFutureResponse;
+import com.xxl.rpc.remoting.net.params.XxlRpcResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * async trigger helper, keep thousands of executor rpc in flight with few threads
+ *
+ *  - trigger thread issues rpc in callback mode and returns, rpc response completes it by callback, no polling
+ *  - deadline of in-flight rpc ordered in delay queue, timeout thread blocks until earliest deadline, fail it if not answered
+ *  - completed once (response or timeout), continuation handed to completion pool (log update etc), never run on rpc callback or timeout thread
+ *  - completion queue sized by in-flight limit, in-flight released after continuation run, so it never overflows while running
+ *  - in-flight limit reached or stopped, "track" returns null, caller runs rpc sync
+ *
+ *  xxl-rpc keeps no timeout in callback mode: rpc future is bound to its in-flight by TrackedInvokerFactory, removed from xxl-rpc future pool when timeout
+ *
+ * @author xuxueli 2020-04-04
+ */
+public class JobTriggerAsyncHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobTriggerAsyncHelper.class);
+
+    private static JobTriggerAsyncHelper instance = new JobTriggerAsyncHelper();
+    public static JobTriggerAsyncHelper getInstance(){
+        return instance;
+    }
+
+    private static final long STOP_WAIT_MS = 5000;
+
+    private final DelayQueue<InFlight> timeoutQueue = new DelayQueue<InFlight>();
+    private final AtomicInteger inFlightCount = new AtomicInteger(0);
+    private ThreadPoolExecutor completionPool = null;
+    private Thread timeoutThread;
+    private volatile boolean toStop = false;
+    private volatile boolean started = false;
+
+    public void start(){
+        if (!XxlJobAdminConfig.getAdminConfig().isTriggerAsyncEnabled()) {
+            return;
+        }
+
+        completionPool = new ThreadPoolExecutor(
+                10,
+                10,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(XxlJobAdminConfig.getAdminConfig().getTriggerAsyncMaxInFlight()),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "xxl-job, admin JobTriggerAsyncHelper-completionPool-" + r.hashCode());
+                    }
+                });
+
+        timeoutThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!toStop) {
+                    try {
+                        // blocks until earliest deadline, answered one is skipped by its completed flag
+                        timeoutQueue.take().onTimeout();
+                    } catch (InterruptedException e) {
+                        if (!toStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    } catch (Exception e) {
+                        logger.error(">>>>>>>>>>> xxl-job, JobTriggerAsyncHelper#timeoutThread error:{}", e);
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, JobTriggerAsyncHelper#timeoutThread stop");
+            }
+        });
+        timeoutThread.setDaemon(true);
+        timeoutThread.setName("xxl-job, admin JobTriggerAsyncHelper#timeoutThread");
+        timeoutThread.start();
+
+        started = true;
+    }
+
+    public void toStop(){
+        if (!started) {
+            return;
+        }
+        started = false;
+
+        // drain in-flight rpc, fail left ones after wait
+        toStop = true;
+        long stopDeadline = System.currentTimeMillis() + STOP_WAIT_MS;
+        while (inFlightCount.get() > 0 && System.currentTimeMillis() < stopDeadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                logger.error(e.getMessage(), e);
+                break;
+            }
+        }
+
+        timeoutThread.interrupt();
+        try {
+            timeoutThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+        for (Object item: timeoutQueue.toArray()) {
+            ((InFlight) item).onTimeout();
+        }
+        timeoutQueue.clear();
+
+        completionPool.shutdown();
+        try {
+            completionPool.awaitTermination(STOP_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+        logger.info(">>>>>>>>> xxl-job trigger async helper shutdown success.");
+    }
+
+    /**
+     * track rpc to be issued in callback mode, set returned callback by "XxlRpcInvokeCallback.setCallback" before issue
+     *
+     * @return  null if not accepted (disabled, stopped or in-flight limit reached), caller runs rpc sync
+     */
+    public XxlRpcInvokeCallback<ReturnT<String>> track(long timeoutMs, XxlRpcInvokeCallback<ReturnT<String>> continuation) {
+        if (!started || toStop) {
+            return null;
+        }
+        if (inFlightCount.incrementAndGet() > XxlJobAdminConfig.getAdminConfig().getTriggerAsyncMaxInFlight()) {
+            inFlightCount.decrementAndGet();
+            return null;
+        }
+        InFlight inFlight = new InFlight(System.currentTimeMillis() + timeoutMs, continuation);
+        timeoutQueue.offer(inFlight);
+        return inFlight;
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    public int getCompletionQueueSize() {
+        return completionPool!=null?completionPool.getQueue().size():0;
+    }
+
+    /**
+     * rpc callback of one in-flight rpc, completed once by response or timeout
+     */
+    private class InFlight extends XxlRpcInvokeCallback<ReturnT<String>> implements Delayed {
+        private final long deadline;
+        private final XxlRpcInvokeCallback<ReturnT<String>> continuation;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        private volatile XxlRpcFutureResponse futureResponse;
+
+        private InFlight(long deadline, XxlRpcInvokeCallback<ReturnT<String>> continuation) {
+            this.deadline = deadline;
+            this.continuation = continuation;
+        }
+
+        @Override
+        public void onSuccess(ReturnT<String> result) {
+            complete(result, null);
+        }
+
+        @Override
+        public void onFailure(Throwable exception) {
+            complete(null, exception);
+        }
+
+        private void onTimeout() {
+            complete(null, new TimeoutException("xxl-rpc, request timeout at:"+ System.currentTimeMillis()));
+            releaseFuture();
+        }
+
+        private void bindFuture(XxlRpcFutureResponse futureResponse) {
+            this.futureResponse = futureResponse;
+            if (completed.get()) {
+                releaseFuture();        // timeout before bound
+            }
+        }
+
+        /**
+         * remove rpc future not answered, answered one removed by xxl-rpc already
+         */
+        private void releaseFuture() {
+            XxlRpcFutureResponse futureResponse = this.futureResponse;
+            if (futureResponse != null) {
+                futureResponse.removeInvokerFuture();
+                this.futureResponse = null;
+            }
+        }
+
+        private void complete(final ReturnT<String> result, final Throwable error) {
+            if (!completed.compareAndSet(false, true)) {
+                return;     // completed by response or timeout already
+            }
+            try {
+                completionPool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (error != null) {
+                                continuation.onFailure(error);
+                            } else {
+                                continuation.onSuccess(result);
+                            }
+                        } catch (Exception e) {
+                            logger.error(e.getMessage(), e);
+                        } finally {
+                            inFlightCount.decrementAndGet();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // completion pool shutdown
+                inFlightCount.decrementAndGet();
+                logger.error(">>>>>>>>>>> xxl-job, JobTriggerAsyncHelper continuation rejected, result:{}", result, error!=null?error:e);
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(deadline, ((InFlight) o).deadline);
+        }
+    }
+
+    /**
+     * invoker factory of async executor client, rpc future kept in shared xxl-rpc invoker factory (connection of address shared by clients),
+     * future of tracked rpc bound to its in-flight when issued
+     */
+    public static class TrackedInvokerFactory extends XxlRpcInvokerFactory {
+        private final XxlRpcInvokerFactory delegate = XxlRpcInvokerFactory.getInstance();
+
+        @Override
+        public void setInvokerFuture(String requestId, XxlRpcFutureResponse futureResponse) {
+            delegate.setInvokerFuture(requestId, futureResponse);
+            if (futureResponse.getInvokeCallback() instanceof InFlight) {
+                ((InFlight) futureResponse.getInvokeCallback()).bindFuture(futureResponse);
+            }
+        }
+
+        @Override
+        public void removeInvokerFuture(String requestId) {
+            delegate.removeInvokerFuture(requestId);
+        }
+
+        @Override
+        public void notifyInvokerFuture(String requestId, XxlRpcResponse xxlRpcResponse) {
+            delegate.notifyInvokerFuture(requestId, xxlRpcResponse);
+        }
+
+        @Override
+        public void executeResponseCallback(Runnable runnable) {
+            delegate.executeResponseCallback(runnable);
+        }
+
+        @Override
+        public void addStopCallBack(BaseCallback callback) {
+            delegate.addStopCallBack(callback);
+        }
+
+        @Override
+        public ServiceRegistry getServiceRegistry() {
+            return delegate.getServiceRegistry();
+        }
+    }
+
+}
@@ -0,0 +1,312 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.core.biz.ExecutorBiz;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.rpc.remoting.invoker.call.XxlRpcInvokeCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * trigger batch helper, triggers to same executor address within linger window coalesced into one "runBatch" rpc
+ *
+ *  - batch flushed when linger ms passed since first trigger, or max size reached
+ *  - run result of each trigger handed to its callback, same as single rpc
+ *  - batch rpc timeout sized to max batch (single rpc timeout plus budget of each trigger), a full batch not failed by timeout of single trigger
+ *  - capability handshake by "beat" before first batch of address (rechecked after expire); executor of old version (no "runBatch" in beat),
+ *    triggers of batch run one by one, address not batched until rechecked
+ *
+ * @author xuxueli 2020-05-30
+ */
+public class JobTriggerBatchHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobTriggerBatchHelper.class);
+
+    private static JobTriggerBatchHelper instance = new JobTriggerBatchHelper();
+    public static JobTriggerBatchHelper getInstance(){
+        return instance;
+    }
+
+    private static final int BATCH_MAX = 100;
+    private static final long RPC_TIMEOUT_MS = 3000;                    // single trigger rpc
+    private static final long TRIGGER_BUDGET_MS = 100;                  // run of each trigger in batch on executor
+    private static final long BATCH_TIMEOUT_MS = RPC_TIMEOUT_MS + BATCH_MAX * TRIGGER_BUDGET_MS;
+    private static final long CAPABILITY_EXPIRE_MS = 10 * 60 * 1000;    // executor upgraded or downgraded, rechecked after it
+
+    private final ConcurrentMap<String, Batch> pendingMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Capability> capabilityMap = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor batchPool = null;
+    private Thread lingerThread;
+    private long lingerMs;
+    private volatile boolean toStop = false;
+
+    // metrics
+    private final AtomicLong batchCount = new AtomicLong(0);
+    private final AtomicLong batchTriggerCount = new AtomicLong(0);
+
+    public void start(){
+        lingerMs = XxlJobAdminConfig.getAdminConfig().getTriggerBatchLingerMs();
+        if (lingerMs <= 0) {
+            return;
+        }
+
+        batchPool = new ThreadPoolExecutor(
+                10,
+                50,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(1000),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "xxl-job, admin JobTriggerBatchHelper-batchPool-" + r.hashCode());
+                    }
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        lingerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!toStop) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(Math.max(1, lingerMs / 2));
+                    } catch (InterruptedException e) {
+                        if (!toStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+
+                    // flush batch over linger
+                    long nowTime = System.currentTimeMillis();
+                    for (Batch batch: pendingMap.values()) {
+                        if (toStop || nowTime - batch.createTime >= lingerMs) {
+                            if (pendingMap.remove(batch.address, batch)) {
+                                flush(batch);
+                            }
+                        }
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, JobTriggerBatchHelper#lingerThread stop");
+            }
+        });
+        lingerThread.setDaemon(true);
+        lingerThread.setName("xxl-job, admin JobTriggerBatchHelper#lingerThread");
+        lingerThread.start();
+    }
+
+    public void toStop(){
+        if (lingerThread == null) {
+            return;
+        }
+        toStop = true;
+        // interrupt and wait
+        lingerThread.interrupt();
+        try {
+            lingerThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+
+        // flush pending, wait batch rpc
+        for (Batch batch: pendingMap.values()) {
+            if (pendingMap.remove(batch.address, batch)) {
+                flush(batch);
+            }
+        }
+        batchPool.shutdown();
+        try {
+            batchPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+        logger.info(">>>>>>>>> xxl-job trigger batch helper stop.");
+    }
+
+    /**
+     * add trigger to batch of address
+     *
+     * @return  false if not batched (disabled, stopped, or executor of old version), caller runs rpc itself
+     */
+    public boolean add(String address, TriggerParam triggerParam, XxlRpcInvokeCallback<ReturnT<String>> callback) {
+        if (lingerThread==null || toStop) {
+            return false;
+        }
+        Capability capability = capabilityMap.get(address);
+        if (capability!=null && !capability.runBatch && !capability.isExpired(System.currentTimeMillis())) {
+            return false;
+        }
+
+        while (true) {
+            Batch batch = pendingMap.get(address);
+            if (batch == null) {
+                Batch newBatch = new Batch(address);
+                batch = pendingMap.putIfAbsent(address, newBatch);
+                if (batch == null) {
+                    batch = newBatch;
+                }
+            }
+            int size = batch.add(triggerParam, callback);
+            if (size < 0) {
+                // flushed meanwhile, to next batch
+                continue;
+            }
+            if ((size>=BATCH_MAX || toStop) && pendingMap.remove(address, batch)) {
+                flush(batch);
+            }
+            return true;
+        }
+    }
+
+    private void flush(final Batch batch) {
+        batch.close();
+        if (batch.paramList.isEmpty()) {
+            return;
+        }
+        try {
+            batchPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runBatch(batch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // stopped
+            runBatch(batch);
+        }
+    }
+
+    private void runBatch(Batch batch) {
+        batchCount.incrementAndGet();
+        batchTriggerCount.addAndGet(batch.paramList.size());
+
+        ReturnT<List<ReturnT<String>>> batchResult;
+        try {
+            ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(batch.address);
+            if (!loadCapability(batch.address, executorBiz).runBatch) {
+                // executor of old version, run one by one
+                runOneByOne(batch);
+                return;
+            }
+            batchResult = XxlJobScheduler.getExecutorBizBatch(batch.address, BATCH_TIMEOUT_MS).runBatch(batch.paramList);
+        } catch (Exception e) {
+            for (XxlRpcInvokeCallback<ReturnT<String>> callback: batch.callbackList) {
+                callback.onFailure(e);
+            }
+            return;
+        }
+
+        List<ReturnT<String>> resultList = batchResult!=null?batchResult.getContent():null;
+        for (int i = 0; i < batch.callbackList.size(); i++) {
+            ReturnT<String> runResult;
+            if (resultList!=null && resultList.size()==batch.callbackList.size()) {
+                runResult = resultList.get(i);
+            } else {
+                runResult = new ReturnT<String>(ReturnT.FAIL_CODE, batchResult!=null?batchResult.getMsg():null);
+            }
+            batch.callbackList.get(i).onSuccess(runResult);
+        }
+    }
+
+    /**
+     * capability of executor, by beat if not checked or expired
+     *
+     * @throws Exception    beat fail, executor not available
+     */
+    private Capability loadCapability(String address, ExecutorBiz executorBiz) throws Exception {
+        long nowTime = System.currentTimeMillis();
+        Capability capability = capabilityMap.get(address);
+        if (capability!=null && !capability.isExpired(nowTime)) {
+            return capability;
+        }
+
+        ReturnT<String> beatResult = executorBiz.beat();
+        if (beatResult==null || beatResult.getCode()!=ReturnT.SUCCESS_CODE) {
+            throw new IllegalStateException("executor beat fail: " + (beatResult!=null?beatResult.getMsg():null));
+        }
+        boolean runBatch = beatResult.getContent()!=null
+                && Arrays.asList(beatResult.getContent().split(",")).contains(ExecutorBiz.CAPABILITY_RUN_BATCH);
+        if (!runBatch) {
+            logger.info(">>>>>>>>>>> xxl-job, executor[{}] not support runBatch, trigger one by one.", address);
+        }
+        capability = new Capability(runBatch, nowTime);
+        capabilityMap.put(address, capability);
+        return capability;
+    }
+
+    private void runOneByOne(Batch batch) {
+        for (int i = 0; i < batch.paramList.size(); i++) {
+            XxlRpcInvokeCallback<ReturnT<String>> callback = batch.callbackList.get(i);
+            try {
+                ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(batch.address);
+                callback.onSuccess(executorBiz.run(batch.paramList.get(i)));
+            } catch (Exception e) {
+                callback.onFailure(e);
+            }
+        }
+    }
+
+    private static class Capability {
+        private final boolean runBatch;
+        private final long checkTime;
+
+        private Capability(boolean runBatch, long checkTime) {
+            this.runBatch = runBatch;
+            this.checkTime = checkTime;
+        }
+
+        private boolean isExpired(long nowTime) {
+            return nowTime - checkTime >= CAPABILITY_EXPIRE_MS;
+        }
+    }
+
+    private static class Batch {
+        private final String address;
+        private final long createTime = System.currentTimeMillis();
+        private final List<TriggerParam> paramList = new ArrayList<TriggerParam>();
+        private final List<XxlRpcInvokeCallback<ReturnT<String>>> callbackList = new ArrayList<XxlRpcInvokeCallback<ReturnT<String>>>();
+        private boolean closed = false;
+
+        private Batch(String address) {
+            this.address = address;
+        }
+
+        /**
+         * @return  size after added, -1 if closed
+         */
+        private synchronized int add(TriggerParam triggerParam, XxlRpcInvokeCallback<ReturnT<String>> callback) {
+            if (closed) {
+                return -1;
+            }
+            paramList.add(triggerParam);
+            callbackList.add(callback);
+            return paramList.size();
+        }
+
+        private synchronized void close() {
+            closed = true;
+        }
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public int getPendingCount() {
+        return pendingMap.size();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getBatchTriggerCount() {
+        return batchTriggerCount.get();
+    }
+
+}
@@ -1,13 +1,15 @@
 package com.xxl.job.admin.core.thread;
 
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
 import com.xxl.job.admin.core.trigger.XxlJobTrigger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * job trigger thread pool helper
@@ -20,66 +22,188 @@ public class JobTriggerPoolHelper {
 
     // ---------------------- trigger pool ----------------------
 
-    // fast/slow thread pool
-    private ThreadPoolExecutor fastTriggerPool = null;
-    private ThreadPoolExecutor slowTriggerPool = null;
+    // bulkhead of each executor group, fast/slow queue inside; fast/slow worker pool (pool max) shared by groups, each group up to its limit
+    private static final int GROUP_FAST_QUEUE_SIZE = 1000;
+    private static final int GROUP_SLOW_QUEUE_SIZE = 2000;
+    private static final int JOB_COST_MAX = 100000;
+
+    private final ConcurrentMap<Integer, TriggerBulkhead> bulkheadMap = new ConcurrentHashMap<>();
+    private volatile boolean stopped = false;
+    private volatile TriggerWorkerPool fastWorkers;
+    private volatile TriggerWorkerPool slowWorkers;
 
     public void start(){
-        fastTriggerPool = new ThreadPoolExecutor(
-                10,
-                XxlJobAdminConfig.getAdminConfig().getTriggerPoolFastMax(),
-                60L,
-                TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(1000),
-                new ThreadFactory() {
-                    @Override
-                    public Thread newThread(Runnable r) {
-                        return new Thread(r, "xxl-job, admin JobTriggerPoolHelper-fastTriggerPool-" + r.hashCode());
-                    }
-                });
-
-        slowTriggerPool = new ThreadPoolExecutor(
-                10,
-                XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowMax(),
-                60L,
-                TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(2000),
-                new ThreadFactory() {
-                    @Override
-                    public Thread newThread(Runnable r) {
-                        return new Thread(r, "xxl-job, admin JobTriggerPoolHelper-slowTriggerPool-" + r.hashCode());
-                    }
-                });
+        stopped = false;
+        ThreadFactory virtualThreadFactory = null;      // not null: virtual thread mode
+        if (XxlJobAdminConfig.getAdminConfig().isTriggerPoolVirtualEnabled()) {
+            virtualThreadFactory = TriggerBulkhead.newVirtualThreadFactory("xxl-job, admin JobTriggerPoolHelper-virtualTrigger-");
+            if (virtualThreadFactory != null) {
+                logger.info(">>>>>>>>> xxl-job trigger pool in virtual thread mode.");
+            } else {
+                logger.warn(">>>>>>>>> xxl-job trigger pool virtual thread not supported by jvm ({}), fall back to thread pool.", System.getProperty("java.version"));
+            }
+        }
+        fastWorkers = new TriggerWorkerPool(XxlJobAdminConfig.getAdminConfig().getTriggerPoolFastMax(), "xxl-job, admin JobTriggerPoolHelper-fastTriggerPool-", virtualThreadFactory);
+        slowWorkers = new TriggerWorkerPool(XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowMax(), "xxl-job, admin JobTriggerPoolHelper-slowTriggerPool-", virtualThreadFactory);
+        jobCostTracker = new JobCostTracker(XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowWindow(),
+                XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowThreshold(),
+                JOB_COST_MAX);
     }
 
 
     public void stop() {
         //triggerPool.shutdown();
-        fastTriggerPool.shutdownNow();
-        slowTriggerPool.shutdownNow();
+        stopped = true;
+        for (TriggerBulkhead bulkhead: bulkheadMap.values()) {
+            bulkhead.shutdownNow();
+        }
+        bulkheadMap.clear();
+        if (fastWorkers != null) {
+            fastWorkers.shutdownNow();
+            slowWorkers.shutdownNow();
+        }
         logger.info(">>>>>>>>> xxl-job trigger thread pool shutdown success.");
     }
 
+    /**
+     * limit of each group on shared worker pool: all of pool max if only one group, else half of it;
+     * busy group uses worker idle in other group, a degraded group leaves the other half to other groups
+     */
+    public static int groupLimit(int poolMax, int groupCount) {
+        return groupCount > 1 ? Math.max(1, poolMax / 2) : Math.max(1, poolMax);
+    }
+
+    private TriggerBulkhead loadBulkhead(int jobGroup) {
+        TriggerBulkhead bulkhead = bulkheadMap.get(jobGroup);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        synchronized (this) {
+            bulkhead = bulkheadMap.get(jobGroup);
+            if (bulkhead == null) {
+                if (stopped) {
+                    throw new RejectedExecutionException("xxl-job trigger thread pool stopped.");
+                }
+                int groupCount = bulkheadMap.size() + 1;
+                bulkhead = new TriggerBulkhead(jobGroup,
+                        laneLimit(fastWorkers, groupCount),
+                        laneLimit(slowWorkers, groupCount),
+                        GROUP_FAST_QUEUE_SIZE,
+                        GROUP_SLOW_QUEUE_SIZE,
+                        fastWorkers,
+                        slowWorkers);
+                bulkheadMap.put(jobGroup, bulkhead);
+                resizeBulkhead();
+            }
+            return bulkhead;
+        }
+    }
 
-    // job timeout count
-    private volatile long minTim = System.currentTimeMillis()/60000;     // ms > min
-    private volatile ConcurrentMap<Integer, AtomicInteger> jobTimeoutCountMap = new ConcurrentHashMap<>();
+    /**
+     * limit of group lane: virtual thread mode, own bound of each group ("triggerpool.virtual.groupmax"); else share of worker pool
+     */
+    private int laneLimit(TriggerWorkerPool workers, int groupCount) {
+        if (workers.isVirtual()) {
+            return XxlJobAdminConfig.getAdminConfig().getTriggerPoolVirtualGroupMax();
+        }
+        return groupLimit(workers.getMax(), groupCount);
+    }
 
+    private void resizeBulkhead() {
+        if (fastWorkers.isVirtual()) {
+            return;     // bound of group fixed
+        }
+        int groupCount = bulkheadMap.size();
+        int fastLimit = groupLimit(fastWorkers.getMax(), groupCount);
+        int slowLimit = groupLimit(slowWorkers.getMax(), groupCount);
+        for (TriggerBulkhead item: bulkheadMap.values()) {
+            item.resize(fastLimit, slowLimit);
+        }
+    }
 
     /**
-     * add trigger
+     * executor group removed, release its bulkhead
+     */
+    public void removeBulkhead(int jobGroup) {
+        synchronized (this) {
+            TriggerBulkhead bulkhead = bulkheadMap.remove(jobGroup);
+            if (bulkhead != null) {
+                bulkhead.shutdown();
+                resizeBulkhead();
+            }
+        }
+    }
+
+    /**
+     * job removed, release its cost avg
+     */
+    public void removeJobCost(int jobId) {
+        jobCostTracker.remove(jobId);
+    }
+
+
+    // trigger cost, ewma (weight 1/8), ms
+    private volatile long triggerCostAvg = 50;
+
+    // cost avg of each job, slow one goes to slow pool
+    private volatile JobCostTracker jobCostTracker = new JobCostTracker(10, 500, JOB_COST_MAX);
+
+
+    /**
+     * add trigger, spilled into db if trigger pool saturated
      */
     public void addTrigger(final int jobId, final TriggerTypeEnum triggerType, final int failRetryCount, final String executorShardingParam, final String executorParam) {
+        if (!offerTrigger(jobId, triggerType, failRetryCount, executorShardingParam, executorParam)) {
+            JobTriggerSpillHelper.getInstance().spill(jobId, triggerType, failRetryCount, executorShardingParam, executorParam);
+        }
+    }
+
+    private boolean isSlow(int jobId) {
+        return jobCostTracker.isSlow(jobId);
+    }
 
-        // choose thread pool
-        ThreadPoolExecutor triggerPool_ = fastTriggerPool;
-        AtomicInteger jobTimeoutCount = jobTimeoutCountMap.get(jobId);
-        if (jobTimeoutCount!=null && jobTimeoutCount.get() > 10) {      // job-timeout 10 times in 1 min
-            triggerPool_ = slowTriggerPool;
+    /**
+     * bulkhead of job has capacity, used by spill drain
+     */
+    boolean canAccept(int jobId) {
+        if (stopped) {
+            return false;
         }
+        XxlJobInfo jobInfo = JobInfoCacheHelper.getInstance().loadJobInfo(jobId);
+        if (jobInfo == null) {
+            return true;    // job removed, dropped by offer
+        }
+        TriggerBulkhead bulkhead = bulkheadMap.get(jobInfo.getJobGroup());
+        return bulkhead==null || bulkhead.canAccept(isSlow(jobId));
+    }
 
-        // trigger
-        triggerPool_.execute(new Runnable() {
+    /**
+     * push trigger into thread pool
+     *
+     * @return  false if rejected, trigger pool saturated or stopped; job removed, trigger dropped
+     */
+    boolean offerTrigger(final int jobId, final TriggerTypeEnum triggerType, final int failRetryCount, final String executorShardingParam, final String executorParam) {
+        // job group of job, from job info snapshot
+        XxlJobInfo jobInfo = JobInfoCacheHelper.getInstance().loadJobInfo(jobId);
+        if (jobInfo == null) {
+            logger.warn(">>>>>>>>>>>> trigger fail, jobId invalid，jobId={}", jobId);
+            return true;
+        }
+        try {
+            // choose bulkhead of job group, and fast/slow thread pool inside
+            TriggerBulkhead bulkhead = loadBulkhead(jobInfo.getJobGroup());
+            boolean slow = isSlow(jobId);
+
+            // trigger
+            bulkhead.execute(newTriggerTask(jobId, triggerType, failRetryCount, executorShardingParam, executorParam), slow);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private Runnable newTriggerTask(final int jobId, final TriggerTypeEnum triggerType, final int failRetryCount, final String executorShardingParam, final String executorParam) {
+        return new Runnable() {
             @Override
             public void run() {
 
@@ -91,29 +215,88 @@ public class JobTriggerPoolHelper {
                 } catch (Exception e) {
                     logger.error(e.getMessage(), e);
                 } finally {
+                    // trigger thread occupied cost, rpc excluded if async
+                    long cost = System.currentTimeMillis()-start;
+                    triggerCostAvg = triggerCostAvg + (cost - triggerCostAvg) / 8;
+                }
 
-                    // check timeout-count-map
-                    long minTim_now = System.currentTimeMillis()/60000;
-                    if (minTim != minTim_now) {
-                        minTim = minTim_now;
-                        jobTimeoutCountMap.clear();
-                    }
+            }
+        };
+    }
 
-                    // incr timeout-count-map
-                    long cost = System.currentTimeMillis()-start;
-                    if (cost > 500) {       // ob-timeout threshold 500ms
-                        AtomicInteger timeoutCount = jobTimeoutCountMap.putIfAbsent(jobId, new AtomicInteger(1));
-                        if (timeoutCount != null) {
-                            timeoutCount.incrementAndGet();
-                        }
-                    }
 
-                }
 
+    /**
+     * record job trigger cost (rpc included), called when trigger completed, job with cost avg over threshold goes to slow pool
+     */
+    public void recordJobTriggerCost(int jobId, long cost) {
+        jobCostTracker.record(jobId, cost);
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public long getTriggerCostAvg() {
+        return triggerCostAvg;
+    }
+
+    public int getQueueSize() {
+        int queueSize = 0;
+        for (TriggerBulkhead bulkhead: bulkheadMap.values()) {
+            queueSize += bulkhead.getQueueSize();
+        }
+        return queueSize;
+    }
+
+    public int getQueueCapacity() {
+        int queueCapacity = 0;
+        for (TriggerBulkhead bulkhead: bulkheadMap.values()) {
+            queueCapacity += bulkhead.getQueueCapacity();
+        }
+        return queueCapacity>0 ? queueCapacity : GROUP_FAST_QUEUE_SIZE + GROUP_SLOW_QUEUE_SIZE;
+    }
+
+    public int getPoolMax() {
+        if (fastWorkers!=null && fastWorkers.isVirtual()) {
+            // fast + slow lane bound of each group
+            return XxlJobAdminConfig.getAdminConfig().getTriggerPoolVirtualGroupMax() * 2 * Math.max(1, bulkheadMap.size());
+        }
+        return XxlJobAdminConfig.getAdminConfig().getTriggerPoolFastMax() + XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowMax();
+    }
+
+    public int getActiveCount() {
+        if (fastWorkers!=null && fastWorkers.isVirtual()) {
+            // virtual thread waiting permit of its group not counted
+            int activeCount = 0;
+            for (TriggerBulkhead bulkhead: bulkheadMap.values()) {
+                activeCount += bulkhead.getActiveCount();
             }
-        });
+            return activeCount;
+        }
+        return fastWorkers!=null ? fastWorkers.getActiveCount() + slowWorkers.getActiveCount() : 0;
     }
 
+    public int getSlowJobCount() {
+        return jobCostTracker.getSlowCount();
+    }
+
+    /**
+     * cost avg of jobs in slow pool, ms
+     */
+    public Map<Integer, Long> getSlowJobs() {
+        return jobCostTracker.getSlowJobs();
+    }
+
+    /**
+     * saturation metrics of each executor group bulkhead
+     */
+    public Map<Integer, Map<String, Object>> getGroupMetrics() {
+        Map<Integer, Map<String, Object>> groupMetrics = new LinkedHashMap<Integer, Map<String, Object>>();
+        for (TriggerBulkhead bulkhead: bulkheadMap.values()) {
+            groupMetrics.put(bulkhead.getJobGroup(), bulkhead.getMetrics());
+        }
+        return groupMetrics;
+    }
 
 
     // ---------------------- helper ----------------------
@@ -126,6 +309,9 @@ public class JobTriggerPoolHelper {
     public static void toStop() {
         helper.stop();
     }
+    public static JobTriggerPoolHelper getInstance() {
+        return helper;
+    }
 
     /**
      * @param jobId
@@ -0,0 +1,132 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * sharding broadcast helper, shards of one broadcast dispatched concurrently
+ *
+ *  - at most "concurrency" shards of one broadcast in flight, trigger thread waits for permit over it
+ *  - async trigger: rpc of shard issued in callback mode, permit released when completed
+ *  - sync trigger: blocking rpc of shard runs in sharding pool; pool saturated, runs in trigger thread as before
+ *  - log rows of all shards written in one batch when last shard completed
+ *
+ * @author xuxueli 2020-05-16
+ */
+public class JobTriggerShardingHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobTriggerShardingHelper.class);
+
+    private static JobTriggerShardingHelper instance = new JobTriggerShardingHelper();
+    public static JobTriggerShardingHelper getInstance(){
+        return instance;
+    }
+
+    private static final int SHARDING_POOL_MAX = 200;
+
+    private ThreadPoolExecutor shardingPool = null;
+
+    public void start(){
+        shardingPool = new ThreadPoolExecutor(
+                0,
+                SHARDING_POOL_MAX,
+                60L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "xxl-job, admin JobTriggerShardingHelper-shardingPool-" + r.hashCode());
+                    }
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void toStop(){
+        if (shardingPool == null) {
+            return;
+        }
+        shardingPool.shutdown();
+        try {
+            shardingPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+        logger.info(">>>>>>>>> xxl-job trigger sharding helper stop.");
+    }
+
+    /**
+     * fanout of one broadcast
+     */
+    public Fanout newFanout(int total) {
+        return new Fanout(total, XxlJobAdminConfig.getAdminConfig().getTriggerShardingConcurrency());
+    }
+
+    /**
+     * run blocking rpc of shard; not started or stopped, run in caller
+     */
+    public void execute(Runnable runnable) {
+        ThreadPoolExecutor shardingPool = this.shardingPool;
+        if (shardingPool != null) {
+            try {
+                shardingPool.execute(runnable);
+                return;
+            } catch (RejectedExecutionException e) {
+                // stopping
+            }
+        }
+        runnable.run();
+    }
+
+    public int getActiveCount() {
+        return shardingPool!=null?shardingPool.getActiveCount():0;
+    }
+
+    public static class Fanout {
+        private final Semaphore permits;
+        private int remain;
+        private final List<XxlJobLog> logList;
+
+        private Fanout(int total, int concurrency) {
+            this.permits = new Semaphore(Math.max(1, concurrency));
+            this.remain = total;
+            this.logList = new ArrayList<XxlJobLog>(total);
+        }
+
+        /**
+         * wait permit before shard dispatched
+         */
+        public void acquire() {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // stopping, shard not dropped, in-flight shard completed by async helper stop
+                permits.acquireUninterruptibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * shard completed, log row of shard fully set; null if shard failed before log
+         */
+        public void complete(XxlJobLog jobLog) {
+            boolean last;
+            synchronized (logList) {
+                if (jobLog != null) {
+                    logList.add(jobLog);
+                }
+                last = --remain == 0;
+            }
+            permits.release();
+            if (last && !logList.isEmpty()) {
+                JobLogWriteHelper.getInstance().saveTriggerInfo(logList);
+            }
+        }
+    }
+
+}
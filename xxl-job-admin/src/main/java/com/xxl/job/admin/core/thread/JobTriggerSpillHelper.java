@@ -0,0 +1,182 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobTriggerSpill;
+import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * trigger spill helper
+ *
+ *  - trigger rejected by saturated trigger pool is spilled into db (xxl_job_trigger_spill), not thrown into schedule/ring thread and lost
+ *  - drain thread pages through spill in id order, push back the one whose bulkhead has capacity, others keep waiting
+ *  - claimed by delete before push back, drained once in admin cluster
+ *
+ * @author xuxueli 2020-03-28
+ */
+public class JobTriggerSpillHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobTriggerSpillHelper.class);
+
+    private static JobTriggerSpillHelper instance = new JobTriggerSpillHelper();
+    public static JobTriggerSpillHelper getInstance(){
+        return instance;
+    }
+
+    private static final int DRAIN_PAGE_SIZE = 100;
+
+    private Thread drainThread;
+    private volatile boolean toStop = false;
+
+    // metrics
+    private volatile int spillDepth = 0;                    // spilled and not drained, of last drain round
+    private final AtomicLong spillCount = new AtomicLong(0);
+    private final AtomicLong drainCount = new AtomicLong(0);
+    private volatile long spillDelayAvg = 0;                // spill-to-fire delay, ewma (weight 1/8), ms
+    private volatile long spillDelayMax = 0;                // max spill-to-fire delay of last drain round, ms
+
+    public void start(){
+        drainThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long lastId = 0;
+                long roundDelayMax = 0;
+                while (!toStop) {
+                    boolean pageFull = false;
+                    try {
+                        List<XxlJobTriggerSpill> spillList = XxlJobAdminConfig.getAdminConfig().getXxlJobTriggerSpillDao().findAfter(lastId, DRAIN_PAGE_SIZE);
+                        for (XxlJobTriggerSpill spill: spillList) {
+                            lastId = spill.getId();
+                            roundDelayMax = Math.max(roundDelayMax, drain(spill));
+                        }
+                        pageFull = spillList.size() >= DRAIN_PAGE_SIZE;
+
+                        // round finish, from head again
+                        if (!pageFull) {
+                            lastId = 0;
+                            spillDelayMax = roundDelayMax;
+                            roundDelayMax = 0;
+                            spillDepth = XxlJobAdminConfig.getAdminConfig().getXxlJobTriggerSpillDao().count();
+                        }
+                    } catch (Exception e) {
+                        lastId = 0;
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> xxl-job, JobTriggerSpillHelper#drainThread error:{}", e);
+                        }
+                    }
+
+                    // next page at once, next round after 1s
+                    if (!pageFull) {
+                        try {
+                            TimeUnit.SECONDS.sleep(1);
+                        } catch (InterruptedException e) {
+                            if (!toStop) {
+                                logger.error(e.getMessage(), e);
+                            }
+                        }
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, JobTriggerSpillHelper#drainThread stop");
+            }
+        });
+        drainThread.setDaemon(true);
+        drainThread.setName("xxl-job, admin JobTriggerSpillHelper#drainThread");
+        drainThread.start();
+    }
+
+    /**
+     * push back one spilled trigger
+     *
+     * @return  spill-to-fire delay, 0 if not drained
+     */
+    private long drain(XxlJobTriggerSpill spill) {
+        JobTriggerPoolHelper triggerPool = JobTriggerPoolHelper.getInstance();
+
+        // bulkhead still saturated, keep in spill
+        if (!triggerPool.canAccept(spill.getJobId())) {
+            return 0;
+        }
+        // claim, drained by other admin
+        if (XxlJobAdminConfig.getAdminConfig().getXxlJobTriggerSpillDao().delete(spill.getId()) < 1) {
+            return 0;
+        }
+
+        TriggerTypeEnum triggerType = TriggerTypeEnum.match(spill.getTriggerType(), TriggerTypeEnum.CRON);
+        if (!triggerPool.offerTrigger(spill.getJobId(), triggerType, spill.getFailRetryCount(), spill.getExecutorShardingParam(), spill.getExecutorParam())) {
+            // saturated again meanwhile, spill again with origin spill time
+            save(spill);
+            return 0;
+        }
+
+        long delay = System.currentTimeMillis() - spill.getSpillTime();
+        spillDelayAvg = spillDelayAvg + (delay - spillDelayAvg) / 8;
+        drainCount.incrementAndGet();
+        return delay;
+    }
+
+    /**
+     * spill trigger rejected by trigger pool
+     */
+    public void spill(int jobId, TriggerTypeEnum triggerType, int failRetryCount, String executorShardingParam, String executorParam) {
+        XxlJobTriggerSpill spill = new XxlJobTriggerSpill();
+        spill.setJobId(jobId);
+        spill.setTriggerType(triggerType.name());
+        spill.setFailRetryCount(failRetryCount);
+        spill.setExecutorShardingParam(executorShardingParam);
+        spill.setExecutorParam(executorParam);
+        spill.setSpillTime(System.currentTimeMillis());
+        if (save(spill)) {
+            spillCount.incrementAndGet();
+            logger.warn(">>>>>>>>>>> xxl-job, trigger pool saturated, trigger spilled, jobId:{}, triggerType:{}", jobId, triggerType);
+        }
+    }
+
+    private boolean save(XxlJobTriggerSpill spill) {
+        try {
+            XxlJobAdminConfig.getAdminConfig().getXxlJobTriggerSpillDao().save(spill);
+            return true;
+        } catch (Exception e) {
+            logger.error(">>>>>>>>>>> xxl-job, trigger spill fail, trigger lost, jobId:{}", spill.getJobId(), e);
+            return false;
+        }
+    }
+
+    public void toStop(){
+        toStop = true;
+        // interrupt and wait
+        drainThread.interrupt();
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public int getSpillDepth() {
+        return spillDepth;
+    }
+
+    public long getSpillCount() {
+        return spillCount.get();
+    }
+
+    public long getDrainCount() {
+        return drainCount.get();
+    }
+
+    public long getSpillDelayAvg() {
+        return spillDelayAvg;
+    }
+
+    public long getSpillDelayMax() {
+        return spillDelayMax;
+    }
+
+}
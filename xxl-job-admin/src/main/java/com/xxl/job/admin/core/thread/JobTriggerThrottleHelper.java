@@ -0,0 +1,183 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * trigger throttle helper, token bucket per executor address and per job, checked before executor rpc
+ *
+ *  - throttled trigger is delayed (rpc issued after token usable), not failed
+ *  - delayed rpc waits in a scheduler, trigger thread not blocked
+ *  - stopping, delayed rpc is issued at once, not lost
+ *
+ * @author xuxueli 2020-04-18
+ */
+public class JobTriggerThrottleHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobTriggerThrottleHelper.class);
+
+    private static JobTriggerThrottleHelper instance = new JobTriggerThrottleHelper();
+    public static JobTriggerThrottleHelper getInstance(){
+        return instance;
+    }
+
+    private static final int BUCKET_MAX = 10000;
+
+    private final ConcurrentMap<String, TokenBucket> addressBucketMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, TokenBucket> jobBucketMap = new ConcurrentHashMap<>();
+    private final Set<DelayedTrigger> pendingSet = Collections.newSetFromMap(new ConcurrentHashMap<DelayedTrigger, Boolean>());
+    private ScheduledThreadPoolExecutor delayScheduler;
+    private volatile boolean started = false;
+
+    // metrics
+    private final AtomicLong throttleCount = new AtomicLong(0);
+    private final AtomicLong throttleAddressCount = new AtomicLong(0);
+    private final AtomicLong throttleJobCount = new AtomicLong(0);
+    private volatile long throttleDelayAvg = 0;             // ewma (weight 1/8), ms
+    private volatile long throttleDelayMax = 0;             // ms
+
+    public void start(){
+        delayScheduler = new ScheduledThreadPoolExecutor(2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "xxl-job, admin JobTriggerThrottleHelper-delayScheduler-" + r.hashCode());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        started = true;
+    }
+
+    public void toStop(){
+        if (!started) {
+            return;
+        }
+        started = false;
+        delayScheduler.shutdownNow();
+
+        // issue delayed rpc at once
+        List<DelayedTrigger> pendingList = new ArrayList<DelayedTrigger>(pendingSet);
+        for (DelayedTrigger pending: pendingList) {
+            pending.run();
+        }
+        logger.info(">>>>>>>>> xxl-job trigger throttle helper stop, delayed trigger issued:{}", pendingList.size());
+    }
+
+    /**
+     * reserve token of job and executor address
+     *
+     * @return  delay before rpc, ms; 0 as not throttled
+     */
+    public long acquire(int jobId, String address) {
+        long nowTime = System.currentTimeMillis();
+        long addressDelay = reserve(addressBucketMap, address, XxlJobAdminConfig.getAdminConfig().getTriggerRateLimitAddress(), nowTime);
+        long jobDelay = reserve(jobBucketMap, jobId, XxlJobAdminConfig.getAdminConfig().getTriggerRateLimitJob(), nowTime);
+
+        long delay = Math.max(addressDelay, jobDelay);
+        if (delay > 0) {
+            throttleCount.incrementAndGet();
+            if (addressDelay > 0) {
+                throttleAddressCount.incrementAndGet();
+            }
+            if (jobDelay > 0) {
+                throttleJobCount.incrementAndGet();
+            }
+            throttleDelayAvg = throttleDelayAvg + (delay - throttleDelayAvg) / 8;
+            throttleDelayMax = Math.max(throttleDelayMax, delay);
+        }
+        return delay;
+    }
+
+    private static <K> long reserve(ConcurrentMap<K, TokenBucket> bucketMap, K key, int rate, long nowTime) {
+        if (rate <= 0 || key == null) {
+            return 0;
+        }
+        TokenBucket bucket = bucketMap.get(key);
+        if (bucket == null) {
+            if (bucketMap.size() >= BUCKET_MAX) {
+                bucketMap.clear();
+            }
+            TokenBucket newBucket = new TokenBucket(rate);
+            bucket = bucketMap.putIfAbsent(key, newBucket);
+            if (bucket == null) {
+                bucket = newBucket;
+            }
+        }
+        return bucket.reserve(nowTime);
+    }
+
+    /**
+     * run after delay; stopped or rejected, run at once
+     */
+    public void delay(Runnable runnable, long delayMs) {
+        DelayedTrigger delayedTrigger = new DelayedTrigger(runnable);
+        if (started) {
+            pendingSet.add(delayedTrigger);
+            try {
+                delayScheduler.schedule(delayedTrigger, delayMs, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // stopping
+            }
+        }
+        delayedTrigger.run();
+    }
+
+    private class DelayedTrigger implements Runnable {
+        private final Runnable runnable;
+        private final AtomicBoolean fired = new AtomicBoolean(false);
+
+        private DelayedTrigger(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            if (!fired.compareAndSet(false, true)) {
+                return;
+            }
+            pendingSet.remove(this);
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public long getThrottleCount() {
+        return throttleCount.get();
+    }
+
+    public long getThrottleAddressCount() {
+        return throttleAddressCount.get();
+    }
+
+    public long getThrottleJobCount() {
+        return throttleJobCount.get();
+    }
+
+    public int getThrottlePending() {
+        return pendingSet.size();
+    }
+
+    public long getThrottleDelayAvg() {
+        return throttleDelayAvg;
+    }
+
+    public long getThrottleDelayMax() {
+        return throttleDelayMax;
+    }
+
+}
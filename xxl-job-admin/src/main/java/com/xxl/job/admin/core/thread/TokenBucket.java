@@ -0,0 +1,37 @@
+package com.xxl.job.admin.core.thread;
+
+/**
+ * token bucket, reserve style: a token is always granted, caller waits the returned delay instead of being refused
+ *
+ *  - rate tokens per second, burst up to "rate" tokens (1 second) when bucket full
+ *  - kept as theoretical arrival time of next token (gcra), no refill thread
+ *
+ * @author xuxueli 2020-04-18
+ */
+public class TokenBucket {
+
+    private final double intervalMs;
+    private final double burstMs;
+    private double nextTime = 0;            // ms
+
+    /**
+     * @param rate  tokens per second, > 0
+     */
+    public TokenBucket(int rate) {
+        this.intervalMs = 1000.0 / Math.max(1, rate);
+        this.burstMs = (Math.max(1, rate) - 1) * intervalMs;
+    }
+
+    /**
+     * reserve one token
+     *
+     * @return  delay before token usable, ms; 0 as at once
+     */
+    public synchronized long reserve(long nowTime) {
+        nextTime = Math.max(nextTime, nowTime);
+        double delay = nextTime - burstMs - nowTime;
+        nextTime += intervalMs;
+        return delay > 0 ? (long) Math.ceil(delay) : 0;
+    }
+
+}
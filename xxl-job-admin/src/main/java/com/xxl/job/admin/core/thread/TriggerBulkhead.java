@@ -0,0 +1,298 @@
+package com.xxl.job.admin.core.thread;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * trigger bulkhead of one executor group (job_group)
+ *
+ *  - own fast/slow queue, a degraded executor group only fills its own queue, never stalls trigger of other group
+ *  - platform thread mode: trigger runs on worker pool shared by all groups (total capped by triggerpool max), each group up to its limit; idle worker used by busy group;
+ *    group limit is resized by JobTriggerPoolHelper, a degraded group never takes all workers while other group exists
+ *  - virtual thread mode: each trigger on its own virtual thread, bounded by semaphore of its group lane ("triggerpool.virtual.groupmax"), not by pool size
+ *
+ * @author xuxueli 2020-03-21
+ */
+public class TriggerBulkhead {
+
+    private final int jobGroup;
+    private final GroupLane fastLane;
+    private final GroupLane slowLane;
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+
+    public TriggerBulkhead(final int jobGroup, int fastLimit, int slowLimit, int fastQueueSize, int slowQueueSize, TriggerWorkerPool fastWorkers, TriggerWorkerPool slowWorkers) {
+        this.jobGroup = jobGroup;
+        this.fastLane = new GroupLane(fastWorkers, fastLimit, fastQueueSize);
+        this.slowLane = new GroupLane(slowWorkers, slowLimit, slowQueueSize);
+    }
+
+    /**
+     * virtual thread factory, detected at runtime by reflection (jdk 21+)
+     *
+     * @return  null if virtual thread not supported by running jvm
+     */
+    public static ThreadFactory newVirtualThreadFactory(String threadNamePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+            // preview jdk without "--enable-preview" fails here
+            threadFactory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            return threadFactory;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    public int getJobGroup() {
+        return jobGroup;
+    }
+
+    /**
+     * @throws RejectedExecutionException   queue of this group is full
+     */
+    public void execute(Runnable runnable, boolean slow) {
+        try {
+            (slow?slowLane:fastLane).execute(runnable);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * queue of lane not full
+     */
+    public boolean canAccept(boolean slow) {
+        return (slow?slowLane:fastLane).getQueueRemaining() > 0;
+    }
+
+    /**
+     * resize limit of group on shared worker pool, group count changed
+     */
+    public void resize(int fastLimit, int slowLimit) {
+        fastLane.resize(fastLimit);
+        slowLane.resize(slowLimit);
+    }
+
+    public void shutdown() {
+        fastLane.shutdown();
+        slowLane.shutdown();
+    }
+
+    public void shutdownNow() {
+        fastLane.shutdownNow();
+        slowLane.shutdownNow();
+    }
+
+
+    // ---------------------- metrics ----------------------
+
+    public int getQueueSize() {
+        return fastLane.getQueueSize() + slowLane.getQueueSize();
+    }
+
+    public int getQueueCapacity() {
+        return getQueueSize() + fastLane.getQueueRemaining() + slowLane.getQueueRemaining();
+    }
+
+    public int getPoolMax() {
+        return fastLane.getMax() + slowLane.getMax();
+    }
+
+    public int getActiveCount() {
+        return fastLane.getActiveCount() + slowLane.getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * saturation, (active + queued) / (group limit + queue capacity), 1 as full
+     */
+    public double getSaturation() {
+        int capacity = getPoolMax() + getQueueCapacity();
+        return capacity>0 ? (getActiveCount() + getQueueSize()) / (double) capacity : 0;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<String, Object>();
+        metrics.put("activeCount", getActiveCount());
+        metrics.put("poolMax", getPoolMax());
+        metrics.put("queueSize", getQueueSize());
+        metrics.put("queueCapacity", getQueueCapacity());
+        metrics.put("rejectedCount", getRejectedCount());
+        metrics.put("saturation", getSaturation());
+        return metrics;
+    }
+
+
+    // ---------------------- lane ----------------------
+
+    /**
+     * fast or slow lane of bulkhead: own queue, run on shared worker pool up to limit of group
+     *
+     *  - admitted (waiting + running) bounded by limit + queue size, as thread pool of "limit" threads and "queue size" queue
+     *  - platform thread mode: each running slot is a drain task on worker pool, runs one queued trigger then re-queued at tail of worker pool, groups take turns;
+     *    slot released when queue drained or limit lowered
+     *  - virtual thread mode: each trigger on its own virtual thread, runs after permit of lane semaphore ("limit" permits) acquired, waiting one counted as queued
+     */
+    private static class GroupLane implements Runnable {
+        private final TriggerWorkerPool workers;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+        private final int queueSize;
+        private final AtomicInteger admitted = new AtomicInteger(0);     // waiting + running
+        private final AtomicInteger running = new AtomicInteger(0);      // slot taken on worker pool
+        private final AtomicInteger active = new AtomicInteger(0);
+        private final Semaphore permits;                                 // virtual thread mode
+        private volatile int limit;
+        private volatile boolean shutdown = false;
+
+        private GroupLane(TriggerWorkerPool workers, int limit, int queueSize) {
+            this.workers = workers;
+            this.limit = limit;
+            this.queueSize = queueSize;
+            this.permits = workers.isVirtual() ? new Semaphore(limit) : null;
+        }
+
+        public void execute(Runnable runnable) {
+            if (shutdown) {
+                throw new RejectedExecutionException("xxl-job trigger lane shutdown.");
+            }
+            if (admitted.incrementAndGet() > limit + queueSize) {
+                admitted.decrementAndGet();
+                throw new RejectedExecutionException("xxl-job trigger lane full.");
+            }
+            if (permits != null) {
+                executeVirtual(runnable);
+                return;
+            }
+            queue.offer(runnable);
+            schedule();
+        }
+
+        private void executeVirtual(final Runnable runnable) {
+            try {
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            permits.acquire();
+                        } catch (InterruptedException e) {
+                            // shutdown now, drop waiting trigger
+                            admitted.decrementAndGet();
+                            return;
+                        }
+                        active.incrementAndGet();
+                        try {
+                            runnable.run();
+                        } finally {
+                            active.decrementAndGet();
+                            admitted.decrementAndGet();
+                            permits.release();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                admitted.decrementAndGet();
+                throw e;
+            }
+        }
+
+        /**
+         * take a slot on worker pool, if queued and under limit
+         */
+        private void schedule() {
+            while (!queue.isEmpty()) {
+                int slot = running.get();
+                if (slot >= limit) {
+                    return;
+                }
+                if (running.compareAndSet(slot, slot + 1)) {
+                    submit();
+                    return;
+                }
+            }
+        }
+
+        private void submit() {
+            try {
+                workers.execute(this);
+            } catch (RejectedExecutionException e) {
+                // worker pool shutdown, queued trigger dropped
+                running.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void run() {
+            Runnable runnable = queue.poll();
+            if (runnable != null) {
+                active.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    active.decrementAndGet();
+                    admitted.decrementAndGet();
+                }
+            }
+
+            // keep slot, turn of other group first; or release
+            if (!queue.isEmpty() && running.get() <= limit) {
+                submit();
+            } else {
+                running.decrementAndGet();
+                schedule();
+            }
+        }
+
+        public void resize(int limit) {
+            if (permits != null) {
+                return;     // virtual thread mode, bound of group fixed
+            }
+            this.limit = limit;
+            schedule();
+        }
+
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        public void shutdownNow() {
+            shutdown = true;
+            while (queue.poll() != null) {
+                admitted.decrementAndGet();
+            }
+        }
+
+        public int getQueueSize() {
+            return Math.max(0, admitted.get() - active.get());
+        }
+
+        public int getQueueRemaining() {
+            return Math.max(0, limit + queueSize - admitted.get());
+        }
+
+        public int getMax() {
+            return limit;
+        }
+
+        public int getActiveCount() {
+            return active.get();
+        }
+    }
+
+}
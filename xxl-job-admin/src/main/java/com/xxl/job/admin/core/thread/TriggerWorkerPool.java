@@ -0,0 +1,112 @@
+package com.xxl.job.admin.core.thread;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * worker threads shared by trigger bulkhead of all executor groups
+ *
+ *  - platform thread mode: thread pool of "max" threads (triggerpool max), queue holds drain task of group lane (at most one per running slot of a group)
+ *  - virtual thread mode: each task on its own virtual thread, no total cap; bounded by semaphore of each executor group lane
+ *
+ * @author xuxueli 2020-07-04
+ */
+public class TriggerWorkerPool {
+
+    private final int max;
+    private final ThreadPoolExecutor pool;            // platform thread mode
+    private final ThreadFactory virtualThreadFactory;   // virtual thread mode
+    private final AtomicInteger active = new AtomicInteger(0);
+    private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+    private volatile boolean shutdown = false;
+
+    /**
+     * @param max                   thread count of platform thread mode
+     * @param virtualThreadFactory  not null: virtual thread mode
+     */
+    public TriggerWorkerPool(int max, final String threadNamePrefix, ThreadFactory virtualThreadFactory) {
+        this.max = max;
+        this.virtualThreadFactory = virtualThreadFactory;
+        if (virtualThreadFactory != null) {
+            this.pool = null;
+        } else {
+            this.pool = new ThreadPoolExecutor(
+                    max,
+                    max,
+                    60L,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            return new Thread(r, threadNamePrefix + r.hashCode());
+                        }
+                    });
+            this.pool.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * @throws RejectedExecutionException   shutdown
+     */
+    public void execute(final Runnable runnable) {
+        if (shutdown) {
+            throw new RejectedExecutionException("xxl-job trigger worker pool shutdown.");
+        }
+        if (pool != null) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    active.incrementAndGet();
+                    try {
+                        runnable.run();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                }
+            });
+            return;
+        }
+
+        Thread thread = virtualThreadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                threads.add(Thread.currentThread());
+                active.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    active.decrementAndGet();
+                    threads.remove(Thread.currentThread());
+                }
+            }
+        });
+        thread.start();
+    }
+
+    public void shutdownNow() {
+        shutdown = true;
+        if (pool != null) {
+            pool.shutdownNow();
+            return;
+        }
+        for (Thread thread: threads) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtualThreadFactory != null;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+}
@@ -13,7 +13,8 @@ public enum TriggerTypeEnum {
     CRON(I18nUtil.getString("jobconf_trigger_type_cron")),
     RETRY(I18nUtil.getString("jobconf_trigger_type_retry")),
     PARENT(I18nUtil.getString("jobconf_trigger_type_parent")),
-    API(I18nUtil.getString("jobconf_trigger_type_api"));
+    API(I18nUtil.getString("jobconf_trigger_type_api")),
+    MISFIRE(I18nUtil.getString("jobconf_trigger_type_misfire"));
 
     private TriggerTypeEnum(String title){
         this.title = title;
@@ -23,4 +24,15 @@ public enum TriggerTypeEnum {
         return title;
     }
 
+    public static TriggerTypeEnum match(String name, TriggerTypeEnum defaultItem){
+        if (name != null) {
+            for (TriggerTypeEnum item: TriggerTypeEnum.values()) {
+                if (item.name().equals(name)) {
+                    return item;
+                }
+            }
+        }
+        return defaultItem;
+    }
+
 }
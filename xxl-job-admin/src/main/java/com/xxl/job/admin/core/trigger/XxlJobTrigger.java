@@ -5,12 +5,23 @@ import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
 import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLog;
+import com.xxl.job.admin.core.model.XxlJobTriggerDiag;
 import com.xxl.job.admin.core.route.ExecutorRouteStrategyEnum;
-import com.xxl.job.admin.core.util.I18nUtil;
+import com.xxl.job.admin.core.thread.JobGlueSourceHelper;
+import com.xxl.job.admin.core.thread.JobInfoCacheHelper;
+import com.xxl.job.admin.core.thread.JobLogIdHelper;
+import com.xxl.job.admin.core.thread.JobLogWriteHelper;
+import com.xxl.job.admin.core.thread.JobTriggerAsyncHelper;
+import com.xxl.job.admin.core.thread.JobTriggerBatchHelper;
+import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
+import com.xxl.job.admin.core.thread.JobTriggerShardingHelper;
+import com.xxl.job.admin.core.thread.JobTriggerThrottleHelper;
+import com.xxl.job.admin.core.util.TriggerMsgUtil;
 import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 import com.xxl.job.core.enums.ExecutorBlockStrategyEnum;
+import com.xxl.rpc.remoting.invoker.call.XxlRpcInvokeCallback;
 import com.xxl.rpc.util.IpUtil;
 import com.xxl.rpc.util.ThrowableUtil;
 import org.slf4j.Logger;
@@ -25,6 +36,8 @@ import java.util.Date;
 public class XxlJobTrigger {
     private static Logger logger = LoggerFactory.getLogger(XxlJobTrigger.class);
 
+    private static final long EXECUTOR_RUN_TIMEOUT = 3000;      // ms, same as executor client timeout
+
     /**
      * trigger job
      *
@@ -39,17 +52,15 @@ public class XxlJobTrigger {
      *          not null: cover job param
      */
     public static void trigger(int jobId, TriggerTypeEnum triggerType, int failRetryCount, String executorShardingParam, String executorParam) {
-        // load data
-        XxlJobInfo jobInfo = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(jobId);
+        // load data, snapshot shared by triggers, read only
+        XxlJobInfo jobInfo = JobInfoCacheHelper.getInstance().loadJobInfo(jobId);
         if (jobInfo == null) {
             logger.warn(">>>>>>>>>>>> trigger fail, jobId invalid，jobId={}", jobId);
             return;
         }
-        if (executorParam != null) {
-            jobInfo.setExecutorParam(executorParam);
-        }
+        String finalExecutorParam = executorParam!=null?executorParam:jobInfo.getExecutorParam();
         int finalFailRetryCount = failRetryCount>=0?failRetryCount:jobInfo.getExecutorFailRetryCount();
-        XxlJobGroup group = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().load(jobInfo.getJobGroup());
+        XxlJobGroup group = JobInfoCacheHelper.getInstance().loadJobGroup(jobInfo.getJobGroup());
 
         // sharding param
         int[] shardingParam = null;
@@ -64,14 +75,23 @@ public class XxlJobTrigger {
         if (ExecutorRouteStrategyEnum.SHARDING_BROADCAST==ExecutorRouteStrategyEnum.match(jobInfo.getExecutorRouteStrategy(), null)
                 && group.getRegistryList()!=null && !group.getRegistryList().isEmpty()
                 && shardingParam==null) {
-            for (int i = 0; i < group.getRegistryList().size(); i++) {
-                processTrigger(group, jobInfo, finalFailRetryCount, triggerType, i, group.getRegistryList().size());
+            // shards dispatched concurrently, log rows written in one batch
+            int total = group.getRegistryList().size();
+            JobTriggerShardingHelper.Fanout fanout = JobTriggerShardingHelper.getInstance().newFanout(total);
+            for (int i = 0; i < total; i++) {
+                fanout.acquire();
+                try {
+                    processTrigger(group, jobInfo, finalExecutorParam, finalFailRetryCount, triggerType, i, total, fanout);
+                } catch (RuntimeException e) {
+                    fanout.complete(null);
+                    logger.error(">>>>>>>>>>> xxl-job sharding trigger error, jobId:{}, index:{}", jobId, i, e);
+                }
             }
         } else {
             if (shardingParam == null) {
                 shardingParam = new int[]{0, 1};
             }
-            processTrigger(group, jobInfo, finalFailRetryCount, triggerType, shardingParam[0], shardingParam[1]);
+            processTrigger(group, jobInfo, finalExecutorParam, finalFailRetryCount, triggerType, shardingParam[0], shardingParam[1], null);
         }
 
     }
@@ -87,32 +107,41 @@ public class XxlJobTrigger {
 
     /**
      * @param group                     job group, registry list may be empty
-     * @param jobInfo
+     * @param jobInfo                   snapshot, read only
+     * @param executorParam
      * @param finalFailRetryCount
      * @param triggerType
      * @param index                     sharding index
      * @param total                     sharding index
+     * @param fanout                    sharding broadcast, null if not
      */
-    private static void processTrigger(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total){
+    private static void processTrigger(XxlJobGroup group, XxlJobInfo jobInfo, String executorParam, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total,
+                                       JobTriggerShardingHelper.Fanout fanout){
+        long startTime = System.currentTimeMillis();
 
         // param
         ExecutorBlockStrategyEnum blockStrategy = ExecutorBlockStrategyEnum.match(jobInfo.getExecutorBlockStrategy(), ExecutorBlockStrategyEnum.SERIAL_EXECUTION);  // block strategy
         ExecutorRouteStrategyEnum executorRouteStrategyEnum = ExecutorRouteStrategyEnum.match(jobInfo.getExecutorRouteStrategy(), null);    // route strategy
         String shardingParam = (ExecutorRouteStrategyEnum.SHARDING_BROADCAST==executorRouteStrategyEnum)?String.valueOf(index).concat("/").concat(String.valueOf(total)):null;
 
-        // 1、save log-id
+        // 1、allocate log-id by segment, log row written once when trigger completed; save log-id if not allocated
         XxlJobLog jobLog = new XxlJobLog();
         jobLog.setJobGroup(jobInfo.getJobGroup());
         jobLog.setJobId(jobInfo.getId());
         jobLog.setTriggerTime(new Date());
-        XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().save(jobLog);
+        long logId = JobLogIdHelper.getInstance().nextId();
+        if (logId > 0) {
+            jobLog.setId(logId);
+        } else {
+            XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().save(jobLog);
+        }
         logger.debug(">>>>>>>>>>> xxl-job trigger start, jobId:{}", jobLog.getId());
 
         // 2、init trigger-param
-        TriggerParam triggerParam = new TriggerParam();
+        final TriggerParam triggerParam = new TriggerParam();
         triggerParam.setJobId(jobInfo.getId());
         triggerParam.setExecutorHandler(jobInfo.getExecutorHandler());
-        triggerParam.setExecutorParams(jobInfo.getExecutorParam());
+        triggerParam.setExecutorParams(executorParam);
         triggerParam.setExecutorBlockStrategy(jobInfo.getExecutorBlockStrategy());
         triggerParam.setExecutorTimeout(jobInfo.getExecutorTimeout());
         triggerParam.setLogId(jobLog.getId());
@@ -123,64 +152,155 @@ public class XxlJobTrigger {
         triggerParam.setBroadcastIndex(index);
         triggerParam.setBroadcastTotal(total);
 
-        // 3、init address
+        // 3、init address, route outcome recorded into trigger diag
+        XxlJobTriggerDiag triggerDiag = new XxlJobTriggerDiag();
         String address = null;
         ReturnT<String> routeAddressResult = null;
         if (group.getRegistryList()!=null && !group.getRegistryList().isEmpty()) {
             if (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == executorRouteStrategyEnum) {
-                if (index < group.getRegistryList().size()) {
-                    address = group.getRegistryList().get(index);
-                } else {
-                    address = group.getRegistryList().get(0);
-                }
+                int addressIndex = index < group.getRegistryList().size()?index:0;
+                address = group.getRegistryList().get(addressIndex);
+                triggerDiag.setAddressIndex(addressIndex);
             } else {
-                routeAddressResult = executorRouteStrategyEnum.getRouter().route(triggerParam, group.getRegistryList());
+                routeAddressResult = executorRouteStrategyEnum.getRouter().route(triggerParam, group.getRegistryList(), triggerDiag);
                 if (routeAddressResult.getCode() == ReturnT.SUCCESS_CODE) {
                     address = routeAddressResult.getContent();
+                    triggerDiag.setAddressIndex(group.getRegistryList().indexOf(address));
                 }
             }
         } else {
-            routeAddressResult = new ReturnT<String>(ReturnT.FAIL_CODE, I18nUtil.getString("jobconf_trigger_address_empty"));
+            routeAddressResult = new ReturnT<String>(ReturnT.FAIL_CODE, null);
         }
 
-        // 4、trigger remote executor
-        ReturnT<String> triggerResult = null;
+        // 4、trigger remote executor, delayed if throttled by token bucket of job or executor address
+        final TriggerContext context = new TriggerContext(startTime, group, jobInfo, executorParam, finalFailRetryCount, triggerType, blockStrategy,
+                executorRouteStrategyEnum, shardingParam, routeAddressResult, address, jobLog, triggerDiag, fanout, triggerParam);
         if (address != null) {
-            triggerResult = runExecutor(triggerParam, address);
+            JobGlueSourceHelper.getInstance().prepare(triggerParam, jobInfo, address);
+            context.throttleDelay = JobTriggerThrottleHelper.getInstance().acquire(jobInfo.getId(), address);
+            if (context.throttleDelay > 0) {
+                JobTriggerThrottleHelper.getInstance().delay(new Runnable() {
+                    @Override
+                    public void run() {
+                        dispatch(triggerParam, context);
+                    }
+                }, context.throttleDelay);
+            } else {
+                dispatch(triggerParam, context);
+            }
         } else {
-            triggerResult = new ReturnT<String>(ReturnT.FAIL_CODE, null);
-        }
-
-        // 5、collection trigger info
-        StringBuffer triggerMsgSb = new StringBuffer();
-        triggerMsgSb.append(I18nUtil.getString("jobconf_trigger_type")).append("：").append(triggerType.getTitle());
-        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_admin_adress")).append("：").append(IpUtil.getIp());
-        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regtype")).append("：")
-                .append( (group.getAddressType() == 0)?I18nUtil.getString("jobgroup_field_addressType_0"):I18nUtil.getString("jobgroup_field_addressType_1") );
-        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regaddress")).append("：").append(group.getRegistryList());
-        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorRouteStrategy")).append("：").append(executorRouteStrategyEnum.getTitle());
-        if (shardingParam != null) {
-            triggerMsgSb.append("("+shardingParam+")");
-        }
-        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorBlockStrategy")).append("：").append(blockStrategy.getTitle());
-        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_timeout")).append("：").append(jobInfo.getExecutorTimeout());
-        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorFailRetryCount")).append("：").append(finalFailRetryCount);
-
-        triggerMsgSb.append("<br><br><span style=\"color:#00c0ef;\" > >>>>>>>>>>>"+ I18nUtil.getString("jobconf_trigger_run") +"<<<<<<<<<<< </span><br>")
-                .append((routeAddressResult!=null&&routeAddressResult.getMsg()!=null)?routeAddressResult.getMsg()+"<br><br>":"").append(triggerResult.getMsg()!=null?triggerResult.getMsg():"");
-
-        // 6、save log trigger-info
-        jobLog.setExecutorAddress(address);
-        jobLog.setExecutorHandler(jobInfo.getExecutorHandler());
-        jobLog.setExecutorParam(jobInfo.getExecutorParam());
-        jobLog.setExecutorShardingParam(shardingParam);
-        jobLog.setExecutorFailRetryCount(finalFailRetryCount);
-        //jobLog.setTriggerTime();
-        jobLog.setTriggerCode(triggerResult.getCode());
-        jobLog.setTriggerMsg(triggerMsgSb.toString());
-        XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(jobLog);
-
-        logger.debug(">>>>>>>>>>> xxl-job trigger end, jobId:{}", jobLog.getId());
+            context.complete(new ReturnT<String>(ReturnT.FAIL_CODE, null));
+        }
+    }
+
+    /**
+     * batched or async, complete in continuation; sync, complete here (shard of broadcast, in sharding pool)
+     */
+    private static void dispatch(final TriggerParam triggerParam, final TriggerContext context) {
+        context.dispatchTime = System.currentTimeMillis();
+        if (JobTriggerBatchHelper.getInstance().add(context.address, triggerParam, runCallback(context.address, context))) {
+            return;
+        }
+        if (runExecutorAsync(triggerParam, context.address, context)) {
+            return;
+        }
+        if (context.fanout != null) {
+            JobTriggerShardingHelper.getInstance().execute(new Runnable() {
+                @Override
+                public void run() {
+                    context.complete(runExecutor(triggerParam, context.address));
+                }
+            });
+        } else {
+            context.complete(runExecutor(triggerParam, context.address));
+        }
+    }
+
+    /**
+     * trigger context, complete trigger after executor run result returned
+     */
+    private static class TriggerContext {
+        private final long startTime;
+        private final XxlJobGroup group;
+        private final XxlJobInfo jobInfo;
+        private final String executorParam;
+        private final int finalFailRetryCount;
+        private final TriggerTypeEnum triggerType;
+        private final ExecutorBlockStrategyEnum blockStrategy;
+        private final ExecutorRouteStrategyEnum executorRouteStrategyEnum;
+        private final String shardingParam;
+        private final ReturnT<String> routeAddressResult;
+        private final String address;
+        private final XxlJobLog jobLog;
+        private final XxlJobTriggerDiag triggerDiag;
+        private final JobTriggerShardingHelper.Fanout fanout;
+        private final TriggerParam triggerParam;
+        private volatile long throttleDelay = 0;
+        private volatile long dispatchTime = 0;
+
+        private TriggerContext(long startTime, XxlJobGroup group, XxlJobInfo jobInfo, String executorParam, int finalFailRetryCount, TriggerTypeEnum triggerType,
+                               ExecutorBlockStrategyEnum blockStrategy, ExecutorRouteStrategyEnum executorRouteStrategyEnum, String shardingParam,
+                               ReturnT<String> routeAddressResult, String address, XxlJobLog jobLog, XxlJobTriggerDiag triggerDiag,
+                               JobTriggerShardingHelper.Fanout fanout, TriggerParam triggerParam) {
+            this.startTime = startTime;
+            this.group = group;
+            this.jobInfo = jobInfo;
+            this.executorParam = executorParam;
+            this.finalFailRetryCount = finalFailRetryCount;
+            this.triggerType = triggerType;
+            this.blockStrategy = blockStrategy;
+            this.executorRouteStrategyEnum = executorRouteStrategyEnum;
+            this.shardingParam = shardingParam;
+            this.routeAddressResult = routeAddressResult;
+            this.address = address;
+            this.jobLog = jobLog;
+            this.triggerDiag = triggerDiag;
+            this.fanout = fanout;
+            this.triggerParam = triggerParam;
+        }
+
+        private void complete(ReturnT<String> triggerResult) {
+            // job trigger cost, rpc included, throttle delay excluded
+            long nowTime = System.currentTimeMillis();
+            long triggerCost = nowTime - startTime - throttleDelay;
+            JobTriggerPoolHelper.getInstance().recordJobTriggerCost(jobInfo.getId(), triggerCost);
+            JobGlueSourceHelper.getInstance().ack(address, triggerParam, triggerResult);
+
+            // 5、collection trigger info, rendered to html when log shown
+            triggerDiag.setTriggerType(triggerType.name());
+            triggerDiag.setAdminAddress(IpUtil.getIp());
+            triggerDiag.setAddressType(group.getAddressType());
+            triggerDiag.setRegistrySize(group.getRegistryList()!=null?group.getRegistryList().size():0);
+            triggerDiag.setRouteStrategy(executorRouteStrategyEnum.name());
+            triggerDiag.setBlockStrategy(blockStrategy.name());
+            triggerDiag.setExecutorTimeout(jobInfo.getExecutorTimeout());
+            triggerDiag.setThrottleDelay(throttleDelay);
+            if (routeAddressResult != null) {
+                triggerDiag.setRouteCode(routeAddressResult.getCode());
+                triggerDiag.setRouteMsg(routeAddressResult.getMsg());
+            }
+            triggerDiag.setRunCode(triggerResult.getCode());
+            triggerDiag.setRunMsg(triggerResult.getMsg());
+            triggerDiag.setRpcCost(dispatchTime>0?nowTime - dispatchTime:0);
+            triggerDiag.setTriggerCost(triggerCost);
+
+            // 6、save log trigger-info
+            jobLog.setExecutorAddress(address);
+            jobLog.setExecutorHandler(jobInfo.getExecutorHandler());
+            jobLog.setExecutorParam(executorParam);
+            jobLog.setExecutorShardingParam(shardingParam);
+            jobLog.setExecutorFailRetryCount(finalFailRetryCount);
+            //jobLog.setTriggerTime();
+            jobLog.setTriggerCode(triggerResult.getCode());
+            jobLog.setTriggerMsg(TriggerMsgUtil.encode(triggerDiag));
+            if (fanout != null) {
+                fanout.complete(jobLog);
+            } else {
+                JobLogWriteHelper.getInstance().saveTriggerInfo(jobLog);
+            }
+
+            logger.debug(">>>>>>>>>>> xxl-job trigger end, jobId:{}", jobLog.getId());
+        }
     }
 
     /**
@@ -199,12 +319,54 @@ public class XxlJobTrigger {
             runResult = new ReturnT<String>(ReturnT.FAIL_CODE, ThrowableUtil.toString(e));
         }
 
-        StringBuffer runResultSB = new StringBuffer(I18nUtil.getString("jobconf_trigger_run") + "：");
-        runResultSB.append("<br>address：").append(address);
-        runResultSB.append("<br>code：").append(runResult.getCode());
-        runResultSB.append("<br>msg：").append(runResult.getMsg());
+        return checkRunResult(runResult);
+    }
 
-        runResult.setMsg(runResultSB.toString());
+    /**
+     * run executor async, rpc in callback mode, complete trigger in continuation
+     *
+     * @return  false if async not available, caller runs executor sync
+     */
+    private static boolean runExecutorAsync(TriggerParam triggerParam, final String address, final TriggerContext context){
+        XxlRpcInvokeCallback<ReturnT<String>> callback = JobTriggerAsyncHelper.getInstance().track(EXECUTOR_RUN_TIMEOUT, runCallback(address, context));
+        if (callback == null) {
+            return false;
+        }
+
+        try {
+            // callback mode, proxy returns null and result is handed to callback bound to current thread
+            XxlRpcInvokeCallback.setCallback(callback);
+            ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBizAsync(address);
+            executorBiz.run(triggerParam);
+        } catch (Exception e) {
+            callback.onFailure(e);
+        } finally {
+            XxlRpcInvokeCallback.removeCallback();
+        }
+        return true;
+    }
+
+    /**
+     * continuation of executor run, complete trigger
+     */
+    private static XxlRpcInvokeCallback<ReturnT<String>> runCallback(final String address, final TriggerContext context){
+        return new XxlRpcInvokeCallback<ReturnT<String>>() {
+            @Override
+            public void onSuccess(ReturnT<String> result) {
+                context.complete(checkRunResult(result));
+            }
+            @Override
+            public void onFailure(Throwable exception) {
+                logger.error(">>>>>>>>>>> xxl-job trigger error, please check if the executor[{}] is running.", address, exception);
+                context.complete(checkRunResult(new ReturnT<String>(ReturnT.FAIL_CODE, ThrowableUtil.toString(exception))));
+            }
+        };
+    }
+
+    private static ReturnT<String> checkRunResult(ReturnT<String> runResult){
+        if (runResult == null) {
+            runResult = new ReturnT<String>(ReturnT.FAIL_CODE, null);
+        }
         return runResult;
     }
 
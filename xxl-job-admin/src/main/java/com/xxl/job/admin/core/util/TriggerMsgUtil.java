@@ -0,0 +1,122 @@
+package com.xxl.job.admin.core.util;
+
+import com.xxl.job.admin.core.model.XxlJobLog;
+import com.xxl.job.admin.core.model.XxlJobTriggerDiag;
+import com.xxl.job.admin.core.route.ExecutorRouteStrategyEnum;
+import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
+import com.xxl.job.core.enums.ExecutorBlockStrategyEnum;
+
+/**
+ * trigger msg util
+ *
+ *  - trigger msg persisted as compact json of trigger diag, rendered to html only when log shown
+ *  - html trigger msg of old version kept as it is
+ *
+ * @author xuxueli 2020-05-23
+ */
+public class TriggerMsgUtil {
+
+    /**
+     * trigger diag --> trigger msg
+     */
+    public static String encode(XxlJobTriggerDiag triggerDiag) {
+        return JacksonUtil.writeValueAsString(triggerDiag);
+    }
+
+    /**
+     * trigger msg --> trigger diag
+     *
+     * @return  null if html trigger msg of old version
+     */
+    public static XxlJobTriggerDiag parse(String triggerMsg) {
+        if (triggerMsg==null || !triggerMsg.startsWith("{")) {
+            return null;
+        }
+        return JacksonUtil.readValue(triggerMsg, XxlJobTriggerDiag.class);
+    }
+
+    /**
+     * fail retry triggered, marked in trigger msg
+     */
+    public static String markRetry(String triggerMsg) {
+        XxlJobTriggerDiag triggerDiag = parse(triggerMsg);
+        if (triggerDiag == null) {
+            return triggerMsg + retryHtml();
+        }
+        triggerDiag.setRetried(true);
+        return encode(triggerDiag);
+    }
+
+    private static String retryHtml() {
+        return "<br><br><span style=\"color:#F39C12;\" > >>>>>>>>>>>"+ I18nUtil.getString("jobconf_trigger_type_retry") +"<<<<<<<<<<< </span><br>";
+    }
+
+    /**
+     * trigger msg of log --> html
+     */
+    public static String render(XxlJobLog jobLog) {
+        String triggerMsg = jobLog.getTriggerMsg();
+        XxlJobTriggerDiag triggerDiag = parse(triggerMsg);
+        if (triggerDiag == null) {
+            return triggerMsg;
+        }
+
+        TriggerTypeEnum triggerType = TriggerTypeEnum.match(triggerDiag.getTriggerType(), null);
+        ExecutorRouteStrategyEnum routeStrategy = ExecutorRouteStrategyEnum.match(triggerDiag.getRouteStrategy(), null);
+        ExecutorBlockStrategyEnum blockStrategy = ExecutorBlockStrategyEnum.match(triggerDiag.getBlockStrategy(), null);
+
+        StringBuffer triggerMsgSb = new StringBuffer();
+        triggerMsgSb.append(I18nUtil.getString("jobconf_trigger_type")).append("：").append(triggerType!=null?triggerType.getTitle():triggerDiag.getTriggerType());
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_admin_adress")).append("：").append(triggerDiag.getAdminAddress());
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regtype")).append("：")
+                .append( (triggerDiag.getAddressType() == 0)?I18nUtil.getString("jobgroup_field_addressType_0"):I18nUtil.getString("jobgroup_field_addressType_1") );
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regsize")).append("：").append(triggerDiag.getRegistrySize());
+        if (triggerDiag.getAddressIndex() >= 0) {
+            triggerMsgSb.append(" (#").append(triggerDiag.getAddressIndex()).append(")");
+        }
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorRouteStrategy")).append("：").append(routeStrategy!=null?routeStrategy.getTitle():triggerDiag.getRouteStrategy());
+        if (jobLog.getExecutorShardingParam() != null) {
+            triggerMsgSb.append("("+jobLog.getExecutorShardingParam()+")");
+        }
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorBlockStrategy")).append("：").append(blockStrategy!=null?blockStrategy.getTitle():triggerDiag.getBlockStrategy());
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_timeout")).append("：").append(triggerDiag.getExecutorTimeout());
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorFailRetryCount")).append("：").append(jobLog.getExecutorFailRetryCount());
+        if (triggerDiag.getThrottleDelay() > 0) {
+            triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_throttle_delay")).append("：").append(triggerDiag.getThrottleDelay()).append("ms");
+        }
+        triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_cost")).append("：").append(triggerDiag.getTriggerCost()).append("ms")
+                .append(" (rpc：").append(triggerDiag.getRpcCost()).append("ms)");
+
+        triggerMsgSb.append("<br><br><span style=\"color:#00c0ef;\" > >>>>>>>>>>>"+ I18nUtil.getString("jobconf_trigger_run") +"<<<<<<<<<<< </span><br>");
+
+        // route
+        if (triggerDiag.getRegistrySize() == 0) {
+            triggerMsgSb.append(I18nUtil.getString("jobconf_trigger_address_empty")).append("<br><br>");
+        } else if (triggerDiag.getBeatList() != null) {
+            String beatTitle = I18nUtil.getString("idleBeat".equals(triggerDiag.getBeatType())?"jobconf_idleBeat":"jobconf_beat");
+            for (XxlJobTriggerDiag.Beat beat: triggerDiag.getBeatList()) {
+                triggerMsgSb.append(beatTitle).append("：")
+                        .append("<br>address：").append(beat.getAddress())
+                        .append("<br>code：").append(beat.getCode())
+                        .append("<br>msg：").append(beat.getMsg())
+                        .append("<br><br>");
+            }
+        } else if (triggerDiag.getRouteMsg() != null) {
+            triggerMsgSb.append(triggerDiag.getRouteMsg()).append("<br><br>");
+        }
+
+        // run
+        if (jobLog.getExecutorAddress() != null) {
+            triggerMsgSb.append(I18nUtil.getString("jobconf_trigger_run")).append("：")
+                    .append("<br>address：").append(jobLog.getExecutorAddress())
+                    .append("<br>code：").append(triggerDiag.getRunCode())
+                    .append("<br>msg：").append(triggerDiag.getRunMsg());
+        }
+
+        if (triggerDiag.isRetried()) {
+            triggerMsgSb.append(retryHtml());
+        }
+        return triggerMsgSb.toString();
+    }
+
+}
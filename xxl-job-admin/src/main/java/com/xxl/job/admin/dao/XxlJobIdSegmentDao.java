@@ -0,0 +1,22 @@
+package com.xxl.job.admin.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * id segment
+ * @author xuxueli 2020-05-02
+ */
+@Mapper
+public interface XxlJobIdSegmentDao {
+
+	public Long loadMaxId(@Param("bizTag") String bizTag);
+
+	public int save(@Param("bizTag") String bizTag,
+					@Param("maxId") long maxId);
+
+	public int updateMaxId(@Param("bizTag") String bizTag,
+						   @Param("oldMaxId") long oldMaxId,
+						   @Param("newMaxId") long newMaxId);
+
+}
@@ -4,6 +4,7 @@ import com.xxl.job.admin.core.model.XxlJobInfo;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Date;
 import java.util.List;
 
 
@@ -32,6 +33,11 @@ public interface XxlJobInfoDao {
 	public int save(XxlJobInfo info);
 
 	public XxlJobInfo loadById(@Param("id") int id);
+
+	public int updateScheduleBucket(@Param("id") int id,
+									@Param("bucketCount") int bucketCount);
+
+	public List<XxlJobInfo> findUpdateVersion(@Param("updateTimeFrom") Date updateTimeFrom);
 	
 	public int update(XxlJobInfo xxlJobInfo);
 	
@@ -41,9 +47,28 @@ public interface XxlJobInfoDao {
 
 	public int findAllCount();
 
-	public List<XxlJobInfo> scheduleJobQuery(@Param("maxNextTime") long maxNextTime, @Param("pagesize") int pagesize );
+	public List<XxlJobInfo> scheduleJobQuery(@Param("maxNextTime") long maxNextTime,
+											 @Param("pagesize") int pagesize,
+											 @Param("buckets") List<Integer> buckets);
 
 	public int scheduleUpdate(XxlJobInfo xxlJobInfo);
 
+	public int scheduleUpdateBatch(@Param("list") List<XxlJobInfo> list,
+								   @Param("expectNextTimes") List<Long> expectNextTimes);
+
+	public List<XxlJobInfo> scheduleIndexQuery();
+
+	public List<XxlJobInfo> scheduleIndexLoad(@Param("ids") List<Integer> ids);
+
+	public List<XxlJobInfo> scheduleIndexUpdateQuery(@Param("updateTimeFrom") Date updateTimeFrom);
+
+	public XxlJobInfo fixDelayLoad(@Param("id") int id);
+
+	public int fixDelayUpdate(@Param("id") int id,
+							  @Param("fireTime") long fireTime,
+							  @Param("triggerLastTime") long triggerLastTime,
+							  @Param("triggerNextTime") long triggerNextTime,
+							  @Param("updateTime") Date updateTime);
+
 
 }
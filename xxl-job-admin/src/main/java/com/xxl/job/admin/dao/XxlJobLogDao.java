@@ -37,7 +37,15 @@ public interface XxlJobLogDao {
 
 	public int updateTriggerInfo(XxlJobLog xxlJobLog);
 
+	public int saveTriggerInfo(XxlJobLog xxlJobLog);
+
+	public int saveTriggerInfoBatch(@Param("logList") List<XxlJobLog> logList);
+
+	public long findMaxId();
+
 	public int updateHandleInfo(XxlJobLog xxlJobLog);
+
+	public int updateHandleInfoBatch(@Param("logList") List<XxlJobLog> logList);
 	
 	public int delete(@Param("jobId") int jobId);
 
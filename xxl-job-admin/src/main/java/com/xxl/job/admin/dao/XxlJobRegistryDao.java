@@ -21,6 +21,9 @@ public interface XxlJobRegistryDao {
     public List<XxlJobRegistry> findAll(@Param("timeout") int timeout,
                                         @Param("nowTime") Date nowTime);
 
+    public List<XxlJobRegistry> findByKey(@Param("registryGroup") String registryGroup,
+                                          @Param("registryKey") String registryKey);
+
     public int registryUpdate(@Param("registryGroup") String registryGroup,
                               @Param("registryKey") String registryKey,
                               @Param("registryValue") String registryValue,
@@ -0,0 +1,28 @@
+package com.xxl.job.admin.dao;
+
+import com.xxl.job.admin.core.model.XxlJobRingCheckpoint;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * time-ring checkpoint
+ * @author xuxueli 2020-03-14
+ */
+@Mapper
+public interface XxlJobRingCheckpointDao {
+
+	public int saveBatch(@Param("list") List<XxlJobRingCheckpoint> list,
+						 @Param("bucketCount") int bucketCount);
+
+	public int ack(@Param("adminId") String adminId,
+				   @Param("triggerTimeTo") long triggerTimeTo);
+
+	public List<XxlJobRingCheckpoint> findExpired(@Param("triggerTimeTo") long triggerTimeTo,
+												  @Param("pagesize") int pagesize,
+												  @Param("buckets") List<Integer> buckets);
+
+	public int delete(@Param("id") long id);
+
+}
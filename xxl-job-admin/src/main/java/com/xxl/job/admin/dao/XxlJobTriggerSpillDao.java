@@ -0,0 +1,25 @@
+package com.xxl.job.admin.dao;
+
+import com.xxl.job.admin.core.model.XxlJobTriggerSpill;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * trigger spill
+ * @author xuxueli 2020-03-28
+ */
+@Mapper
+public interface XxlJobTriggerSpillDao {
+
+	public int save(XxlJobTriggerSpill triggerSpill);
+
+	public List<XxlJobTriggerSpill> findAfter(@Param("lastId") long lastId,
+											  @Param("pagesize") int pagesize);
+
+	public int delete(@Param("id") long id);
+
+	public int count();
+
+}
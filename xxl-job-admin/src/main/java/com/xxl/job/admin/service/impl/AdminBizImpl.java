@@ -2,17 +2,24 @@ package com.xxl.job.admin.service.impl;
 
 import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLog;
+import com.xxl.job.admin.core.model.XxlJobLogGlue;
+import com.xxl.job.admin.core.thread.JobCallbackPendingHelper;
+import com.xxl.job.admin.core.thread.JobLogWriteHelper;
+import com.xxl.job.admin.core.thread.JobScheduleHelper;
 import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
 import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.admin.dao.XxlJobGroupDao;
 import com.xxl.job.admin.dao.XxlJobInfoDao;
 import com.xxl.job.admin.dao.XxlJobLogDao;
+import com.xxl.job.admin.dao.XxlJobLogGlueDao;
 import com.xxl.job.admin.dao.XxlJobRegistryDao;
 import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.GlueSourceParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.glue.GlueSourceCache;
 import com.xxl.job.core.handler.IJobHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,7 +29,9 @@ import org.springframework.util.StringUtils;
 import javax.annotation.Resource;
 import java.text.MessageFormat;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author xuxueli 2017-07-27 21:54:20
@@ -39,23 +48,43 @@ public class AdminBizImpl implements AdminBiz {
     private XxlJobRegistryDao xxlJobRegistryDao;
     @Resource
     private XxlJobGroupDao xxlJobGroupDao;
+    @Resource
+    private XxlJobLogGlueDao xxlJobLogGlueDao;
+
 
+    private static final long CALLBACK_WRITE_TIMEOUT = 2 * 1000;     // well below executor rpc timeout (3s), handed to pending helper after
 
     @Override
     public ReturnT<String> callback(List<HandleCallbackParam> callbackParamList) {
+        Map<HandleCallbackParam, JobLogWriteHelper.WriteResult> writeResultMap = new LinkedHashMap<HandleCallbackParam, JobLogWriteHelper.WriteResult>();
         for (HandleCallbackParam handleCallbackParam: callbackParamList) {
-            ReturnT<String> callbackResult = callback(handleCallbackParam);
+            ReturnT<String> callbackResult = callback(handleCallbackParam, writeResultMap);
             logger.debug(">>>>>>>>> JobApiController.callback {}, handleCallbackParam={}, callbackResult={}",
                     (callbackResult.getCode()==IJobHandler.SUCCESS.getCode()?"success":"fail"), handleCallbackParam, callbackResult);
         }
 
+        // ack after handle info written, executor retries callback if write fail; write not done in time, handed to pending helper
+        long deadline = System.currentTimeMillis() + CALLBACK_WRITE_TIMEOUT;
+        for (Map.Entry<HandleCallbackParam, JobLogWriteHelper.WriteResult> item: writeResultMap.entrySet()) {
+            JobLogWriteHelper.WriteResult writeResult = item.getValue();
+            if (writeResult.await(Math.max(0, deadline - System.currentTimeMillis()))) {
+                continue;
+            }
+            if (writeResult.isDone() || !JobCallbackPendingHelper.getInstance().parkWrite(item.getKey(), writeResult)) {
+                return new ReturnT<String>(ReturnT.FAIL_CODE, "log write fail.");
+            }
+        }
         return ReturnT.SUCCESS;
     }
 
-    private ReturnT<String> callback(HandleCallbackParam handleCallbackParam) {
+    private ReturnT<String> callback(HandleCallbackParam handleCallbackParam, Map<HandleCallbackParam, JobLogWriteHelper.WriteResult> writeResultMap) {
         // valid log item
-        XxlJobLog log = xxlJobLogDao.load(handleCallbackParam.getLogId());
+        XxlJobLog log = JobLogWriteHelper.getInstance().load(handleCallbackParam.getLogId());
         if (log == null) {
+            // log row written after trigger rpc returned, callback may come first
+            if (JobCallbackPendingHelper.getInstance().park(handleCallbackParam)) {
+                return new ReturnT<String>(ReturnT.FAIL_CODE, "log item not written yet, callback pending.");
+            }
             return new ReturnT<String>(ReturnT.FAIL_CODE, "log item not found.");
         }
         if (log.getHandleCode() > 0) {
@@ -111,7 +140,10 @@ public class AdminBizImpl implements AdminBiz {
         log.setHandleTime(new Date());
         log.setHandleCode(handleCallbackParam.getExecuteResult().getCode());
         log.setHandleMsg(handleMsg.toString());
-        xxlJobLogDao.updateHandleInfo(log);
+        writeResultMap.put(handleCallbackParam, JobLogWriteHelper.getInstance().updateHandleInfo(log));
+
+        // fix delay job, schedule next after finished
+        JobScheduleHelper.getInstance().fixDelayFinished(log.getJobId(), log.getHandleTime().getTime());
 
         return ReturnT.SUCCESS;
     }
@@ -168,4 +200,33 @@ public class AdminBizImpl implements AdminBiz {
         // Under consideration, prevent affecting core tables
     }
 
+    @Override
+    public ReturnT<String> loadGlueSource(GlueSourceParam glueSourceParam) {
+
+        // valid
+        if (glueSourceParam==null || !StringUtils.hasText(glueSourceParam.getGlueHash())) {
+            return new ReturnT<String>(ReturnT.FAIL_CODE, "Illegal Argument.");
+        }
+
+        // current version
+        XxlJobInfo jobInfo = xxlJobInfoDao.loadById(glueSourceParam.getJobId());
+        if (jobInfo == null) {
+            return new ReturnT<String>(ReturnT.FAIL_CODE, "job not found.");
+        }
+        if (glueSourceParam.getGlueHash().equals(GlueSourceCache.hash(jobInfo.getGlueSource()))) {
+            return new ReturnT<String>(jobInfo.getGlueSource());
+        }
+
+        // history version, glue updated after triggered
+        List<XxlJobLogGlue> jobLogGlues = xxlJobLogGlueDao.findByJobId(glueSourceParam.getJobId());
+        if (jobLogGlues != null) {
+            for (XxlJobLogGlue jobLogGlue: jobLogGlues) {
+                if (glueSourceParam.getGlueHash().equals(GlueSourceCache.hash(jobLogGlue.getGlueSource()))) {
+                    return new ReturnT<String>(jobLogGlue.getGlueSource());
+                }
+            }
+        }
+        return new ReturnT<String>(ReturnT.FAIL_CODE, "glue source not found.");
+    }
+
 }
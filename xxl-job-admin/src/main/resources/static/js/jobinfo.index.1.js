@@ -65,7 +65,13 @@ $(function() {
 					{
 						"data": 'jobCron',
 						"visible" : true,
-						"width":'13%'
+						"width":'13%',
+						"render": function ( data, type, row ) {
+							if (row.scheduleType && row.scheduleType != 'CRON') {
+								return row.scheduleType + ' ' + row.scheduleInterval + 'ms';
+							}
+							return data;
+						}
 					},
 	                {
 	                	"data": 'addTime',
@@ -377,7 +383,9 @@ $(function() {
 				maxlength: 50
 			},
             jobCron : {
-            	required : true
+            	required : function () {
+            		return $("#addModal .form select[name='scheduleType']").val() == 'CRON';
+				}
             },
 			author : {
 				required : true
@@ -387,6 +395,9 @@ $(function() {
             },
             executorFailRetryCount : {
                 digits:true
+            },
+            scheduleInterval : {
+                digits:true
             }
         },
         messages : {
@@ -404,6 +415,9 @@ $(function() {
             },
             executorFailRetryCount : {
                 digits: I18n.system_please_input + I18n.system_digits
+            },
+            scheduleInterval : {
+                digits: I18n.system_please_input + I18n.system_digits
             }
         },
 		highlight : function(element) {
@@ -429,6 +443,11 @@ $(function() {
                 executorFailRetryCount = 0;
             }
             $("#addModal .form input[name='executorFailRetryCount']").val(executorFailRetryCount);
+            var scheduleInterval = $("#addModal .form input[name='scheduleInterval']").val();
+            if(!/^\d+$/.test(scheduleInterval)) {
+                scheduleInterval = 0;
+            }
+            $("#addModal .form input[name='scheduleInterval']").val(scheduleInterval);
 
             // process-cronGen
             $("#addModal .form input[name='jobCron']").val( $("#addModal .form input[name='cronGen_display']").val() );
@@ -511,6 +530,8 @@ $(function() {
 		$('#updateModal .form select[name=jobGroup] option[value='+ row.jobGroup +']').prop('selected', true);
 		$("#updateModal .form input[name='jobDesc']").val( row.jobDesc );
 		$("#updateModal .form input[name='jobCron']").val( row.jobCron );
+		$('#updateModal .form select[name=scheduleType] option[value='+ row.scheduleType +']').prop('selected', true);
+		$("#updateModal .form input[name='scheduleInterval']").val( row.scheduleInterval );
 		$("#updateModal .form input[name='author']").val( row.author );
 		$("#updateModal .form input[name='alarmEmail']").val( row.alarmEmail );
 		$("#updateModal .form input[name='executorTimeout']").val( row.executorTimeout );
@@ -520,6 +541,7 @@ $(function() {
 		$("#updateModal .form textarea[name='executorParam']").val( row.executorParam );
         $("#updateModal .form input[name='childJobId']").val( row.childJobId );
 		$('#updateModal .form select[name=executorBlockStrategy] option[value='+ row.executorBlockStrategy +']').prop('selected', true);
+		$('#updateModal .form select[name=misfireStrategy] option[value='+ row.misfireStrategy +']').prop('selected', true);
 		$('#updateModal .form select[name=glueType] option[value='+ row.glueType +']').prop('selected', true);
 
         $("#updateModal .form select[name=glueType]").change();
@@ -542,7 +564,9 @@ $(function() {
 				maxlength: 50
 			},
 			jobCron : {
-				required : true
+				required : function () {
+					return $("#updateModal .form select[name='scheduleType']").val() == 'CRON';
+				}
 			},
 			author : {
 				required : true
@@ -552,6 +576,9 @@ $(function() {
             },
             executorFailRetryCount : {
                 digits:true
+            },
+            scheduleInterval : {
+                digits:true
             }
 		},
 		messages : {
@@ -569,6 +596,9 @@ $(function() {
             },
             executorFailRetryCount : {
                 digits: I18n.system_please_input + I18n.system_digits
+            },
+            scheduleInterval : {
+                digits: I18n.system_please_input + I18n.system_digits
             }
 		},
 		highlight : function(element) {
@@ -594,6 +624,11 @@ $(function() {
                 executorFailRetryCount = 0;
             }
             $("#updateModal .form input[name='executorFailRetryCount']").val(executorFailRetryCount);
+            var scheduleInterval = $("#updateModal .form input[name='scheduleInterval']").val();
+            if(!/^\d+$/.test(scheduleInterval)) {
+                scheduleInterval = 0;
+            }
+            $("#updateModal .form input[name='scheduleInterval']").val(scheduleInterval);
 
             // process-cronGen
             $("#updateModal .form input[name='jobCron']").val( $("#updateModal .form input[name='cronGen_display']").val() );
@@ -0,0 +1,146 @@
+package com.xxl.job.admin.core.cron;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class CronBitExpressionTest {
+
+    /**
+     * check count: about 130k by default (fixed 21*5*300 + random 400*5*50); long run opt-in, e.g. "-Dxxl.job.cron.test.scale=20" for about 2.6 million
+     */
+    private static final int SCALE = Math.max(1, Integer.getInteger("xxl.job.cron.test.scale", 1));
+
+    private static final String[] TIME_ZONES = {"UTC", "Asia/Shanghai", "America/New_York", "Europe/London", "Australia/Sydney"};
+
+    private static final String[] FIXED_EXPRESSIONS = {
+            "* * * * * ?",
+            "0/5 * * * * ?",
+            "0 0/15 9-17 * * ?",
+            "0 0 0 * * ?",
+            "30 10 2 * * ?",
+            "0 0 12 ? * MON-FRI",
+            "0 0 10 ? * SAT,SUN",
+            "0 0 0 L * ?",
+            "0 0 0 L-3 * ?",
+            "0 15 10 LW * ?",
+            "0 15 10 15W * ?",
+            "0 15 10 1W * ?",
+            "0 15 10 31W * ?",
+            "0 15 10 ? * 6L",
+            "0 15 10 ? * 2#1",
+            "0 15 10 ? * 6#5",
+            "0 0 0 29 2 ?",
+            "0 0 0 31 * ?",
+            "0 0 0 1 1 ? 2030",
+            "0 0 0 1 1 ? 2020-2035/3",
+            "59 59 23 31 12 ?",
+    };
+
+    @Test
+    public void shouldMatchLegacyEngineForFixedExpressions() throws ParseException {
+        //given
+        Random random = new Random(20200215L);
+        List<String> expressions = new ArrayList<String>();
+        for (String expression: FIXED_EXPRESSIONS) {
+            expressions.add(expression);
+        }
+
+        //when then
+        assertSameAsLegacy(expressions, random, 300 * SCALE);
+    }
+
+    @Test
+    public void shouldMatchLegacyEngineForRandomExpressions() throws ParseException {
+        //given
+        Random random = new Random(20200216L);
+        List<String> expressions = new ArrayList<String>();
+        while (expressions.size() < 400) {
+            String expression = randomExpression(random);
+            if (CronExpression.isValidExpression(expression)) {
+                expressions.add(expression);
+            }
+        }
+
+        //when then
+        assertSameAsLegacy(expressions, random, 50 * SCALE);
+    }
+
+    private void assertSameAsLegacy(List<String> expressions, Random random, int timesPerZone) throws ParseException {
+        // 2000-01-01 ~ 2040-01-01
+        long minTime = 946684800000L;
+        long span = 1262304000000L;
+
+        for (String expression: expressions) {
+            for (String zone: TIME_ZONES) {
+                CronExpression legacy = new CronExpression(expression);
+                legacy.setTimeZone(TimeZone.getTimeZone(zone));
+                CronBitExpression bitset = new CronBitExpression(legacy);
+                boolean weekday = expression.indexOf('W') > -1;
+
+                for (int i = 0; i < timesPerZone; i++) {
+                    // random millisecond; legacy "W" rule compares with a calendar carrying current millisecond, compared at second
+                    long afterTime = minTime + (long) (random.nextDouble() * span);
+                    long legacyAfterTime = weekday ? afterTime / 1000 * 1000 : afterTime;
+
+                    Date expected = legacy.getTimeAfter(new Date(legacyAfterTime));
+                    long actual = bitset.getTimeAfter(afterTime);
+
+                    assertEquals(expression + " @" + zone + " after " + afterTime,
+                            expected != null ? expected.getTime() : -1,
+                            actual);
+                }
+            }
+        }
+    }
+
+    private String randomExpression(Random random) {
+        StringBuilder expression = new StringBuilder();
+        expression.append(randomField(random, 0, 59)).append(' ');
+        expression.append(randomField(random, 0, 59)).append(' ');
+        expression.append(randomField(random, 0, 23)).append(' ');
+
+        String[] dayOfMonth = {"L", "LW", "L-2", "10W", "1W", "30W"};
+        String[] dayOfWeek = {"5L", "1L", "3#2", "7#4", "2#5"};
+        if (random.nextBoolean()) {
+            expression.append(random.nextInt(4) == 0 ? dayOfMonth[random.nextInt(dayOfMonth.length)] : randomField(random, 1, 31));
+            expression.append(' ').append(randomField(random, 1, 12)).append(" ?");
+        } else {
+            expression.append("? ").append(randomField(random, 1, 12)).append(' ');
+            expression.append(random.nextInt(4) == 0 ? dayOfWeek[random.nextInt(dayOfWeek.length)] : randomField(random, 1, 7));
+        }
+
+        if (random.nextInt(5) == 0) {
+            int from = 2000 + random.nextInt(45);
+            expression.append(' ').append(from).append('-').append(from + random.nextInt(10)).append('/').append(1 + random.nextInt(3));
+        }
+        return expression.toString();
+    }
+
+    private String randomField(Random random, int min, int max) {
+        int span = max - min + 1;
+        int from = min + random.nextInt(span);
+        switch (random.nextInt(6)) {
+            case 0:
+                return "*";
+            case 1:
+                return String.valueOf(from);
+            case 2:
+                return from + "-" + (from + random.nextInt(max - from + 1));
+            case 3:
+                return from + "/" + (1 + random.nextInt(span));
+            case 4:
+                return from + "," + (min + random.nextInt(span)) + "," + (min + random.nextInt(span));
+            default:
+                return (from + random.nextInt(max - from + 1)) + "-" + max + "/" + (1 + random.nextInt(5));
+        }
+    }
+
+}
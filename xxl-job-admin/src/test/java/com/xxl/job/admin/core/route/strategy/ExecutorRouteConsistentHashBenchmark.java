@@ -0,0 +1,128 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * consistent hash route benchmark and balance report, run as main
+ *
+ *  - route cost: ring of md5 + TreeMap rebuilt on each route (old version) vs cached long[] ring
+ *  - balance: max/min jobs of address by virtual node num
+ *  - stability: jobs moved when address added or removed
+ *
+ * @author xuxueli 2020-06-13
+ */
+public class ExecutorRouteConsistentHashBenchmark {
+
+    private static final int JOB_NUM = 100000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> addressList = addressList(10);
+
+        // route cost
+        ExecutorRouteConsistentHash router = new ExecutorRouteConsistentHash();
+        for (int round = 0; round < 3; round++) {
+            long startTime = System.nanoTime();
+            for (int jobId = 1; jobId <= JOB_NUM; jobId++) {
+                legacyHashJob(jobId, addressList);
+            }
+            long legacyCost = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            for (int jobId = 1; jobId <= JOB_NUM; jobId++) {
+                router.hashJob(jobId, addressList);
+            }
+            long ringCost = System.nanoTime() - startTime;
+
+            System.out.println("round " + round + ", address:10, route ns/op, md5+TreeMap(5 vnodes):" + (legacyCost / JOB_NUM)
+                    + ", cached ring(100 vnodes):" + (ringCost / JOB_NUM));
+        }
+
+        // balance + stability
+        List<String> addedList = addressList(11);
+        List<String> removedList = new ArrayList<String>(addressList);
+        removedList.remove(3);
+        for (int virtualNodeNum: new int[]{5, 50, 100, 200, 500}) {
+            ExecutorRouteConsistentHash.Ring ring = new ExecutorRouteConsistentHash.Ring(addressList, virtualNodeNum);
+            ExecutorRouteConsistentHash.Ring addedRing = new ExecutorRouteConsistentHash.Ring(addedList, virtualNodeNum);
+            ExecutorRouteConsistentHash.Ring removedRing = new ExecutorRouteConsistentHash.Ring(removedList, virtualNodeNum);
+
+            Map<String, Integer> loadMap = new HashMap<String, Integer>();
+            int addMoved = 0;
+            int removeMoved = 0;
+            for (int jobId = 1; jobId <= JOB_NUM; jobId++) {
+                long jobHash = ExecutorRouteConsistentHash.hash(jobId);
+                String address = ring.locate(jobHash);
+                loadMap.put(address, loadMap.containsKey(address)?loadMap.get(address)+1:1);
+                if (!address.equals(addedRing.locate(jobHash))) {
+                    addMoved++;
+                }
+                if (!address.equals(removedRing.locate(jobHash))) {
+                    removeMoved++;
+                }
+            }
+            System.out.println("vnodes:" + virtualNodeNum + balance(loadMap, addressList.size())
+                    + ", moved of add:" + (addMoved * 1.0 / JOB_NUM) + " (ideal " + (1.0 / addedList.size()) + ")"
+                    + ", moved of remove:" + (removeMoved * 1.0 / JOB_NUM) + " (ideal " + (1.0 / addressList.size()) + ")");
+        }
+
+        Map<String, Integer> legacyLoadMap = new HashMap<String, Integer>();
+        for (int jobId = 1; jobId <= JOB_NUM; jobId++) {
+            String address = legacyHashJob(jobId, addressList);
+            legacyLoadMap.put(address, legacyLoadMap.containsKey(address)?legacyLoadMap.get(address)+1:1);
+        }
+        System.out.println("md5+TreeMap(5 vnodes)" + balance(legacyLoadMap, addressList.size()));
+    }
+
+    private static String balance(Map<String, Integer> loadMap, int addressNum) {
+        int avg = JOB_NUM / addressNum;
+        int max = 0;
+        int min = loadMap.size()<addressNum?0:Integer.MAX_VALUE;
+        for (int load: loadMap.values()) {
+            max = Math.max(max, load);
+            min = Math.min(min, load);
+        }
+        return ", max/avg:" + (max * 1.0 / avg) + ", min/avg:" + (min * 1.0 / avg);
+    }
+
+    private static List<String> addressList(int size) {
+        List<String> addressList = new ArrayList<String>();
+        for (int i = 0; i < size; i++) {
+            addressList.add("192.168.0." + (i + 1) + ":9999");
+        }
+        return addressList;
+    }
+
+    // ---------------------- old version ----------------------
+
+    private static long legacyHash(String key) throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        md5.update(key.getBytes("UTF-8"));
+        byte[] digest = md5.digest();
+        long hashCode = ((long) (digest[3] & 0xFF) << 24)
+                | ((long) (digest[2] & 0xFF) << 16)
+                | ((long) (digest[1] & 0xFF) << 8)
+                | (digest[0] & 0xFF);
+        return hashCode & 0xffffffffL;
+    }
+
+    private static String legacyHashJob(int jobId, List<String> addressList) throws Exception {
+        TreeMap<Long, String> addressRing = new TreeMap<Long, String>();
+        for (String address: addressList) {
+            for (int i = 0; i < 5; i++) {
+                addressRing.put(legacyHash("SHARD-" + address + "-NODE-" + i), address);
+            }
+        }
+        SortedMap<Long, String> lastRing = addressRing.tailMap(legacyHash(String.valueOf(jobId)));
+        if (!lastRing.isEmpty()) {
+            return lastRing.get(lastRing.firstKey());
+        }
+        return addressRing.firstEntry().getValue();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorRouteConsistentHashTest {
+
+    private static final int JOB_NUM = 100000;
+
+    @Test
+    public void shouldBalanceJobsOverAddresses() {
+        //given
+        List<String> addressList = addressList(10);
+        ExecutorRouteConsistentHash.Ring ring = new ExecutorRouteConsistentHash.Ring(addressList, 100);
+
+        //when
+        Map<String, Integer> loadMap = new HashMap<String, Integer>();
+        for (int jobId = 1; jobId <= JOB_NUM; jobId++) {
+            String address = ring.locate(ExecutorRouteConsistentHash.hash(jobId));
+            loadMap.put(address, loadMap.containsKey(address)?loadMap.get(address)+1:1);
+        }
+
+        //then
+        int avg = JOB_NUM / addressList.size();
+        int max = 0;
+        int min = Integer.MAX_VALUE;
+        for (int load: loadMap.values()) {
+            max = Math.max(max, load);
+            min = Math.min(min, load);
+        }
+        System.out.println("balance, address:10, vnodes:100, jobs:" + JOB_NUM + ", max/avg:" + (max * 1.0 / avg) + ", min/avg:" + (min * 1.0 / avg));
+        assertEquals(addressList.size(), loadMap.size());
+        assertTrue(max < avg * 1.3);
+        assertTrue(min > avg * 0.7);
+    }
+
+    @Test
+    public void shouldMoveOnlyJobsOfChangedAddress() {
+        //given
+        List<String> addressList = addressList(10);
+        List<String> addedList = addressList(11);
+        List<String> removedList = new ArrayList<String>(addressList);
+        String removedAddress = removedList.remove(3);
+        String addedAddress = addedList.get(10);
+        ExecutorRouteConsistentHash.Ring ring = new ExecutorRouteConsistentHash.Ring(addressList, 100);
+        ExecutorRouteConsistentHash.Ring addedRing = new ExecutorRouteConsistentHash.Ring(addedList, 100);
+        ExecutorRouteConsistentHash.Ring removedRing = new ExecutorRouteConsistentHash.Ring(removedList, 100);
+
+        //when
+        int addMoved = 0;
+        int addMovedElsewhere = 0;
+        int removeMoved = 0;
+        int removeMovedElsewhere = 0;
+        for (int jobId = 1; jobId <= JOB_NUM; jobId++) {
+            long jobHash = ExecutorRouteConsistentHash.hash(jobId);
+            String address = ring.locate(jobHash);
+
+            String addedAddressOfJob = addedRing.locate(jobHash);
+            if (!addedAddressOfJob.equals(address)) {
+                addMoved++;
+                if (!addedAddressOfJob.equals(addedAddress)) {
+                    addMovedElsewhere++;
+                }
+            }
+            String removedAddressOfJob = removedRing.locate(jobHash);
+            if (!removedAddressOfJob.equals(address)) {
+                removeMoved++;
+                if (!address.equals(removedAddress)) {
+                    removeMovedElsewhere++;
+                }
+            }
+        }
+
+        //then
+        System.out.println("stability, address:10, vnodes:100, jobs:" + JOB_NUM + ", moved of add:" + (addMoved * 1.0 / JOB_NUM) + ", moved of remove:" + (removeMoved * 1.0 / JOB_NUM));
+        assertEquals(0, addMovedElsewhere);
+        assertEquals(0, removeMovedElsewhere);
+        assertTrue(addMoved < JOB_NUM * 0.15);
+        assertTrue(removeMoved < JOB_NUM * 0.15);
+    }
+
+    @Test
+    public void shouldBuildRingOncePerAddressList() {
+        //given
+        ExecutorRouteConsistentHash router = new ExecutorRouteConsistentHash();
+
+        //when
+        ExecutorRouteConsistentHash.Ring ring = router.loadRing(addressList(3));
+        ExecutorRouteConsistentHash.Ring sameRing = router.loadRing(addressList(3));
+        ExecutorRouteConsistentHash.Ring otherRing = router.loadRing(addressList(4));
+
+        //then
+        assertSame(ring, sameRing);
+        assertTrue(ring != otherRing);
+        assertEquals(router.hashJob(1, addressList(3)), ring.locate(ExecutorRouteConsistentHash.hash(1)));
+    }
+
+    private List<String> addressList(int size) {
+        List<String> addressList = new ArrayList<String>();
+        for (int i = 0; i < size; i++) {
+            addressList.add("192.168.0." + (i + 1) + ":9999");
+        }
+        return addressList;
+    }
+
+}
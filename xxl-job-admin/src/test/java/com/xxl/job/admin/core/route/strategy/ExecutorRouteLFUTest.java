@@ -0,0 +1,77 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorRouteLFUTest {
+
+    @Test
+    public void shouldBalanceConcurrentTriggersOfSameJob() throws Exception {
+        //given
+        final ExecutorRouteLFU router = new ExecutorRouteLFU();
+        final List<String> addressList = Arrays.asList("127.0.0.1:9997", "127.0.0.1:9998", "127.0.0.1:9999", "127.0.0.1:10000");
+        final ConcurrentMap<String, AtomicInteger> routeCountMap = new ConcurrentHashMap<String, AtomicInteger>();
+        for (String address: addressList) {
+            routeCountMap.put(address, new AtomicInteger(0));
+        }
+        final CountDownLatch latch = new CountDownLatch(8);
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        routeCountMap.get(router.route(1, addressList)).incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        //then
+        int max = 0;
+        int min = Integer.MAX_VALUE;
+        for (AtomicInteger routeCount: routeCountMap.values()) {
+            max = Math.max(max, routeCount.get());
+            min = Math.min(min, routeCount.get());
+        }
+        assertTrue(max - min <= addressList.size());
+        assertEquals(1, router.jobStateCount());
+    }
+
+    @Test
+    public void shouldRouteNewAddressWithoutFloodingIt() {
+        //given
+        ExecutorRouteLFU router = new ExecutorRouteLFU();
+        List<String> addressList = Arrays.asList("127.0.0.1:9998", "127.0.0.1:9999");
+        for (int i = 0; i < 1000; i++) {
+            router.route(1, addressList);
+        }
+
+        //when
+        List<String> addedList = Arrays.asList("127.0.0.1:9998", "127.0.0.1:9999", "127.0.0.1:10000");
+        int newAddressCount = 0;
+        for (int i = 0; i < 30; i++) {
+            if ("127.0.0.1:10000".equals(router.route(1, addedList))) {
+                newAddressCount++;
+            }
+        }
+        String removedRoute = router.route(1, Arrays.asList("127.0.0.1:10000"));
+
+        //then
+        assertTrue(newAddressCount >= 8 && newAddressCount <= 12);
+        assertEquals("127.0.0.1:10000", removedRoute);
+    }
+
+}
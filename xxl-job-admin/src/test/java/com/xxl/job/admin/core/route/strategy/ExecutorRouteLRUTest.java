@@ -0,0 +1,49 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExecutorRouteLRUTest {
+
+    @Test
+    public void shouldRouteLeastRecentlyUsedAddress() {
+        //given
+        ExecutorRouteLRU router = new ExecutorRouteLRU();
+        List<String> addressList = Arrays.asList("127.0.0.1:9997", "127.0.0.1:9998", "127.0.0.1:9999");
+
+        //when
+        String first = router.route(1, addressList);
+        String second = router.route(1, addressList);
+        String third = router.route(1, addressList);
+        String fourth = router.route(1, addressList);
+
+        //then
+        assertEquals("127.0.0.1:9997", first);
+        assertEquals("127.0.0.1:9998", second);
+        assertEquals("127.0.0.1:9999", third);
+        assertEquals("127.0.0.1:9997", fourth);
+    }
+
+    @Test
+    public void shouldRouteNewAddressFirstAndDropRemoved() {
+        //given
+        ExecutorRouteLRU router = new ExecutorRouteLRU();
+        router.route(1, Arrays.asList("127.0.0.1:9997", "127.0.0.1:9998"));
+
+        //when
+        List<String> changedList = Arrays.asList("127.0.0.1:9998", "127.0.0.1:9999");
+        String first = router.route(1, changedList);
+        String second = router.route(1, changedList);
+        String third = router.route(1, changedList);
+
+        //then
+        assertEquals("127.0.0.1:9999", first);
+        assertEquals("127.0.0.1:9998", second);
+        assertEquals("127.0.0.1:9999", third);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JobRouteStateMapTest {
+
+    @Test
+    public void shouldEvictIdleJobState() {
+        //given
+        JobRouteStateMap<CountState> stateMap = new JobRouteStateMap<CountState>() {
+            @Override
+            protected CountState newState() {
+                return new CountState();
+            }
+        };
+        List<String> addressList = Arrays.asList("127.0.0.1:9999");
+        long nowTime = 100000;
+        stateMap.route(1, addressList, nowTime);
+        stateMap.route(2, addressList, nowTime);
+
+        //when
+        long laterTime = nowTime + JobRouteStateMap.IDLE_EXPIRE;
+        stateMap.route(2, addressList, laterTime);
+        String route = stateMap.route(3, addressList, laterTime + JobRouteStateMap.SWEEP_INTERVAL);
+
+        //then
+        assertEquals(2, stateMap.size());
+        assertEquals("127.0.0.1:9999#1", route);
+    }
+
+    @Test
+    public void shouldSyncAddressListOnlyWhenChanged() {
+        //given
+        JobRouteStateMap<CountState> stateMap = new JobRouteStateMap<CountState>() {
+            @Override
+            protected CountState newState() {
+                return new CountState();
+            }
+        };
+        List<String> addressList = Arrays.asList("127.0.0.1:9999");
+
+        //when
+        stateMap.route(1, addressList, 100000);
+        stateMap.route(1, addressList, 100000);
+        String route = stateMap.route(1, Arrays.asList("127.0.0.1:9999"), 100000);
+
+        //then
+        assertEquals("127.0.0.1:9999#2", route);
+    }
+
+    private static class CountState extends JobRouteStateMap.State {
+        private String address;
+        private int syncCount = 0;
+
+        @Override
+        protected void sync(List<String> addressList) {
+            address = addressList.get(0);
+            syncCount++;
+        }
+
+        @Override
+        protected String next() {
+            return address + "#" + syncCount;
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.xxl.job.admin.core.scheduler;
+
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JobScheduleIndexTest {
+
+    @Test
+    public void shouldPollDueJobOrderedByNextTime() {
+        //given
+        JobScheduleIndex index = new JobScheduleIndex();
+        index.refresh(job(1, 3000));
+        index.refresh(job(2, 1000));
+        index.refresh(job(3, 9000));
+
+        //when
+        List<XxlJobInfo> due = index.pollDue(5000, 10);
+
+        //then
+        assertEquals(2, due.size());
+        assertEquals(2, due.get(0).getId());
+        assertEquals(1, due.get(1).getId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void shouldNotReofferJobChangedSincePolled() {
+        //given
+        JobScheduleIndex index = new JobScheduleIndex();
+        index.refresh(job(1, 1000));
+        index.refresh(job(2, 1000));
+        List<XxlJobInfo> due = index.pollDue(1000, 10);
+
+        //when
+        index.remove(1);                        // stopped while scheduling
+        for (XxlJobInfo jobInfo : due) {
+            jobInfo.setTriggerNextTime(2000);
+            index.offer(jobInfo);
+        }
+
+        //then
+        List<XxlJobInfo> next = index.pollDue(2000, 10);
+        assertEquals(1, next.size());
+        assertEquals(2, next.get(0).getId());
+    }
+
+    @Test
+    public void shouldKeepNotifiedStateWhenReconcile() {
+        //given
+        JobScheduleIndex index = new JobScheduleIndex();
+        long startModSeq = index.getModSeq();
+        index.refresh(job(1, 5000));            // notified after db query start
+
+        //when
+        index.reconcile(Arrays.asList(job(1, 1000), job(2, 1000)), startModSeq);
+
+        //then
+        List<XxlJobInfo> due = index.pollDue(1000, 10);
+        assertEquals(1, due.size());
+        assertEquals(2, due.get(0).getId());
+        assertTrue(index.pollDue(5000, 10).get(0).getId() == 1);
+    }
+
+    private XxlJobInfo job(int id, long triggerNextTime) {
+        XxlJobInfo jobInfo = new XxlJobInfo();
+        jobInfo.setId(id);
+        jobInfo.setJobCron("* * * * * ?");
+        jobInfo.setTriggerStatus(1);
+        jobInfo.setTriggerNextTime(triggerNextTime);
+        return jobInfo;
+    }
+
+}
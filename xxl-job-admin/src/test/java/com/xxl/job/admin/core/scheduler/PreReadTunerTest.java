@@ -0,0 +1,51 @@
+package com.xxl.job.admin.core.scheduler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PreReadTunerTest {
+
+    @Test
+    public void shouldReadMoreWhenPoolIdleAndReadLimitHit() {
+        //given
+        PreReadTuner tuner = new PreReadTuner(6000, 5000, 300);
+
+        //when
+        tuner.tune(10, 0, 3000, 300, 100, 6000);
+
+        //then
+        assertEquals(30000, tuner.getTriggerCapacity());
+        assertEquals(30000, tuner.getPreReadCount());
+        assertEquals(6000, tuner.getPreReadMs());
+    }
+
+    @Test
+    public void shouldBackOffWhenPoolSaturated() {
+        //given
+        PreReadTuner tuner = new PreReadTuner(6000, 5000, 300);
+
+        //when
+        for (int i = 0; i < 20; i++) {
+            tuner.tune(200, 2500, 3000, 300, 0, 300);
+        }
+
+        //then
+        assertEquals(300, tuner.getPreReadCount());
+        assertEquals(PreReadTuner.MIN_WINDOW_MS, tuner.getPreReadMs());
+    }
+
+    @Test
+    public void shouldKeepWindowLongerThanSlowScan() {
+        //given
+        PreReadTuner tuner = new PreReadTuner(6000, 5000, 300);
+
+        //when
+        tuner.tune(50, 2500, 3000, 300, 3000, 300);
+
+        //then
+        assertTrue(tuner.getPreReadMs() >= 2 * (3000 + 1000));
+    }
+
+}
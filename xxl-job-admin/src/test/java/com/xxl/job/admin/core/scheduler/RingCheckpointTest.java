@@ -0,0 +1,129 @@
+package com.xxl.job.admin.core.scheduler;
+
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.admin.core.model.XxlJobRingCheckpoint;
+import com.xxl.job.admin.dao.XxlJobRingCheckpointDao;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RingCheckpointTest {
+
+    @Test
+    public void shouldAckFiredAndStopAckWhenAllFired() {
+        //given
+        MemoryCheckpointDao dao = new MemoryCheckpointDao();
+        RingCheckpoint checkpoint = new RingCheckpoint("admin-a", dao);
+        checkpoint.save(Arrays.asList(new XxlJobRingCheckpoint("admin-a", 1, 1000), new XxlJobRingCheckpoint("admin-a", 2, 2000)));
+
+        //when
+        boolean firstAck = checkpoint.ack(1500);
+        boolean secondAck = checkpoint.ack(2000);
+        boolean thirdAck = checkpoint.ack(3000);
+
+        //then
+        assertTrue(firstAck);
+        assertTrue(secondAck);
+        assertFalse(thirdAck);
+        assertEquals(0, dao.rows.size());
+    }
+
+    @Test
+    public void shouldClaimOrphanOnlyOnce() {
+        //given
+        MemoryCheckpointDao dao = new MemoryCheckpointDao();
+        new RingCheckpoint("admin-crashed", dao).save(Arrays.asList(new XxlJobRingCheckpoint("admin-crashed", 1, 1000)));
+        RingCheckpoint checkpointB = new RingCheckpoint("admin-b", dao);
+        RingCheckpoint checkpointC = new RingCheckpoint("admin-c", dao);
+
+        //when
+        List<XxlJobRingCheckpoint> notExpired = checkpointB.claimExpired(1000 + RingCheckpoint.REPLAY_DELAY_MS - 1, null);
+        List<XxlJobRingCheckpoint> claimedB = checkpointB.claimExpired(1000 + RingCheckpoint.REPLAY_DELAY_MS + 1, null);
+        List<XxlJobRingCheckpoint> claimedC = checkpointC.claimExpired(1000 + RingCheckpoint.REPLAY_DELAY_MS + 1, null);
+
+        //then
+        assertEquals(0, notExpired.size());
+        assertEquals(1, claimedB.size());
+        assertEquals(0, claimedC.size());
+    }
+
+    @Test
+    public void shouldReplayOnlyWhenTriggerInfoAdvanced() {
+        //given
+        XxlJobRingCheckpoint checkpoint = new XxlJobRingCheckpoint("admin-crashed", 1, 1000);
+        XxlJobInfo advanced = jobInfo(1, 2000);
+        XxlJobInfo notAdvanced = jobInfo(1, 1000);
+        XxlJobInfo stopped = jobInfo(0, 2000);
+
+        //then
+        assertTrue(RingCheckpoint.isLost(advanced, checkpoint));
+        assertFalse(RingCheckpoint.isLost(notAdvanced, checkpoint));
+        assertFalse(RingCheckpoint.isLost(stopped, checkpoint));
+        assertFalse(RingCheckpoint.isLost(null, checkpoint));
+    }
+
+    private static XxlJobInfo jobInfo(int triggerStatus, long triggerNextTime) {
+        XxlJobInfo jobInfo = new XxlJobInfo();
+        jobInfo.setTriggerStatus(triggerStatus);
+        jobInfo.setTriggerNextTime(triggerNextTime);
+        return jobInfo;
+    }
+
+    private static class MemoryCheckpointDao implements XxlJobRingCheckpointDao {
+        private final List<XxlJobRingCheckpoint> rows = new ArrayList<XxlJobRingCheckpoint>();
+        private long idSeq = 0;
+
+        @Override
+        public int saveBatch(List<XxlJobRingCheckpoint> list, int bucketCount) {
+            for (XxlJobRingCheckpoint item: list) {
+                XxlJobRingCheckpoint row = new XxlJobRingCheckpoint(item.getAdminId(), item.getJobId(), item.getTriggerTime());
+                row.setId(++idSeq);
+                rows.add(row);
+            }
+            return list.size();
+        }
+
+        @Override
+        public int ack(String adminId, long triggerTimeTo) {
+            int count = 0;
+            for (Iterator<XxlJobRingCheckpoint> it = rows.iterator(); it.hasNext(); ) {
+                XxlJobRingCheckpoint row = it.next();
+                if (row.getAdminId().equals(adminId) && row.getTriggerTime() <= triggerTimeTo) {
+                    it.remove();
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public List<XxlJobRingCheckpoint> findExpired(long triggerTimeTo, int pagesize, List<Integer> buckets) {
+            List<XxlJobRingCheckpoint> result = new ArrayList<XxlJobRingCheckpoint>();
+            for (XxlJobRingCheckpoint row: rows) {
+                if (row.getTriggerTime() < triggerTimeTo && result.size() < pagesize) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int delete(long id) {
+            for (Iterator<XxlJobRingCheckpoint> it = rows.iterator(); it.hasNext(); ) {
+                if (it.next().getId() == id) {
+                    it.remove();
+                    return 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+}
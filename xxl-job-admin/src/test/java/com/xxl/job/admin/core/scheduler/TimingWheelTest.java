@@ -0,0 +1,66 @@
+package com.xxl.job.admin.core.scheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    public void shouldExpireAtTickNotEarlierThanTriggerTime() {
+        //given
+        long start = 1000000L;
+        TimingWheel wheel = new TimingWheel(10, 16, start);
+        wheel.add(1, start + 15);
+        wheel.add(2, start + 3000);       // higher level, cascade
+        wheel.add(3, start - 50);         // overdue
+
+        //when
+        List<TimingWheel.Entry> first = wheel.advance(start);
+        List<TimingWheel.Entry> second = wheel.advance(start + 19);
+        List<TimingWheel.Entry> third = wheel.advance(start + 20);
+        List<TimingWheel.Entry> fourth = wheel.advance(start + 2999);
+        List<TimingWheel.Entry> fifth = wheel.advance(start + 3000);
+
+        //then
+        assertEquals(1, first.size());
+        assertEquals(3, first.get(0).getJobId());
+        assertTrue(second.isEmpty());
+        assertEquals(1, third.size());
+        assertEquals(1, third.get(0).getJobId());
+        assertTrue(fourth.isEmpty());
+        assertEquals(1, fifth.size());
+        assertEquals(2, fifth.get(0).getJobId());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void shouldExpireEveryEntryExactlyOnce() {
+        //given
+        long start = 0;
+        TimingWheel wheel = new TimingWheel(1, 64, start);
+        int count = 20000;
+        for (int i = 0; i < count; i++) {
+            wheel.add(i, start + (i * 7919L) % 300000);
+        }
+
+        //when
+        List<TimingWheel.Entry> expired = new ArrayList<TimingWheel.Entry>();
+        for (long now = start; now <= start + 300000; now += 3) {
+            for (TimingWheel.Entry entry : wheel.advance(now)) {
+                assertTrue(entry.getTriggerTime() <= now);
+                assertTrue(entry.getTriggerTime() > now - 3);
+                expired.add(entry);
+            }
+        }
+
+        //then
+        assertEquals(count, expired.size());
+        assertTrue(wheel.isEmpty());
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.dao.XxlJobIdSegmentDao;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdSegmentAllocatorTest {
+
+    @Test
+    public void shouldNotOverlapBetweenAdmins() {
+        //given
+        MemoryIdSegmentDao dao = new MemoryIdSegmentDao();
+        IdSegmentAllocator adminA = new IdSegmentAllocator("xxl_job_log", 10, dao);
+        IdSegmentAllocator adminB = new IdSegmentAllocator("xxl_job_log", 10, dao);
+
+        //when
+        Set<Long> ids = new HashSet<Long>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(adminA.nextId());
+            ids.add(adminB.nextId());
+        }
+
+        //then
+        assertEquals(1000, ids.size());
+        adminA.stop();
+        adminB.stop();
+    }
+
+    @Test
+    public void shouldStartAboveFloorId() {
+        //given
+        MemoryIdSegmentDao dao = new MemoryIdSegmentDao();
+        IdSegmentAllocator allocator = new IdSegmentAllocator("xxl_job_log", 10, dao) {
+            @Override
+            protected long floorId() {
+                return 12345;
+            }
+        };
+
+        //when
+        long id = allocator.nextId();
+
+        //then
+        assertEquals(12346, id);
+        assertTrue(dao.rows.get("xxl_job_log") >= 12355);
+        allocator.stop();
+    }
+
+    private static class MemoryIdSegmentDao implements XxlJobIdSegmentDao {
+        private final Map<String, Long> rows = new HashMap<String, Long>();
+
+        @Override
+        public synchronized Long loadMaxId(String bizTag) {
+            return rows.get(bizTag);
+        }
+
+        @Override
+        public synchronized int save(String bizTag, long maxId) {
+            if (rows.containsKey(bizTag)) {
+                return 0;
+            }
+            rows.put(bizTag, maxId);
+            return 1;
+        }
+
+        @Override
+        public synchronized int updateMaxId(String bizTag, long oldMaxId, long newMaxId) {
+            Long maxId = rows.get(bizTag);
+            if (maxId == null || maxId != oldMaxId) {
+                return 0;
+            }
+            rows.put(bizTag, newMaxId);
+            return 1;
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.xxl.job.admin.core.thread;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JobCostTrackerTest {
+
+    @Test
+    public void shouldMoveToSlowOnlyWhenCostStaysHigh() {
+        //given
+        JobCostTracker tracker = new JobCostTracker(10, 500, 1000);
+
+        //when
+        tracker.record(1, 2000);
+        boolean slowAfterOutlier = tracker.isSlow(1);
+        for (int i = 0; i < 30; i++) {
+            tracker.record(1, 800);
+        }
+
+        //then
+        assertFalse(slowAfterOutlier);
+        assertTrue(tracker.isSlow(1));
+        assertEquals(1, tracker.getSlowCount());
+    }
+
+    @Test
+    public void shouldNotFlapAroundThreshold() {
+        //given
+        JobCostTracker tracker = new JobCostTracker(10, 500, 1000);
+        for (int i = 0; i < 50; i++) {
+            tracker.record(1, 600);
+        }
+
+        //when
+        boolean flapped = false;
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1, i % 2 == 0 ? 300 : 600);
+            flapped |= !tracker.isSlow(1);
+        }
+        for (int i = 0; i < 50; i++) {
+            tracker.record(1, 50);
+        }
+
+        //then
+        assertFalse(flapped);
+        assertFalse(tracker.isSlow(1));
+        assertEquals(0, tracker.getSlowCount());
+    }
+
+    @Test
+    public void shouldKeepOtherJobsWhenRemoveAndRehash() {
+        //given
+        JobCostTracker tracker = new JobCostTracker(1, 500, 10000);
+        for (int jobId = 1; jobId <= 1000; jobId++) {
+            tracker.record(jobId, jobId);
+        }
+
+        //when
+        for (int jobId = 1; jobId <= 1000; jobId += 2) {
+            tracker.remove(jobId);
+        }
+
+        //then
+        assertEquals(500, tracker.getSize());
+        for (int jobId = 1; jobId <= 1000; jobId++) {
+            assertEquals(jobId % 2 == 0 ? jobId : -1, tracker.getCostAvg(jobId));
+        }
+        assertEquals(250, tracker.getSlowCount());
+    }
+
+}
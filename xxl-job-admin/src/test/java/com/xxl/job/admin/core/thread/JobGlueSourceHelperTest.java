@@ -0,0 +1,106 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.glue.GlueSourceCache;
+import com.xxl.job.core.glue.GlueTypeEnum;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JobGlueSourceHelperTest {
+
+    @Test
+    public void shouldOmitGlueSourceOnlyAfterExecutorAcked() {
+        //given
+        JobGlueSourceHelper helper = new JobGlueSourceHelper();
+        XxlJobInfo jobInfo = glueJob("echo hello");
+        String address = "127.0.0.1:9999";
+
+        //when
+        TriggerParam firstParam = triggerParam(jobInfo);
+        helper.prepare(firstParam, jobInfo, address);
+        ReturnT<String> ackResult = new ReturnT<String>(ReturnT.SUCCESS_CODE, null);
+        ackResult.setContent(firstParam.getGlueHash());
+        helper.ack(address, firstParam, ackResult);
+
+        TriggerParam secondParam = triggerParam(jobInfo);
+        helper.prepare(secondParam, jobInfo, address);
+
+        //then
+        assertEquals(GlueSourceCache.hash("echo hello"), firstParam.getGlueHash());
+        assertEquals("echo hello", firstParam.getGlueSource());
+        assertEquals(firstParam.getGlueHash(), secondParam.getGlueHash());
+        assertNull(secondParam.getGlueSource());
+    }
+
+    @Test
+    public void shouldShipGlueSourceAgainWhenOmittedButNotAcked() {
+        //given
+        JobGlueSourceHelper helper = new JobGlueSourceHelper();
+        XxlJobInfo jobInfo = glueJob("echo hello");
+        String address = "127.0.0.1:9999";
+        TriggerParam ackedParam = triggerParam(jobInfo);
+        helper.prepare(ackedParam, jobInfo, address);
+        ReturnT<String> ackResult = new ReturnT<String>(ReturnT.SUCCESS_CODE, null);
+        ackResult.setContent(ackedParam.getGlueHash());
+        helper.ack(address, ackedParam, ackResult);
+
+        //when
+        TriggerParam omittedParam = triggerParam(jobInfo);
+        helper.prepare(omittedParam, jobInfo, address);
+        helper.ack(address, omittedParam, new ReturnT<String>(ReturnT.SUCCESS_CODE, null));
+
+        TriggerParam nextParam = triggerParam(jobInfo);
+        helper.prepare(nextParam, jobInfo, address);
+
+        //then
+        assertNull(omittedParam.getGlueSource());
+        assertEquals("echo hello", nextParam.getGlueSource());
+    }
+
+    @Test
+    public void shouldShipGlueSourceOfGlueNotAcked() {
+        //given
+        JobGlueSourceHelper helper = new JobGlueSourceHelper();
+        XxlJobInfo jobInfo = glueJob("echo hello");
+        String address = "127.0.0.1:9999";
+        TriggerParam ackedParam = triggerParam(jobInfo);
+        helper.prepare(ackedParam, jobInfo, address);
+        ReturnT<String> ackResult = new ReturnT<String>(ReturnT.SUCCESS_CODE, null);
+        ackResult.setContent(ackedParam.getGlueHash());
+        helper.ack(address, ackedParam, ackResult);
+
+        //when
+        XxlJobInfo otherJobInfo = glueJob("echo world");
+        otherJobInfo.setId(2);
+        TriggerParam otherParam = triggerParam(otherJobInfo);
+        helper.prepare(otherParam, otherJobInfo, address);
+
+        //then
+        assertEquals("echo world", otherParam.getGlueSource());
+    }
+
+    private XxlJobInfo glueJob(String glueSource) {
+        XxlJobInfo jobInfo = new XxlJobInfo();
+        jobInfo.setId(1);
+        jobInfo.setGlueType(GlueTypeEnum.GLUE_SHELL.name());
+        jobInfo.setGlueSource(glueSource);
+        jobInfo.setGlueUpdatetime(new Date(100000));
+        return jobInfo;
+    }
+
+    private TriggerParam triggerParam(XxlJobInfo jobInfo) {
+        TriggerParam triggerParam = new TriggerParam();
+        triggerParam.setJobId(jobInfo.getId());
+        triggerParam.setGlueType(jobInfo.getGlueType());
+        triggerParam.setGlueSource(jobInfo.getGlueSource());
+        triggerParam.setGlueUpdatetime(jobInfo.getGlueUpdatetime().getTime());
+        return triggerParam;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.model.XxlJobLog;
+import com.xxl.job.admin.dao.XxlJobLogDao;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JobLogJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReplayRowNotWritten() throws Exception {
+        //given
+        File dir = folder.newFolder("journal");
+        JobLogJournal journal = new JobLogJournal(dir.getAbsolutePath());
+        journal.append(newLog(1)).release();
+        journal.append(newLog(2));      // crashed before written
+
+        //when
+        List<XxlJobLog> replayList = new ArrayList<XxlJobLog>();
+        int replayCount = new JobLogJournal(dir.getAbsolutePath()).replay(recordDao(replayList));
+
+        //then
+        assertEquals(2, replayCount);
+        assertEquals(2, replayList.get(1).getId());
+        assertEquals(200, replayList.get(1).getTriggerCode());
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void shouldDeleteSegmentWhenAllWritten() throws Exception {
+        //given
+        File dir = folder.newFolder("journal");
+        JobLogJournal journal = new JobLogJournal(dir.getAbsolutePath());
+        JobLogJournal.Segment segment1 = journal.append(newLog(1));
+        JobLogJournal.Segment segment2 = journal.append(newLog(2));
+
+        //when
+        segment1.release();
+        segment2.release();
+        journal.close();
+
+        //then
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    private static XxlJobLog newLog(long id) {
+        XxlJobLog jobLog = new XxlJobLog();
+        jobLog.setId(id);
+        jobLog.setJobGroup(1);
+        jobLog.setJobId(1);
+        jobLog.setTriggerTime(new Date());
+        jobLog.setTriggerCode(200);
+        return jobLog;
+    }
+
+    private static XxlJobLogDao recordDao(final List<XxlJobLog> replayList) {
+        return (XxlJobLogDao) Proxy.newProxyInstance(XxlJobLogDao.class.getClassLoader(), new Class[]{XxlJobLogDao.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("saveTriggerInfoBatch".equals(method.getName())) {
+                    List<XxlJobLog> logList = (List<XxlJobLog>) args[0];
+                    replayList.addAll(logList);
+                    return logList.size();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+}
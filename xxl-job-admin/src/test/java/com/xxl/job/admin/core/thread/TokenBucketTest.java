@@ -0,0 +1,44 @@
+package com.xxl.job.admin.core.thread;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenBucketTest {
+
+    @Test
+    public void shouldDelayOverBurstInsteadOfRefuse() {
+        //given
+        TokenBucket bucket = new TokenBucket(10);
+        long nowTime = 100000;
+
+        //when
+        long burstDelay = 0;
+        for (int i = 0; i < 10; i++) {
+            burstDelay += bucket.reserve(nowTime);
+        }
+        long firstThrottled = bucket.reserve(nowTime);
+        long secondThrottled = bucket.reserve(nowTime);
+
+        //then
+        assertEquals(0, burstDelay);
+        assertEquals(100, firstThrottled);
+        assertEquals(200, secondThrottled);
+    }
+
+    @Test
+    public void shouldRefillAfterIdle() {
+        //given
+        TokenBucket bucket = new TokenBucket(10);
+        for (int i = 0; i < 12; i++) {
+            bucket.reserve(100000);
+        }
+
+        //when
+        long delayAfterIdle = bucket.reserve(100000 + 2000);
+
+        //then
+        assertEquals(0, delayAfterIdle);
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.xxl.job.admin.core.thread;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TriggerBulkheadTest {
+
+    @Test
+    public void shouldNotStallOtherGroupWhenOneGroupSaturated() throws Exception {
+        //given
+        final CountDownLatch release = new CountDownLatch(1);
+        TriggerWorkerPool workers = new TriggerWorkerPool(2, "test-", null);
+        TriggerBulkhead degraded = new TriggerBulkhead(1, 1, 1, 1, 1, workers, workers);
+        TriggerBulkhead healthy = new TriggerBulkhead(2, 1, 1, 1, 1, workers, workers);
+        Runnable blocked = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // stop
+                }
+            }
+        };
+
+        //when
+        degraded.execute(blocked, false);
+        degraded.execute(blocked, false);
+        try {
+            degraded.execute(blocked, false);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // queue of degraded group full
+        }
+        final CountDownLatch healthyRun = new CountDownLatch(1);
+        healthy.execute(new Runnable() {
+            @Override
+            public void run() {
+                healthyRun.countDown();
+            }
+        }, false);
+
+        //then
+        assertTrue(healthyRun.await(5, TimeUnit.SECONDS));
+        assertEquals(1, degraded.getRejectedCount());
+        assertTrue(degraded.getSaturation() > healthy.getSaturation());
+        release.countDown();
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void shouldCapTotalThreadByWorkerPoolMax() throws Exception {
+        //given: 3 groups of limit 2, worker pool of 4
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger(0);
+        final CountDownLatch finished = new CountDownLatch(6);
+        TriggerWorkerPool workers = new TriggerWorkerPool(4, "test-", null);
+        TriggerBulkhead[] bulkheads = new TriggerBulkhead[3];
+        for (int i = 0; i < bulkheads.length; i++) {
+            bulkheads[i] = new TriggerBulkhead(i, 2, 1, 10, 10, workers, workers);
+        }
+        Runnable blocked = new Runnable() {
+            @Override
+            public void run() {
+                running.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // stop
+                }
+                finished.countDown();
+            }
+        };
+
+        //when
+        for (TriggerBulkhead bulkhead: bulkheads) {
+            bulkhead.execute(blocked, false);
+            bulkhead.execute(blocked, false);
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        //then: total capped, left ones queued and run later
+        assertEquals(4, running.get());
+        assertEquals(4, workers.getActiveCount());
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void shouldBoundThreadPerTriggerBySemaphoreOfGroup() throws Exception {
+        //given: thread per trigger as virtual thread mode, platform thread on jdk without virtual thread; worker max not a bound
+        ThreadFactory threadFactory = TriggerBulkhead.newVirtualThreadFactory("test-");
+        if (threadFactory == null) {
+            threadFactory = Executors.defaultThreadFactory();
+        }
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger(0);
+        final CountDownLatch finished = new CountDownLatch(6);
+        TriggerWorkerPool fastWorkers = new TriggerWorkerPool(1, "test-", threadFactory);
+        TriggerWorkerPool slowWorkers = new TriggerWorkerPool(1, "test-", threadFactory);
+        TriggerBulkhead bulkhead = new TriggerBulkhead(1, 2, 1, 1, 1, fastWorkers, slowWorkers);
+        TriggerBulkhead otherBulkhead = new TriggerBulkhead(2, 2, 1, 1, 1, fastWorkers, slowWorkers);
+        Runnable blocked = new Runnable() {
+            @Override
+            public void run() {
+                running.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // stop
+                }
+                finished.countDown();
+            }
+        };
+
+        //when
+        bulkhead.execute(blocked, false);
+        bulkhead.execute(blocked, false);
+        bulkhead.execute(blocked, false);
+        boolean rejected = false;
+        try {
+            bulkhead.execute(blocked, false);
+        } catch (RejectedExecutionException e) {
+            rejected = true;
+        }
+        otherBulkhead.execute(blocked, false);
+        otherBulkhead.execute(blocked, false);
+        otherBulkhead.execute(blocked, false);
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        //then
+        assertTrue(rejected);
+        assertEquals(4, running.get());
+        assertEquals(2, bulkhead.getActiveCount());
+        assertEquals(1, bulkhead.getQueueSize());
+        assertEquals(2, otherBulkhead.getActiveCount());
+        assertFalse(bulkhead.canAccept(false));
+        assertTrue(bulkhead.canAccept(true));
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        bulkhead.shutdown();
+        otherBulkhead.shutdown();
+        fastWorkers.shutdownNow();
+        slowWorkers.shutdownNow();
+    }
+
+    @Test
+    public void shouldLimitGroupToHalfWhenShared() {
+        assertEquals(200, JobTriggerPoolHelper.groupLimit(200, 1));
+        assertEquals(100, JobTriggerPoolHelper.groupLimit(200, 4));
+        assertEquals(100, JobTriggerPoolHelper.groupLimit(200, 100));
+        assertEquals(1, JobTriggerPoolHelper.groupLimit(1, 3));
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.xxl.job.admin.core.util;
+
+import com.xxl.job.admin.core.model.XxlJobTriggerDiag;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TriggerMsgUtilTest {
+
+    @Test
+    public void shouldParseEncodedTriggerDiag() {
+        //given
+        XxlJobTriggerDiag triggerDiag = new XxlJobTriggerDiag();
+        triggerDiag.setTriggerType("CRON");
+        triggerDiag.setRegistrySize(3);
+        triggerDiag.setAddressIndex(1);
+        triggerDiag.setBeatType("beat");
+        triggerDiag.addBeat("127.0.0.1:9999", 500, "connect refused");
+        triggerDiag.setRunCode(200);
+
+        //when
+        String triggerMsg = TriggerMsgUtil.encode(triggerDiag);
+        XxlJobTriggerDiag result = TriggerMsgUtil.parse(triggerMsg);
+
+        //then
+        assertTrue(triggerMsg.length() < 300);
+        assertEquals("CRON", result.getTriggerType());
+        assertEquals(1, result.getAddressIndex());
+        assertEquals("127.0.0.1:9999", result.getBeatList().get(0).getAddress());
+        assertEquals(500, result.getBeatList().get(0).getCode());
+        assertEquals(200, result.getRunCode());
+    }
+
+    @Test
+    public void shouldKeepHtmlTriggerMsgOfOldVersion() {
+        //given
+        String triggerMsg = "任务触发类型：Cron触发<br>调度机器：127.0.0.1";
+
+        //when
+        XxlJobTriggerDiag result = TriggerMsgUtil.parse(triggerMsg);
+
+        //then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldMarkRetryInTriggerDiag() {
+        //given
+        XxlJobTriggerDiag triggerDiag = new XxlJobTriggerDiag();
+        triggerDiag.setTriggerType("CRON");
+
+        //when
+        String triggerMsg = TriggerMsgUtil.markRetry(TriggerMsgUtil.encode(triggerDiag));
+
+        //then
+        assertTrue(TriggerMsgUtil.parse(triggerMsg).isRetried());
+    }
+
+}
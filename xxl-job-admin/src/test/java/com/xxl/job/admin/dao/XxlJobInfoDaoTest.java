@@ -7,6 +7,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -44,6 +46,9 @@ public class XxlJobInfoDaoTest {
 		info.setGlueSource("setGlueSource");
 		info.setGlueRemark("setGlueRemark");
 		info.setChildJobId("1");
+		info.setMisfireStrategy("DO_NOTHING");
+		info.setScheduleType("CRON");
+		info.setScheduleInterval(0);
 
 		info.setAddTime(new Date());
 		info.setUpdateTime(new Date());
@@ -65,10 +70,15 @@ public class XxlJobInfoDaoTest {
 		info2.setGlueRemark("setGlueRemark2");
 		info2.setGlueUpdatetime(new Date());
 		info2.setChildJobId("1");
+		info2.setMisfireStrategy("FIRE_ONCE_NOW");
+		info2.setScheduleType("FIX_RATE");
+		info2.setScheduleInterval(500);
 
 		info2.setUpdateTime(new Date());
 		int item2 = xxlJobInfoDao.update(info2);
 
+		List<XxlJobInfo> updateList = xxlJobInfoDao.findUpdateVersion(new Date(System.currentTimeMillis() - 60 * 1000));
+
 		xxlJobInfoDao.delete(info2.getId());
 
 		List<XxlJobInfo> list2 = xxlJobInfoDao.getJobsByGroup(1);
@@ -77,4 +87,29 @@ public class XxlJobInfoDaoTest {
 
 	}
 
+	@Test
+	public void scheduleUpdateBatch(){
+		List<XxlJobInfo> list = xxlJobInfoDao.scheduleJobQuery(System.currentTimeMillis() + 5000, 20, null);
+		List<Long> expectNextTimes = new ArrayList<Long>();
+		List<Integer> ids = new ArrayList<Integer>();
+		for (XxlJobInfo item: list) {
+			expectNextTimes.add(item.getTriggerNextTime());
+			ids.add(item.getId());
+			item.setTriggerLastTime(item.getTriggerNextTime());
+			item.setTriggerNextTime(item.getTriggerNextTime() + 1000);
+		}
+		if (list.size() > 0) {
+			int ret = xxlJobInfoDao.scheduleUpdateBatch(list, expectNextTimes);
+			int ret2 = xxlJobInfoDao.scheduleUpdateBatch(list, expectNextTimes);	// changed meanwhile, skip
+			System.out.println(ret + ", " + ret2);
+
+			List<XxlJobInfo> loadList = xxlJobInfoDao.scheduleIndexLoad(ids);
+		}
+
+		List<XxlJobInfo> indexList = xxlJobInfoDao.scheduleIndexQuery();
+		List<XxlJobInfo> updateList = xxlJobInfoDao.scheduleIndexUpdateQuery(new Date(System.currentTimeMillis() - 60 * 1000));
+		XxlJobInfo fixDelayInfo = xxlJobInfoDao.fixDelayLoad(1);		// null if not running fix delay job
+		System.out.println(Arrays.asList(indexList));
+	}
+
 }
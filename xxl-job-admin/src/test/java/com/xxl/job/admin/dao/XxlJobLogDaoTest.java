@@ -7,6 +7,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -45,6 +46,10 @@ public class XxlJobLogDaoTest {
         ret1 = xxlJobLogDao.updateHandleInfo(log);
         dto = xxlJobLogDao.load(log.getId());
 
+        ret1 = xxlJobLogDao.saveTriggerInfoBatch(Arrays.asList(log));
+        ret1 = xxlJobLogDao.updateHandleInfoBatch(Arrays.asList(log));
+        dto = xxlJobLogDao.load(log.getId());
+
 
         List<Long> ret4 = xxlJobLogDao.findClearLogIds(1, 1, new Date(), 100, 100);
 
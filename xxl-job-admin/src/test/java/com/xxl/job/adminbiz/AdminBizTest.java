@@ -2,6 +2,7 @@ package com.xxl.job.adminbiz;
 
 import com.xxl.job.core.biz.AdminBiz;
 import com.xxl.job.core.biz.client.AdminBizClient;
+import com.xxl.job.core.biz.model.GlueSourceParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -70,4 +71,19 @@ public class AdminBizTest {
 
     }
 
+    /**
+     * load glue source by glue hash
+     *
+     * @throws Exception
+     */
+    @Test
+    public void loadGlueSource() throws Exception {
+        AdminBiz adminBiz = new AdminBizClient(addressUrl, accessToken);
+
+        GlueSourceParam glueSourceParam = new GlueSourceParam(1, "d41d8cd98f00b204e9800998ecf8427e");
+        ReturnT<String> returnT = adminBiz.loadGlueSource(glueSourceParam);
+
+        Assert.assertTrue(returnT.getCode() == ReturnT.FAIL_CODE);
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.xxl.job.core.biz;
 
+import com.xxl.job.core.biz.model.GlueSourceParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -41,4 +42,15 @@ public interface AdminBiz {
      */
     public ReturnT<String> registryRemove(RegistryParam registryParam);
 
+
+    // ---------------------- glue ----------------------
+
+    /**
+     * load glue source by glue hash, current or history version of job
+     *
+     * @param glueSourceParam
+     * @return  glue source in content
+     */
+    public ReturnT<String> loadGlueSource(GlueSourceParam glueSourceParam);
+
 }
@@ -4,14 +4,21 @@ import com.xxl.job.core.biz.model.LogResult;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 
+import java.util.List;
+
 /**
  * Created by xuxueli on 17/3/1.
  */
 public interface ExecutorBiz {
 
+    /**
+     * capability of executor, "runBatch" supported
+     */
+    public static final String CAPABILITY_RUN_BATCH = "runBatch";
+
     /**
      * beat
-     * @return
+     * @return  content: capabilities of executor, comma separated; null if executor of old version
      */
     public ReturnT<String> beat();
 
@@ -46,4 +53,12 @@ public interface ExecutorBiz {
      */
     public ReturnT<String> run(TriggerParam triggerParam);
 
+    /**
+     * run batch, triggers of many jobs in one rpc
+     *
+     * @param triggerParamList
+     * @return  run result of each trigger, same order as triggerParamList
+     */
+    public ReturnT<List<ReturnT<String>>> runBatch(List<TriggerParam> triggerParamList);
+
 }
@@ -1,6 +1,7 @@
 package com.xxl.job.core.biz.client;
 
 import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.GlueSourceParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -45,4 +46,9 @@ public class AdminBizClient implements AdminBiz {
     public ReturnT<String> registryRemove(RegistryParam registryParam) {
         return XxlJobRemotingUtil.postBody(addressUrl + "api/registryRemove", accessToken, registryParam, 3);
     }
+
+    @Override
+    public ReturnT<String> loadGlueSource(GlueSourceParam glueSourceParam) {
+        return XxlJobRemotingUtil.postBody(addressUrl + "api/loadGlueSource", accessToken, glueSourceParam, 3);
+    }
 }
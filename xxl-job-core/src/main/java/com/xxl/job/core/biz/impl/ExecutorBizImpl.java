@@ -7,6 +7,7 @@ import com.xxl.job.core.biz.model.TriggerParam;
 import com.xxl.job.core.enums.ExecutorBlockStrategyEnum;
 import com.xxl.job.core.executor.XxlJobExecutor;
 import com.xxl.job.core.glue.GlueFactory;
+import com.xxl.job.core.glue.GlueSourceCache;
 import com.xxl.job.core.glue.GlueTypeEnum;
 import com.xxl.job.core.handler.IJobHandler;
 import com.xxl.job.core.handler.impl.GlueJobHandler;
@@ -16,7 +17,9 @@ import com.xxl.job.core.thread.JobThread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Created by xuxueli on 17/3/1.
@@ -26,7 +29,7 @@ public class ExecutorBizImpl implements ExecutorBiz {
 
     @Override
     public ReturnT<String> beat() {
-        return ReturnT.SUCCESS;
+        return new ReturnT<String>(CAPABILITY_RUN_BATCH);
     }
 
     @Override
@@ -112,8 +115,12 @@ public class ExecutorBizImpl implements ExecutorBiz {
 
             // valid handler
             if (jobHandler == null) {
+                String glueSource = loadGlueSource(triggerParam, glueTypeEnum);
+                if (glueSource == null) {
+                    return new ReturnT<String>(ReturnT.FAIL_CODE, "glue source[" + triggerParam.getGlueHash() + "] load fail.");
+                }
                 try {
-                    IJobHandler originJobHandler = GlueFactory.getInstance().loadNewInstance(triggerParam.getGlueSource());
+                    IJobHandler originJobHandler = GlueFactory.getInstance().loadNewInstance(glueSource);
                     jobHandler = new GlueJobHandler(originJobHandler, triggerParam.getGlueUpdatetime());
                 } catch (Exception e) {
                     logger.error(e.getMessage(), e);
@@ -135,7 +142,11 @@ public class ExecutorBizImpl implements ExecutorBiz {
 
             // valid handler
             if (jobHandler == null) {
-                jobHandler = new ScriptJobHandler(triggerParam.getJobId(), triggerParam.getGlueUpdatetime(), triggerParam.getGlueSource(), GlueTypeEnum.match(triggerParam.getGlueType()));
+                String glueSource = loadGlueSource(triggerParam, glueTypeEnum);
+                if (glueSource == null) {
+                    return new ReturnT<String>(ReturnT.FAIL_CODE, "glue source[" + triggerParam.getGlueHash() + "] load fail.");
+                }
+                jobHandler = new ScriptJobHandler(triggerParam.getJobId(), triggerParam.getGlueUpdatetime(), glueSource, glueTypeEnum, triggerParam.getGlueHash());
             }
         } else {
             return new ReturnT<String>(ReturnT.FAIL_CODE, "glueType[" + triggerParam.getGlueType() + "] is not valid.");
@@ -168,7 +179,43 @@ public class ExecutorBizImpl implements ExecutorBiz {
 
         // push data to queue
         ReturnT<String> pushResult = jobThread.pushTriggerQueue(triggerParam);
+
+        // ack glue hash, admin omits glue source from next trigger
+        if (triggerParam.getGlueHash() != null) {
+            pushResult = new ReturnT<String>(pushResult.getCode(), pushResult.getMsg());
+            pushResult.setContent(triggerParam.getGlueHash());
+        }
         return pushResult;
     }
 
+    /**
+     * glue source, shipped along or loaded by glue hash
+     *
+     * @return  null if load fail
+     */
+    private String loadGlueSource(TriggerParam triggerParam, GlueTypeEnum glueTypeEnum) {
+        if (triggerParam.getGlueHash() == null) {
+            // admin of old version
+            return triggerParam.getGlueSource();
+        }
+        return GlueSourceCache.getInstance().load(triggerParam.getJobId(), triggerParam.getGlueHash(), triggerParam.getGlueSource(), glueTypeEnum);
+    }
+
+    @Override
+    public ReturnT<List<ReturnT<String>>> runBatch(List<TriggerParam> triggerParamList) {
+        List<ReturnT<String>> runResultList = new ArrayList<ReturnT<String>>(triggerParamList.size());
+        for (TriggerParam triggerParam: triggerParamList) {
+            ReturnT<String> runResult;
+            try {
+                runResult = run(triggerParam);
+            } catch (Exception e) {
+                // one trigger fail, others go on
+                logger.error(e.getMessage(), e);
+                runResult = new ReturnT<String>(ReturnT.FAIL_CODE, e.toString());
+            }
+            runResultList.add(runResult);
+        }
+        return new ReturnT<List<ReturnT<String>>>(runResultList);
+    }
+
 }
@@ -0,0 +1,43 @@
+package com.xxl.job.core.biz.model;
+
+import java.io.Serializable;
+
+/**
+ * @author xuxueli 2020-06-06
+ */
+public class GlueSourceParam implements Serializable {
+    private static final long serialVersionUID = 42L;
+
+    private int jobId;
+    private String glueHash;
+
+    public GlueSourceParam(){}
+    public GlueSourceParam(int jobId, String glueHash) {
+        this.jobId = jobId;
+        this.glueHash = glueHash;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(int jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getGlueHash() {
+        return glueHash;
+    }
+
+    public void setGlueHash(String glueHash) {
+        this.glueHash = glueHash;
+    }
+
+    @Override
+    public String toString() {
+        return "GlueSourceParam{" +
+                "jobId=" + jobId +
+                ", glueHash='" + glueHash + '\'' +
+                '}';
+    }
+}
@@ -19,7 +19,8 @@ public class TriggerParam implements Serializable{
     private long logDateTime;
 
     private String glueType;
-    private String glueSource;
+    private String glueSource;      // null if executor acked glue hash, loaded by glue hash
+    private String glueHash;
     private long glueUpdatetime;
 
     private int broadcastIndex;
@@ -98,6 +99,14 @@ public class TriggerParam implements Serializable{
         this.glueSource = glueSource;
     }
 
+    public String getGlueHash() {
+        return glueHash;
+    }
+
+    public void setGlueHash(String glueHash) {
+        this.glueHash = glueHash;
+    }
+
     public long getGlueUpdatetime() {
         return glueUpdatetime;
     }
@@ -135,6 +144,7 @@ public class TriggerParam implements Serializable{
                 ", logDateTime=" + logDateTime +
                 ", glueType='" + glueType + '\'' +
                 ", glueSource='" + glueSource + '\'' +
+                ", glueHash='" + glueHash + '\'' +
                 ", glueUpdatetime=" + glueUpdatetime +
                 ", broadcastIndex=" + broadcastIndex +
                 ", broadcastTotal=" + broadcastTotal +
@@ -0,0 +1,151 @@
+package com.xxl.job.core.glue;
+
+import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.GlueSourceParam;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.executor.XxlJobExecutor;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import com.xxl.job.core.util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * glue source cache, content-addressed by glue hash (md5 of glue source)
+ *
+ *  - memory: lru of recent glue source
+ *  - disk: "gluesource/{glueHash}{suffix}", shared by jobs of same glue source, script job runs it directly
+ *  - miss: glue source loaded from admin by glue hash, verified before cached
+ *
+ * @author xuxueli 2020-06-06
+ */
+public class GlueSourceCache {
+    private static Logger logger = LoggerFactory.getLogger(GlueSourceCache.class);
+
+    private static GlueSourceCache instance = new GlueSourceCache();
+    public static GlueSourceCache getInstance(){
+        return instance;
+    }
+
+    private static final int MEMORY_MAX = 200;
+
+    private final Map<String, String> memoryCache = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true){
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MEMORY_MAX;
+        }
+    });
+
+    /**
+     * glue hash, md5 hex of glue source
+     */
+    public static String hash(String glueSource) {
+        if (glueSource == null) {
+            return null;
+        }
+        try {
+            byte[] md5 = MessageDigest.getInstance("MD5").digest(glueSource.getBytes("UTF-8"));
+            StringBuilder hashSb = new StringBuilder(md5.length * 2);
+            for (byte item: md5) {
+                hashSb.append(Character.forDigit((item >> 4) & 0xF, 16)).append(Character.forDigit(item & 0xF, 16));
+            }
+            return hashSb.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * glue file name, like "logPath/gluesource/{glueHash}.py"
+     */
+    public static String makeGlueFileName(String glueHash, GlueTypeEnum glueType) {
+        String suffix = (glueType!=null && glueType.getSuffix()!=null)?glueType.getSuffix():".groovy";
+        return XxlJobFileAppender.getGlueSrcPath()
+                .concat(File.separator)
+                .concat(glueHash)
+                .concat(suffix);
+    }
+
+    /**
+     * load glue source by glue hash
+     *
+     * @param glueSource    shipped along by admin, cached if not yet; null to load from cache or admin
+     * @return  null if not found
+     */
+    public String load(int jobId, String glueHash, String glueSource, GlueTypeEnum glueType) {
+        // shipped
+        if (glueSource != null) {
+            if (!memoryCache.containsKey(glueHash) && glueHash.equals(hash(glueSource))) {
+                store(glueHash, glueSource, glueType);
+            }
+            return glueSource;
+        }
+
+        // memory
+        String cachedSource = memoryCache.get(glueHash);
+        if (cachedSource != null) {
+            return cachedSource;
+        }
+
+        // disk
+        File glueFile = new File(makeGlueFileName(glueHash, glueType));
+        if (glueFile.exists()) {
+            try {
+                cachedSource = new String(FileUtil.readFileContent(glueFile), "UTF-8");
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+            if (cachedSource!=null && glueHash.equals(hash(cachedSource))) {
+                glueFile.setLastModified(System.currentTimeMillis());
+                memoryCache.put(glueHash, cachedSource);
+                return cachedSource;
+            }
+        }
+
+        // admin
+        if (XxlJobExecutor.getAdminBizList() != null) {
+            for (AdminBiz adminBiz: XxlJobExecutor.getAdminBizList()) {
+                try {
+                    ReturnT<String> loadResult = adminBiz.loadGlueSource(new GlueSourceParam(jobId, glueHash));
+                    if (loadResult!=null && loadResult.getCode()==ReturnT.SUCCESS_CODE
+                            && glueHash.equals(hash(loadResult.getContent()))) {
+                        store(glueHash, loadResult.getContent(), glueType);
+                        return loadResult.getContent();
+                    }
+                    logger.warn(">>>>>>>>>>> xxl-job glue source load fail, jobId:{}, glueHash:{}, loadResult:{}", jobId, glueHash,
+                            (loadResult!=null?loadResult.getMsg():null));
+                } catch (Exception e) {
+                    logger.error(">>>>>>>>>>> xxl-job glue source load error, jobId:{}, glueHash:{}", jobId, glueHash, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * cache glue source, glue file written to tmp and renamed, never seen half written
+     */
+    public void store(String glueHash, String glueSource, GlueTypeEnum glueType) {
+        memoryCache.put(glueHash, glueSource);
+
+        File glueFile = new File(makeGlueFileName(glueHash, glueType));
+        if (glueFile.exists()) {
+            return;
+        }
+        try {
+            File tmpFile = new File(glueFile.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+            FileUtil.writeFileContent(tmpFile, glueSource.getBytes("UTF-8"));
+            if (!tmpFile.renameTo(glueFile)) {
+                tmpFile.delete();
+            }
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.xxl.job.core.handler.impl;
 
 import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.glue.GlueSourceCache;
 import com.xxl.job.core.glue.GlueTypeEnum;
 import com.xxl.job.core.handler.IJobHandler;
 import com.xxl.job.core.log.XxlJobFileAppender;
@@ -19,12 +20,21 @@ public class ScriptJobHandler extends IJobHandler {
     private long glueUpdatetime;
     private String gluesource;
     private GlueTypeEnum glueType;
+    private String glueHash;
 
     public ScriptJobHandler(int jobId, long glueUpdatetime, String gluesource, GlueTypeEnum glueType){
+        this(jobId, glueUpdatetime, gluesource, glueType, null);
+    }
+
+    /**
+     * @param glueHash  not null, script file shared in glue source cache, like "gluesource/{glueHash}.py"
+     */
+    public ScriptJobHandler(int jobId, long glueUpdatetime, String gluesource, GlueTypeEnum glueType, String glueHash){
         this.jobId = jobId;
         this.glueUpdatetime = glueUpdatetime;
         this.gluesource = gluesource;
         this.glueType = glueType;
+        this.glueHash = glueHash;
 
         // clean old script file
         File glueSrcPath = new File(XxlJobFileAppender.getGlueSrcPath());
@@ -56,15 +66,23 @@ public class ScriptJobHandler extends IJobHandler {
         String cmd = glueType.getCmd();
 
         // make script file
-        String scriptFileName = XxlJobFileAppender.getGlueSrcPath()
-                .concat(File.separator)
-                .concat(String.valueOf(jobId))
-                .concat("_")
-                .concat(String.valueOf(glueUpdatetime))
-                .concat(glueType.getSuffix());
-        File scriptFile = new File(scriptFileName);
-        if (!scriptFile.exists()) {
-            ScriptUtil.markScriptFile(scriptFileName, gluesource);
+        String scriptFileName;
+        if (glueHash != null) {
+            scriptFileName = GlueSourceCache.makeGlueFileName(glueHash, glueType);
+            if (!new File(scriptFileName).exists()) {
+                GlueSourceCache.getInstance().store(glueHash, gluesource, glueType);
+            }
+        } else {
+            scriptFileName = XxlJobFileAppender.getGlueSrcPath()
+                    .concat(File.separator)
+                    .concat(String.valueOf(jobId))
+                    .concat("_")
+                    .concat(String.valueOf(glueUpdatetime))
+                    .concat(glueType.getSuffix());
+            File scriptFile = new File(scriptFileName);
+            if (!scriptFile.exists()) {
+                ScriptUtil.markScriptFile(scriptFileName, gluesource);
+            }
         }
 
         // log file
@@ -81,6 +81,17 @@ public class JobLogFileCleanThread {
                             }
                         }
 
+                        // clean glue file of glue source cache, not used over logRetentionDays, loaded again if used
+                        File[] glueFiles = new File(XxlJobFileAppender.getGlueSrcPath()).listFiles();
+                        if (glueFiles!=null && glueFiles.length>0) {
+                            long expireTime = System.currentTimeMillis() - logRetentionDays * 24L * 60 * 60 * 1000;
+                            for (File glueFile: glueFiles) {
+                                if (glueFile.isFile() && glueFile.getName().indexOf("_")==-1 && glueFile.lastModified() < expireTime) {
+                                    glueFile.delete();
+                                }
+                            }
+                        }
+
                     } catch (Exception e) {
                         if (!toStop) {
                             logger.error(e.getMessage(), e);
@@ -12,21 +12,24 @@ import com.xxl.rpc.remoting.invoker.reference.XxlRpcReferenceBean;
 import com.xxl.rpc.remoting.invoker.route.LoadBalance;
 import com.xxl.rpc.remoting.net.impl.netty_http.client.NettyHttpClient;
 import com.xxl.rpc.serialize.impl.HessianSerializer;
-import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Assert;
-import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 
 public class ExecutorBizImplTest {
 
-    public XxlJobExecutor xxlJobExecutor = null;
-    public ExecutorBiz executorBiz = null;
+    // one executor for all tests of class, port of executor not released at once when destroyed
+    public static XxlJobExecutor xxlJobExecutor = null;
+    public static ExecutorBiz executorBiz = null;
 
-    @Before
-    public void before() throws Exception {
+    @BeforeClass
+    public static void before() throws Exception {
 
         // init executor
         xxlJobExecutor = new XxlJobExecutor();
@@ -60,8 +63,8 @@ public class ExecutorBizImplTest {
         executorBiz = (ExecutorBiz) referenceBean.getObject();
     }
 
-    @After
-    public void after(){
+    @AfterClass
+    public static void after(){
         if (xxlJobExecutor != null) {
             xxlJobExecutor.destroy();
         }
@@ -75,7 +78,7 @@ public class ExecutorBizImplTest {
 
         // Assert result
         Assert.assertNotNull(retval);
-        Assert.assertNull(((ReturnT<String>) retval).getContent());
+        Assert.assertEquals(ExecutorBiz.CAPABILITY_RUN_BATCH, ((ReturnT<String>) retval).getContent());
         Assert.assertEquals(200, retval.getCode());
         Assert.assertNull(retval.getMsg());
     }
@@ -142,4 +145,27 @@ public class ExecutorBizImplTest {
         Assert.assertNotNull(retval);
     }
 
+    @Test
+    public void runBatch(){
+        // trigger data
+        final TriggerParam triggerParam = new TriggerParam();
+        triggerParam.setJobId(1);
+        triggerParam.setExecutorHandler("demoJobHandler");
+        triggerParam.setExecutorParams(null);
+        triggerParam.setExecutorBlockStrategy(ExecutorBlockStrategyEnum.COVER_EARLY.name());
+        triggerParam.setGlueType(GlueTypeEnum.BEAN.name());
+        triggerParam.setGlueSource(null);
+        triggerParam.setGlueUpdatetime(System.currentTimeMillis());
+        triggerParam.setLogId(1);
+        triggerParam.setLogDateTime(System.currentTimeMillis());
+
+        // Act
+        final ReturnT<List<ReturnT<String>>> retval = executorBiz.runBatch(Arrays.asList(triggerParam, triggerParam));
+
+        // Assert result
+        Assert.assertNotNull(retval);
+        Assert.assertEquals(200, retval.getCode());
+        Assert.assertEquals(2, retval.getContent().size());
+    }
+
 }
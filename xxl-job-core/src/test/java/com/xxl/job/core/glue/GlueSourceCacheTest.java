@@ -0,0 +1,35 @@
+package com.xxl.job.core.glue;
+
+import com.xxl.job.core.log.XxlJobFileAppender;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class GlueSourceCacheTest {
+
+    @Test
+    public void hash() {
+        Assert.assertEquals("d41d8cd98f00b204e9800998ecf8427e", GlueSourceCache.hash(""));
+        Assert.assertEquals(32, GlueSourceCache.hash("print('你好')").length());
+    }
+
+    @Test
+    public void loadFromDisk() throws Exception {
+        File logPath = Files.createTempDirectory("xxl-job-glue").toFile();
+        XxlJobFileAppender.initLogPath(logPath.getPath());
+
+        String glueSource = "#!/bin/bash\necho hello";
+        String glueHash = GlueSourceCache.hash(glueSource);
+        new GlueSourceCache().store(glueHash, glueSource, GlueTypeEnum.GLUE_SHELL);
+
+        // new cache, memory missed, loaded from glue file
+        String loadSource = new GlueSourceCache().load(1, glueHash, null, GlueTypeEnum.GLUE_SHELL);
+
+        Assert.assertEquals(glueSource, loadSource);
+        Assert.assertTrue(new File(GlueSourceCache.makeGlueFileName(glueHash, GlueTypeEnum.GLUE_SHELL)).exists());
+        Assert.assertNull(new GlueSourceCache().load(1, GlueSourceCache.hash("other"), null, GlueTypeEnum.GLUE_SHELL));
+    }
+
+}